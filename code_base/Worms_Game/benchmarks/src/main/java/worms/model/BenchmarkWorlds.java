@@ -0,0 +1,161 @@
+package worms.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import worms.gui.game.IActionHandler;
+
+/**
+ * The worlds and programs the benchmarks run on.
+ *
+ * The maps are generated like the maps of the tests: a layer of ground with floating blocks, at 20 pixels per
+ * meter. The size of a map is given as "columns x rows" (e.g. "1200x800"); the number and the size of the blocks
+ * grow with the map, so all sizes have about the same share of terrain and surfaces.
+ */
+public class BenchmarkWorlds {
+
+	/**
+	 * The number of pixels per meter of the generated maps
+	 */
+	public static final int PIXELS_PER_METER = 20;
+
+	/**
+	 * Returns the passable map of the given size, generated with the given seed
+	 * @param 	mapSize
+	 * 			the size of the map, as "columns x rows" (e.g. "1200x800")
+	 * @param 	seed
+	 * 			the seed of the random generator that places the blocks
+	 * @throws	IllegalArgumentException
+	 * 			if the size is not two positive numbers separated by an x
+	 */
+	public static boolean[][] createMap(String mapSize, long seed) throws IllegalArgumentException {
+		String[] parts = mapSize.split("x");
+		if (parts.length != 2)
+			throw new IllegalArgumentException("a map size looks like 1200x800: " + mapSize);
+		int columns = Integer.parseInt(parts[0].trim());
+		int rows = Integer.parseInt(parts[1].trim());
+		if (columns < 1 || rows < 1)
+			throw new IllegalArgumentException("a map needs at least one pixel: " + mapSize);
+		Random random = new Random(seed);
+		boolean[][] map = new boolean[rows][columns];
+		int ground = rows - rows / 10;
+		for (int row = 0; row < rows; row++)
+			for (int col = 0; col < columns; col++)
+				map[row][col] = row < ground;
+		// 15 blocks on a map of 300x200, more and larger ones on larger maps
+		double scale = Math.sqrt(columns * (double) rows / (300 * 200));
+		int nbBlocks = (int) Math.round(15 * scale * scale);
+		for (int block = 0; block < nbBlocks; block++) {
+			int height = (int) ((2 + random.nextInt(10)) * scale);
+			int width = (int) ((2 + random.nextInt(20)) * scale);
+			int top = random.nextInt(Math.max(1, ground - height - 1));
+			int left = random.nextInt(Math.max(1, columns - width));
+			for (int row = top; row < Math.min(rows, top + height); row++)
+				for (int col = left; col < Math.min(columns, left + width); col++)
+					map[row][col] = false;
+		}
+		return map;
+	}
+
+	/**
+	 * Returns a new world on the map of the given size, generated with the given seed, with PIXELS_PER_METER
+	 * pixels per meter and a random generator with the same seed
+	 * @effect	| createMap(mapSize, seed)
+	 */
+	public static World createWorld(String mapSize, long seed) throws IllegalArgumentException {
+		return createWorld(createMap(mapSize, seed), seed);
+	}
+
+	/**
+	 * Returns a new world on the given passable map, with PIXELS_PER_METER pixels per meter and a random generator
+	 * with the given seed (the world keeps a copy of the map, so a map can be used for many worlds)
+	 */
+	public static World createWorld(boolean[][] map, long seed) {
+		return new World(map[0].length / (double) PIXELS_PER_METER, map.length / (double) PIXELS_PER_METER, map,
+				new Random(seed));
+	}
+
+	/**
+	 * Returns the given number of positions in the air of the given world, where an object with the given radius
+	 * is neither in nor next to the terrain
+	 * @param 	random
+	 * 			the random generator that chooses the positions
+	 * @throws	IllegalArgumentException
+	 * 			if no such positions are found after many tries
+	 */
+	public static double[][] getAirPositions(World world, double radius, int count, Random random)
+			throws IllegalArgumentException {
+		double[][] result = new double[count][];
+		int found = 0;
+		for (int tries = 0; found < count && tries < 1000 * count; tries++) {
+			double x = radius + random.nextDouble() * (world.getWidth() - 2 * radius);
+			double y = radius + random.nextDouble() * (world.getHeight() - 2 * radius);
+			if (! world.isImpassablePosition(x, y, radius) && ! world.isAdjacentPosition(x, y, radius))
+				result[found++] = new double[] {x, y};
+		}
+		if (found < count)
+			throw new IllegalArgumentException("there is not enough air for objects with radius " + radius);
+		return result;
+	}
+
+	/**
+	 * Returns the text of the sample program with the given name (a file in the programs directory)
+	 * @throws	IOException
+	 * 			if there is no such program, or it can not be read
+	 */
+	public static String readProgram(String name) throws IOException {
+		InputStream input = BenchmarkWorlds.class.getResourceAsStream("/programs/" + name);
+		if (input == null)
+			throw new IOException("there is no sample program " + name);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int length;
+			while ((length = input.read(buffer)) > 0)
+				bytes.write(buffer, 0, length);
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * An action handler that does not execute any action, so that a program can be executed again and again
+	 * in the same world; every action succeeds.
+	 */
+	public static final IActionHandler IDLE_HANDLER = new IActionHandler() {
+
+		@Override
+		public boolean turn(Worm worm, double angle) {
+			return true;
+		}
+
+		@Override
+		public boolean move(Worm worm) {
+			return true;
+		}
+
+		@Override
+		public boolean jump(Worm worm) {
+			return true;
+		}
+
+		@Override
+		public boolean fire(Worm worm, int propulsion) {
+			return true;
+		}
+
+		@Override
+		public boolean toggleWeapon(Worm worm) {
+			return true;
+		}
+
+		@Override
+		public void print(String message) {
+		}
+	};
+}
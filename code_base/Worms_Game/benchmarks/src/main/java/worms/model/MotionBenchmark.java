@@ -0,0 +1,148 @@
+package worms.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the motions of worms and projectiles: Worm.move, Worm.fall, Movable.getJumpTime and the flight of a
+ * projectile, by map size and radius (or weapon, for projectiles).
+ *
+ * Every benchmark takes the next of a few worms, which are placed once before the measurement, so every call starts
+ * from the same world. A moved worm is put back where it was. For a fall, only the search of the landing position
+ * is measured (getFallSteps(), which is all of fall() but setting the position and the hit points): a worm that
+ * falls from high enough would not survive, and would leave the world. The trajectory of a jump is cached by the
+ * worm until the worm or the world changes, so it is forgotten before every call of getJumpTime(), which then
+ * solves the jump again.
+ *
+ * For a projectile, only its flight is measured (the getJumpTime() of a new projectile): Projectile.jump() also
+ * carves a crater where a projectile lands, which would change the world of the next calls. Carving is measured
+ * by TerrainBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotionBenchmark {
+
+	/**
+	 * The number of worms or projectiles of every benchmark, a power of two
+	 */
+	private static final int NB_OBJECTS = 16;
+
+	/**
+	 * A world with worms on its surfaces and in the air
+	 */
+	@State(Scope.Benchmark)
+	public static class Worms {
+
+		@Param({"300x200", "1200x800", "3000x2000"})
+		public String mapSize;
+
+		@Param({"0.25", "0.5", "1.0"})
+		public double radius;
+
+		private final Worm[] adjacentWorms = new Worm[NB_OBJECTS];
+
+		private final Worm[] fallingWorms = new Worm[NB_OBJECTS];
+
+		private int next;
+
+		@Setup
+		public void setUp() {
+			World world = BenchmarkWorlds.createWorld(this.mapSize, 5);
+			Random random = new Random(13);
+			double[][] adjacent = world.getFreePositions(this.radius, NB_OBJECTS);
+			double[][] air = BenchmarkWorlds.getAirPositions(world, this.radius, NB_OBJECTS, random);
+			for (int i = 0; i < NB_OBJECTS; i++) {
+				// upwards, so that the jumps of worms on the ground leave it
+				this.adjacentWorms[i] = new Worm(world, adjacent[i][0], adjacent[i][1], random.nextDouble() * Math.PI,
+						this.radius, "Walker");
+				this.fallingWorms[i] = new Worm(world, air[i][0], air[i][1], 0.0, this.radius, "Faller");
+			}
+		}
+
+		private int nextIndex() {
+			this.next = (this.next + 1) & (NB_OBJECTS - 1);
+			return this.next;
+		}
+	}
+
+	/**
+	 * A world without worms, from which projectiles are fired in the air
+	 */
+	@State(Scope.Benchmark)
+	public static class Projectiles {
+
+		@Param({"300x200", "1200x800", "3000x2000"})
+		public String mapSize;
+
+		@Param({"Rifle", "Bazooka"})
+		public Guns weapon;
+
+		private World world;
+
+		private double[][] positions;
+
+		private double[] directions;
+
+		private int next;
+
+		@Setup
+		public void setUp() {
+			this.world = BenchmarkWorlds.createWorld(this.mapSize, 5);
+			Random random = new Random(17);
+			this.positions = BenchmarkWorlds.getAirPositions(this.world, 0.1, NB_OBJECTS, random);
+			this.directions = new double[NB_OBJECTS];
+			for (int i = 0; i < NB_OBJECTS; i++)
+				this.directions[i] = random.nextDouble() * Math.PI;
+		}
+	}
+
+	@Benchmark
+	public double[] move(Worms worms) throws Exception {
+		Worm worm = worms.adjacentWorms[worms.nextIndex()];
+		double x = worm.getXPosition();
+		double y = worm.getYPosition();
+		worm.move();
+		double[] result = {worm.getXPosition(), worm.getYPosition()};
+		worm.setXPosition(x);
+		worm.setYPosition(y);
+		worm.setRemainingActionPoints(worm.getMaxActionPoints());
+		return result;
+	}
+
+	@Benchmark
+	public int fall(Worms worms) {
+		return worms.fallingWorms[worms.nextIndex()].getFallSteps();
+	}
+
+	@Benchmark
+	public double getJumpTime(Worms worms) {
+		Worm worm = worms.adjacentWorms[worms.nextIndex()];
+		// the worms and the world do not change, so without this the cached trajectory would be returned
+		worm.invalidateJumpTrajectory();
+		return worm.getJumpTime(HeadlessActionHandler.JUMP_TIME_STEP);
+	}
+
+	@Benchmark
+	public double projectileFlight(Projectiles projectiles) {
+		int index = projectiles.next = (projectiles.next + 1) & (NB_OBJECTS - 1);
+		double[] position = projectiles.positions[index];
+		Projectile projectile = new Projectile(projectiles.world, position[0], position[1],
+				projectiles.directions[index], 100, projectiles.weapon);
+		return projectile.getJumpTime(HeadlessActionHandler.JUMP_TIME_STEP);
+	}
+}
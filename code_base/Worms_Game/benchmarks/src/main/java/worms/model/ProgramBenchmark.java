@@ -0,0 +1,96 @@
+package worms.model;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import worms.model.part3.Expression;
+import worms.model.part3.ProgramFactoryImplementation;
+import worms.model.part3.Statement;
+import worms.model.part3.Type;
+import worms.model.programs.ParseOutcome;
+import worms.model.programs.ProgramParser;
+
+/**
+ * Benchmarks of the programs of worms: parsing the sample programs (ProgramParser.parse) and executing a turn of
+ * them (Program.allExec).
+ *
+ * The programs are parsed as ProgramCache parses them, with a parser and a factory that are kept between parses.
+ * A turn is executed with an action handler that does not execute the actions (BenchmarkWorlds.IDLE_HANDLER),
+ * so every turn starts from the same world and only the interpreter is measured. Turns are executed on maps of
+ * several sizes, since some expressions of the programs (e.g. searchobj) search the world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+
+	@Param({"program.txt", "program_example.txt", "program_simple.txt", "program_very_simple.txt"})
+	public String programName;
+
+	private String programText;
+
+	private ProgramFactoryImplementation factory;
+
+	private ProgramParser<Expression<Type>, Statement, Type> parser;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.programText = BenchmarkWorlds.readProgram(this.programName);
+		this.factory = new ProgramFactoryImplementation();
+		this.parser = new ProgramParser<Expression<Type>, Statement, Type>(this.factory);
+		this.factory.setParser(this.parser);
+	}
+
+	/**
+	 * A worm executing the program, in a world with another worm
+	 */
+	@State(Scope.Benchmark)
+	public static class Turn {
+
+		@Param({"300x200", "1200x800"})
+		public String mapSize;
+
+		private Program program;
+
+		@Setup
+		public void setUp(ProgramBenchmark benchmark) {
+			World world = BenchmarkWorlds.createWorld(this.mapSize, 5);
+			ParseOutcome<?> outcome = new ProgramCache().parse(benchmark.programText, BenchmarkWorlds.IDLE_HANDLER);
+			if (! outcome.isSuccess())
+				throw new IllegalStateException("program " + benchmark.programName + " can not be parsed: " + outcome.getResult());
+			Program program = (Program) outcome.getResult();
+			double[][] positions = world.getFreePositions(0.5, 2);
+			// a target for the programs that look for other worms
+			new Worm(world, positions[1][0], positions[1][1], 0.0, 0.5, "Target");
+			this.program = new Worm(world, positions[0][0], positions[0][1], 0.0, 0.5, "Runner", program).getProgram();
+		}
+	}
+
+	@Benchmark
+	public Statement parse() {
+		this.factory.reset();
+		this.parser.parse(this.programText);
+		return this.parser.getStatement();
+	}
+
+	@Benchmark
+	public int allExec(Turn turn) {
+		turn.program.allExec();
+		return turn.program.getProgramCounter();
+	}
+}
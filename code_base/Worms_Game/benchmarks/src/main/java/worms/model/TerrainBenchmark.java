@@ -0,0 +1,120 @@
+package worms.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the changes of the terrain of a world: carving a crater (World.carveCrater), by map size and crater
+ * radius, and building the structures derived from the terrain again (rebuild), which is what a change of the terrain
+ * cost before craters were carved incrementally.
+ *
+ * A crater changes the world, so every call of carveCrater() gets a new world, made before the call and not measured
+ * (a setup per invocation, which takes long on the larger maps, so few calls fit in an iteration). The distance field
+ * and the candidates of free positions for one radius are built in that setup, so carveCrater() updates them as in a
+ * game. The craters are carved around the highest surface of a few columns of the map, the next one for every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainBenchmark {
+
+	/**
+	 * The number of crater positions, a power of two
+	 */
+	private static final int NB_CRATERS = 16;
+
+	/**
+	 * The radius for which the candidates of free positions are built (and updated by a crater)
+	 */
+	private static final double SAMPLED_RADIUS = 0.5;
+
+	/**
+	 * A new world for every crater
+	 */
+	@State(Scope.Benchmark)
+	public static class Craters {
+
+		@Param({"300x200", "1200x800", "3000x2000"})
+		public String mapSize;
+
+		@Param({"0.25", "0.5", "1.0"})
+		public double craterRadius;
+
+		private boolean[][] map;
+
+		private double[][] centers;
+
+		private int next;
+
+		private World world;
+
+		@Setup(Level.Trial)
+		public void setUpTrial() {
+			this.map = BenchmarkWorlds.createMap(this.mapSize, 5);
+			// the highest surface of random columns, where a projectile fired from above lands
+			World world = BenchmarkWorlds.createWorld(this.map, 5);
+			SurfaceIndex surfaces = world.getSurfaceIndex();
+			Random random = new Random(13);
+			this.centers = new double[NB_CRATERS][];
+			for (int i = 0; i < NB_CRATERS; i++) {
+				int column = random.nextInt(surfaces.getWidth());
+				int top = surfaces.getFirstSolidRow(column, 0);
+				this.centers[i] = new double[] {(column + 0.5) * world.getPixelwidth(),
+						(surfaces.getHeight() - top) * world.getPixelheight()};
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void setUpInvocation() {
+			this.world = BenchmarkWorlds.createWorld(this.map, 5);
+			this.world.getFreePositions(SAMPLED_RADIUS, 1);
+		}
+	}
+
+	/**
+	 * A world whose terrain does not change
+	 */
+	@State(Scope.Benchmark)
+	public static class Terrain {
+
+		@Param({"300x200", "1200x800", "3000x2000"})
+		public String mapSize;
+
+		private World world;
+
+		@Setup
+		public void setUp() {
+			this.world = BenchmarkWorlds.createWorld(this.mapSize, 5);
+		}
+	}
+
+	@Benchmark
+	public TerrainRegion carveCrater(Craters craters) {
+		double[] center = craters.centers[craters.next = (craters.next + 1) & (NB_CRATERS - 1)];
+		return craters.world.carveCrater(center[0], center[1], craters.craterRadius);
+	}
+
+	@Benchmark
+	public int[] rebuild(Terrain terrain) {
+		World world = terrain.world;
+		// builds the surface index again, and forgets the distance field and the free position sampler
+		world.setTerrainMap(world.getTerrainMap());
+		world.getDistanceField();
+		return world.getFreePositionSampler().getCandidatePixels(SAMPLED_RADIUS);
+	}
+}
@@ -0,0 +1,83 @@
+package worms.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the queries of a world on its terrain: isImpassablePosition, isAdjacentPosition and
+ * getFreePositions, by map size and radius.
+ *
+ * The positions queried are drawn uniformly over the world before the measurement, so they mix positions in the
+ * air, in the terrain and next to it in the proportions of the map. Every call takes the next position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+	@Param({"300x200", "1200x800", "3000x2000"})
+	public String mapSize;
+
+	@Param({"0.25", "0.5", "1.0"})
+	public double radius;
+
+	/**
+	 * The number of positions queried, a power of two
+	 */
+	private static final int NB_POSITIONS = 1024;
+
+	private World world;
+
+	private double[][] positions;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		this.world = BenchmarkWorlds.createWorld(this.mapSize, 5);
+		Random random = new Random(11);
+		this.positions = new double[NB_POSITIONS][];
+		for (int i = 0; i < NB_POSITIONS; i++)
+			this.positions[i] = new double[] {random.nextDouble() * this.world.getWidth(),
+					random.nextDouble() * this.world.getHeight()};
+		// build the lazy indexes of the world before the measurement
+		this.world.getFreePositions(this.radius, 1);
+	}
+
+	private double[] nextPosition() {
+		this.next = (this.next + 1) & (NB_POSITIONS - 1);
+		return this.positions[this.next];
+	}
+
+	@Benchmark
+	public boolean isImpassablePosition() {
+		double[] position = this.nextPosition();
+		return this.world.isImpassablePosition(position[0], position[1], this.radius);
+	}
+
+	@Benchmark
+	public boolean isAdjacentPosition() {
+		double[] position = this.nextPosition();
+		return this.world.isAdjacentPosition(position[0], position[1], this.radius);
+	}
+
+	@Benchmark
+	public double[][] getFreePosition() {
+		return this.world.getFreePositions(this.radius, 1);
+	}
+}
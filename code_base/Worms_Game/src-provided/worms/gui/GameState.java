@@ -32,7 +32,7 @@ public class GameState {
 	public synchronized void createWorld() {
 		level.load();
 		world = facade.createWorld(level.getWorldWidth(),
-				level.getWorldHeight(), level.getPassableMap(), random);
+				level.getWorldHeight(), level.getTerrainMap(), random);
 	}
 
 	public IFacade getFacade() {
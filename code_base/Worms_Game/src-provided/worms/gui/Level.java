@@ -13,6 +13,9 @@ import java.util.List;
 
 import javax.imageio.ImageIO;
 
+import worms.model.BitTerrainMap;
+import worms.model.TerrainMap;
+
 public class Level {
 
 	private static final String LEVELS_DIRECTORY = "levels";
@@ -193,19 +196,28 @@ public class Level {
 	}
 
 	public boolean[][] getPassableMap() {
-		final boolean[][] result = new boolean[getMapHeight()][getMapWidth()];
-		final byte[] bytes = ((DataBufferByte) mapImage.getRaster()
-				.getDataBuffer()).getData();
+		return BitTerrainMap.toPassableMap(getTerrainMap());
+	}
+
+	/**
+	 * Terrain of this level, packed 64 pixels per word
+	 * 
+	 * @return
+	 */
+	public TerrainMap getTerrainMap() {
 		final int w = getMapWidth();
 		final int h = getMapHeight();
+		final BitTerrainMap result = new BitTerrainMap(w, h);
+		final byte[] bytes = ((DataBufferByte) mapImage.getRaster()
+				.getDataBuffer()).getData();
 		for (int row = 0; row < h; row++) {
 			final int offset = w * row;
 			for (int col = 0; col < w; col++) {
 				final byte alpha = bytes[4 * (offset + col)];
 				// alpha < 128 ((alpha & 0xf) == 0) => passable
 				// alpha >= 128 ((alpha & 0xf) != 0) => impassable
-				if (((int) alpha & 0xf0) == 0) {
-					result[row][col] = true;
+				if (((int) alpha & 0xf0) != 0) {
+					result.setPassable(col, row, false);
 				}
 			}
 		}
@@ -126,6 +126,13 @@ public abstract class Screen {
 
 	}
 
+	/**
+	 * Repaints the given rectangle of this screen (in screen coordinates) only
+	 */
+	public void repaint(int x, int y, int width, int height) {
+		getContents().repaint(x, y, width, height);
+	}
+
 	public void screenStopped() {
 		switchInputMode(null);
 	}
@@ -6,12 +6,14 @@ import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D.Double;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 
 import worms.gui.GUIUtils;
 import worms.gui.Level;
 import worms.gui.game.sprites.FoodSprite;
 import worms.gui.game.sprites.WormSprite;
+import worms.model.TerrainMap;
 import worms.model.World;
 
 public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
@@ -22,6 +24,8 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
 	private static final boolean PAINT_PASSABLE = true;
 
+	private static final Color TERRAIN_COLOR = new Color(255, 255, 0, 32);
+
 	private Image passableImage;
 
 	public PlayGameScreenDebugPainter(PlayGameScreen screen) {
@@ -69,6 +73,8 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		imAdjacencyGfx.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
 				RenderingHints.VALUE_ANTIALIAS_ON);
 
+		paintTerrain(imGfx, world);
+
 		double testRadius = getScreen().screenToWorldDistance(10); // 10
 																	// screen
 																	// pixels
@@ -106,6 +112,38 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		return image;
 	}
 
+	/**
+	 * Paint the impassable pixels of the terrain of the given world, one rectangle per run
+	 * of impassable pixels in a row
+	 */
+	protected void paintTerrain(Graphics2D g, World world) {
+		TerrainMap terrain = world.getTerrainMap();
+		double pixelWidth = world.getPixelwidth();
+		double pixelHeight = world.getPixelheight();
+		g.setColor(TERRAIN_COLOR);
+		for (int row = 0; row < terrain.getHeight(); row++) {
+			double top = getScreenY(world.getHeight() - row * pixelHeight);
+			double bottom = getScreenY(world.getHeight() - (row + 1)
+					* pixelHeight);
+			int col = 0;
+			while (col < terrain.getWidth()) {
+				if (terrain.isPassable(col, row)) {
+					col++;
+				} else {
+					int start = col;
+					while (col < terrain.getWidth()
+							&& !terrain.isPassable(col, row)) {
+						col++;
+					}
+					double left = getScreenX(start * pixelWidth);
+					double right = getScreenX(col * pixelWidth);
+					g.fill(new Rectangle2D.Double(left, top, right - left,
+							bottom - top));
+				}
+			}
+		}
+	}
+
 	@Override
 	protected void paintWorm(WormSprite sprite) {
 
@@ -1,16 +1,21 @@
 package worms.gui.game;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import worms.gui.AbstractPainter;
 import worms.gui.GUIUtils;
@@ -20,6 +25,9 @@ import worms.gui.game.sprites.FoodSprite;
 import worms.gui.game.sprites.ProjectileSprite;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.ModelException;
+import worms.model.TerrainListener;
+import worms.model.TerrainMap;
+import worms.model.TerrainRegion;
 import worms.model.World;
 
 public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
@@ -63,7 +71,25 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 	protected static final double DIRECTION_INDICATOR_SIZE = 10;
 
 	protected Graphics2D currentGraphics;
-	private Image scaledImage;
+	private BufferedImage scaledImage;
+
+	/**
+	 * The world whose terrain changes are drawn on the background, and the
+	 * regions that have changed since the background was last painted
+	 */
+	private World listenedWorld;
+	private final Queue<TerrainRegion> changedRegions = new ConcurrentLinkedQueue<TerrainRegion>();
+
+	private final TerrainListener terrainListener = new TerrainListener() {
+		@Override
+		public void terrainChanged(World world, TerrainRegion region) {
+			changedRegions.add(region);
+			Rectangle area = getBackgroundArea(world, region);
+			getScreen().repaint((int) getScreenX(0) + area.x,
+					(int) getScreenY(getLevel().getWorldHeight()) + area.y,
+					area.width, area.height);
+		}
+	};
 
 	public PlayGameScreenPainter(PlayGameScreen screen) {
 		super(screen);
@@ -71,10 +97,67 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 
 	private void createBackgroundImage() {
 		if (scaledImage == null) {
-			scaledImage = GUIUtils.scaleTo(getState().getLevel().getMapImage(),
+			Image image = GUIUtils.scaleTo(getState().getLevel().getMapImage(),
 					getScreen().getScreenWidth(),
 					getScreen().getScreenHeight(), Image.SCALE_SMOOTH);
+			// a copy that can be changed when the terrain changes
+			scaledImage = new BufferedImage(image.getWidth(null),
+					image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = scaledImage.createGraphics();
+			g.drawImage(image, 0, 0, null);
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Listens to the terrain of the current world, and erases the pixels that
+	 * have become passable in the changed regions from the background
+	 */
+	private void updateBackgroundImage() {
+		World world = getWorld();
+		if (world != listenedWorld) {
+			if (listenedWorld != null)
+				listenedWorld.removeTerrainListener(terrainListener);
+			if (world != null)
+				world.addTerrainListener(terrainListener);
+			listenedWorld = world;
+			changedRegions.clear();
 		}
+		TerrainRegion region;
+		while (world != null && (region = changedRegions.poll()) != null) {
+			Graphics2D g = scaledImage.createGraphics();
+			g.setComposite(AlphaComposite.Clear);
+			TerrainMap terrain = world.getTerrainMap();
+			for (int row = region.getFirstRow(); row <= region.getLastRow(); row++)
+				for (int column = region.getFirstColumn(); column <= region
+						.getLastColumn(); column++)
+					if (terrain.isPassable(column, row)) {
+						Rectangle area = getBackgroundArea(world,
+								new TerrainRegion(column, row, column, row));
+						g.fillRect(area.x, area.y, area.width, area.height);
+					}
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Returns the rectangle of the background image that shows the given
+	 * region of the terrain of the given world
+	 */
+	private Rectangle getBackgroundArea(World world, TerrainRegion region) {
+		int height = world.getTerrainMap().getHeight();
+		double originX = getScreenX(0);
+		double originY = getScreenY(getLevel().getWorldHeight());
+		int left = (int) Math.round(getScreenX(region.getFirstColumn()
+				* world.getPixelwidth()) - originX);
+		int right = (int) Math.round(getScreenX((region.getLastColumn() + 1)
+				* world.getPixelwidth()) - originX);
+		int top = (int) Math.round(getScreenY((height - region.getFirstRow())
+				* world.getPixelheight()) - originY);
+		int bottom = (int) Math.round(getScreenY((height - region.getLastRow() - 1)
+				* world.getPixelheight()) - originY);
+		return new Rectangle(left, top, Math.max(1, right - left), Math.max(1,
+				bottom - top));
 	}
 
 	protected GameState getState() {
@@ -123,6 +206,7 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 
 	protected void paintLevel() {
 		createBackgroundImage();
+		updateBackgroundImage();
 
 		int x = (int) getScreenX(0);
 		int y = (int) getScreenY(getLevel().getWorldHeight());
@@ -5,6 +5,7 @@ import worms.gui.game.PlayGameScreen;
 import worms.gui.game.sprites.ProjectileSprite;
 import worms.gui.messages.MessageType;
 import worms.model.IFacade;
+import worms.model.JumpTrajectory;
 import worms.model.ModelException;
 import worms.model.Projectile;
 import worms.model.Worm;
@@ -15,6 +16,7 @@ public class Fire extends Command {
 	private final int propulsionYield;
 	private Projectile projectile;
 	private double totalDuration;
+	private JumpTrajectory trajectory;
 	private boolean hasJumped;
 
 	public Fire(IFacade facade, Worm worm, int propulsionYield,
@@ -37,6 +39,8 @@ public class Fire extends Command {
 			if (projectile != null) {
 				totalDuration = getFacade().getJumpTime(projectile,
 						GUIConstants.JUMP_TIME_STEP);
+				trajectory = getFacade().getJumpTrajectory(projectile,
+						GUIConstants.JUMP_TIME_STEP);
 				ProjectileSprite sprite = new ProjectileSprite(getScreen(),
 						projectile);
 				sprite.setCenterLocation(
@@ -72,8 +76,7 @@ public class Fire extends Command {
 				ProjectileSprite sprite = getScreen().getSpriteOfTypeFor(
 						ProjectileSprite.class, projectile);
 
-				double[] xy = getFacade().getJumpStep(projectile,
-						getElapsedTime());
+				double[] xy = trajectory.getPosition(getElapsedTime());
 
 				sprite.setCenterLocation(getScreen().getScreenX(xy[0]),
 						getScreen().getScreenY(xy[1]));
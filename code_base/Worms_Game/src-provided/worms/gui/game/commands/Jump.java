@@ -5,6 +5,7 @@ import worms.gui.game.PlayGameScreen;
 import worms.gui.game.sprites.WormSprite;
 import worms.gui.messages.MessageType;
 import worms.model.IFacade;
+import worms.model.JumpTrajectory;
 import worms.model.ModelException;
 import worms.model.Worm;
 
@@ -12,6 +13,7 @@ public class Jump extends Command {
 	private boolean hasJumped;
 	private final Worm worm;
 	private double jumpDuration;
+	private JumpTrajectory trajectory;
 
 	public Jump(IFacade facade, Worm worm, PlayGameScreen screen) {
 		super(facade, screen);
@@ -33,6 +35,8 @@ public class Jump extends Command {
 		try {
 			this.jumpDuration = getFacade().getJumpTime(worm,
 					GUIConstants.JUMP_TIME_STEP);
+			this.trajectory = getFacade().getJumpTrajectory(worm,
+					GUIConstants.JUMP_TIME_STEP);
 		} catch (ModelException e) {
 			cancelExecution();
 		}
@@ -75,8 +79,7 @@ public class Jump extends Command {
 						completeExecution();
 					}
 				} else {
-					double[] xy = getFacade().getJumpStep(getWorm(),
-							getElapsedTime());
+					double[] xy = trajectory.getPosition(getElapsedTime());
 					sprite.setCenterLocation(getScreen().getScreenX(xy[0]),
 							getScreen().getScreenY(xy[1]));
 				}
@@ -4,6 +4,7 @@ import worms.gui.GUIConstants;
 import worms.gui.GUIUtils;
 import worms.gui.game.ImageSprite;
 import worms.gui.game.PlayGameScreen;
+import worms.model.JumpTrajectory;
 import worms.model.ModelException;
 import worms.model.Worm;
 
@@ -146,14 +147,15 @@ public class WormSprite extends ImageSprite<Worm> {
 
 	private void updateJumpTime() {
 		try {
-			double time = getFacade().getJumpTime(getWorm(),
+			JumpTrajectory trajectory = getFacade().getJumpTrajectory(getWorm(),
 					GUIConstants.JUMP_TIME_STEP);
+			double time = trajectory.getDuration();
 
 			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE);
 			xys = new double[n][];
 			for (int i = 1; i <= n; i++) {
 				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(getWorm(), dt);
+				double[] xy = trajectory.getPosition(dt);
 				xys[i - 1] = xy;
 			}
 		} catch (ModelException e) {
@@ -1,6 +1,7 @@
 package worms.model;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
 import worms.gui.game.IActionHandler;
@@ -77,6 +78,13 @@ public interface IFacade {
 	 */
 	void addNewFood(World world);
 
+	/**
+	 * Create and add the given number of new food rations to the given world.
+	 * The food rations must be placed at random adjacent locations, where they do not overlap any worm or food.
+	 * Returns the created food rations.
+	 */
+	List<Food> addNewFood(World world, int count);
+
 	/**
 	 * Create and add a new worm to the given world.
 	 * The new worm must be placed at a random adjacent location.
@@ -86,6 +94,13 @@ public interface IFacade {
 	 */
 	void addNewWorm(World world, Program program);
 
+	/**
+	 * Create and add the given number of new worms to the given world, all with the given program.
+	 * The new worms must be placed at random adjacent locations, where they do not overlap any worm or food.
+	 * Returns the created worms.
+	 */
+	List<Worm> addNewWorms(World world, int count, Program program);
+
 	/**
 	 * Returns whether or not the given worm can fall down
 	 */
@@ -138,6 +153,25 @@ public interface IFacade {
 	public World createWorld(double width, double height,
 			boolean[][] passableMap, Random random);
 
+	/**
+	 * Create a new world with the given terrain map.
+	 * 
+	 * @param width The width of the world (in meter)
+	 * 
+	 * @param height The height of the world (in meter)
+	 * 
+	 * @param terrain The terrain of the world, with the same layout as the passableMap
+	 *  of {@link #createWorld(double, double, boolean[][], Random)}:
+	 *  terrain.isPassable(c, r) is true if the location at row r and column c is passable.
+	 * 
+	 * @param random A random number generator, seeded with the value obtained from the command line or from GUIOptions,
+	 *  that can be used to randomize aspects of the world in a repeatable way.
+	 * 
+	 * @return The world.
+	 */
+	public World createWorld(double width, double height,
+			TerrainMap terrain, Random random);
+
 	/**
 	 * Create a new worm that is positioned at the given location in the given world,
 	 * looks in the given direction, has the given radius and the given name.
@@ -236,6 +270,34 @@ public interface IFacade {
 	 */
 	double getJumpTime(Worm worm, double timeStep);
 
+	/**
+	 * Returns the trajectory of a jump of the given projectile from its current position.
+	 * The trajectory is computed once, and can be used to find the location of the projectile
+	 * at any time during the jump without solving the jump again.
+	 * 
+	 * @param projectile The projectile for which to calculate the trajectory.
+	 * 
+	 * @param timeStep An elementary time interval, as for getJumpTime.
+	 * 
+	 * @return The trajectory, with the same duration as getJumpTime.
+	 */
+	JumpTrajectory getJumpTrajectory(Projectile projectile, double timeStep);
+
+	/**
+	 * Returns the trajectory of a jump of the given worm from its current position.
+	 * The trajectory is computed once, and can be used to find the location of the worm
+	 * at any time during the jump without solving the jump again.
+	 * 
+	 * @param worm The worm for which to calculate the trajectory.
+	 * 
+	 * @param timeStep An elementary time interval, as for getJumpTime.
+	 * 
+	 * @return The trajectory, with the same duration as getJumpTime.
+	 * 
+	 * @throws ModelException if the worm cannot jump
+	 */
+	JumpTrajectory getJumpTrajectory(Worm worm, double timeStep) throws ModelException;
+
 	/**
 	 * Returns the mass of the given worm.
 	 */
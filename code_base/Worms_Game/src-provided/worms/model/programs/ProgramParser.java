@@ -29,8 +29,43 @@ public class ProgramParser<E, S, T> {
 
 	public ProgramParser(ProgramFactory<E, S, T> factory) {
 		this.factory = factory;
+		// the error listener is added once, to the parser that is reused for every parse
+		this.parser.setBuildParseTree(true);
+		this.parser.addErrorListener(new ANTLRErrorListener() {
+
+			@Override
+			public void syntaxError(Recognizer<?, ?> recognizer,
+					Object offendingSymbol, int line, int column, String msg,
+					RecognitionException e) {
+				ProgramParser.this.errors.add(line + ":" + column
+						+ " syntax error: " + msg);
+
+			}
+
+			@Override
+			public void reportContextSensitivity(Parser arg0, DFA arg1,
+					int arg2, int arg3, int arg4, ATNConfigSet arg5) {
+
+			}
+
+			@Override
+			public void reportAttemptingFullContext(Parser arg0, DFA arg1,
+					int arg2, int arg3, BitSet arg4, ATNConfigSet arg5) {
+
+			}
+
+			@Override
+			public void reportAmbiguity(Parser arg0, DFA arg1, int arg2,
+					int arg3, boolean arg4, BitSet arg5, ATNConfigSet arg6) {
+
+			}
+		});
 	}
 
+	// the lexer and the parser are created once, and given a new input for every parse
+	private final WormsParserLexer lexer = new WormsParserLexer(null);
+	private final WormsParserParser parser = new WormsParserParser(null);
+
 	/**
 	 * Parse the given program text.
 	 * This method calls the ProgramFactory methods of the factory given at construction time.
@@ -76,40 +111,11 @@ public class ProgramParser<E, S, T> {
 	public void parse(String text) throws RecognitionException {
 		globals = null;
 		statement = null;
+		errors = new ArrayList<String>();
 		CharStream cs = new ANTLRInputStream(text);
-		WormsParserLexer lexer = new WormsParserLexer(cs);
+		lexer.setInputStream(cs);
 		CommonTokenStream tokens = new CommonTokenStream(lexer);
-		WormsParserParser parser = new WormsParserParser(tokens);
-		parser.setBuildParseTree(true);
-		parser.addErrorListener(new ANTLRErrorListener() {
-
-			@Override
-			public void syntaxError(Recognizer<?, ?> recognizer,
-					Object offendingSymbol, int line, int column, String msg,
-					RecognitionException e) {
-				ProgramParser.this.errors.add(line + ":" + column
-						+ " syntax error: " + msg);
-
-			}
-
-			@Override
-			public void reportContextSensitivity(Parser arg0, DFA arg1,
-					int arg2, int arg3, int arg4, ATNConfigSet arg5) {
-
-			}
-
-			@Override
-			public void reportAttemptingFullContext(Parser arg0, DFA arg1,
-					int arg2, int arg3, BitSet arg4, ATNConfigSet arg5) {
-
-			}
-
-			@Override
-			public void reportAmbiguity(Parser arg0, DFA arg1, int arg2,
-					int arg3, boolean arg4, BitSet arg5, ATNConfigSet arg6) {
-
-			}
-		});
+		parser.setTokenStream(tokens);
 		ParserRuleContext tree = parser.eval();
 		if (!errors.isEmpty())
 			return;
@@ -0,0 +1,182 @@
+package worms.model;
+
+/**
+ * A terrain map that packs its pixels in long words, 64 pixels per word.
+ *
+ * Every row starts at a new word, so the pixels of one row lie next to each other in memory.
+ * A set bit marks an impassable pixel, a cleared bit a passable one.
+ *
+ * @invar	the width and height of this map are strictly positive
+ * 			| getWidth() > 0 && getHeight() > 0
+ */
+public class BitTerrainMap implements TerrainMap {
+
+	/**
+	 * Create a new terrain map with the given dimensions, in which all pixels are passable.
+	 * @param 	width
+	 * 			the number of columns of the new map
+	 * @param 	height
+	 * 			the number of rows of the new map
+	 * @post	| new.getWidth() == width && new.getHeight() == height
+	 * @post	| for each column, row: new.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			| width <= 0 || height <= 0
+	 */
+	public BitTerrainMap(int width, int height) throws IllegalArgumentException {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("a terrain map needs at least one pixel");
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = (width + 63) >>> 6;
+		this.words = new long[this.wordsPerRow * height];
+	}
+
+	/**
+	 * Create a new terrain map from the given passable map
+	 * @param 	passableMap
+	 * 			passableMap[r][c] is true if the pixel at row r and column c is passable
+	 * @return	| for each column, row: result.isPassable(column, row) == passableMap[row][column]
+	 */
+	public static BitTerrainMap fromPassableMap(boolean[][] passableMap) {
+		BitTerrainMap result = new BitTerrainMap(passableMap[0].length, passableMap.length);
+		for (int row = 0; row < result.height; row++) {
+			boolean[] rowPixels = passableMap[row];
+			int offset = row * result.wordsPerRow;
+			for (int column = 0; column < result.width; column++) {
+				if (! rowPixels[column])
+					result.words[offset + (column >>> 6)] |= 1L << column;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a passable map (as used by World and Level) with the content of the given terrain map
+	 * @param 	terrain
+	 * 			the terrain map to be converted
+	 * @return	| for each column, row: result[row][column] == terrain.isPassable(column, row)
+	 */
+	public static boolean[][] toPassableMap(TerrainMap terrain) {
+		boolean[][] result = new boolean[terrain.getHeight()][terrain.getWidth()];
+		for (int row = 0; row < result.length; row++) {
+			for (int column = 0; column < result[row].length; column++) {
+				result[row][column] = terrain.isPassable(column, row);
+			}
+		}
+		return result;
+	}
+
+	// ----------- dimensions -------------------
+	/**
+	 * Variables holding the number of columns and rows of this map
+	 */
+	private final int width;
+	private final int height;
+
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+
+	// ----------- pixels -----------------------
+	/**
+	 * Variable holding the number of words used for one row
+	 */
+	private final int wordsPerRow;
+
+	/**
+	 * The packed pixels of this map, row after row. A set bit is an impassable pixel.
+	 */
+	private final long[] words;
+
+	@Override
+	public boolean isPassable(int column, int row) throws ArrayIndexOutOfBoundsException {
+		checkBounds(column, row);
+		return (this.words[row * this.wordsPerRow + (column >>> 6)] & (1L << column)) == 0;
+	}
+
+	/**
+	 * Sets the pixel at the given column and row to passable or impassable
+	 * @param 	column
+	 * 			the column of the pixel to be set
+	 * @param 	row
+	 * 			the row of the pixel to be set
+	 * @param 	passable
+	 * 			whether the pixel becomes passable
+	 * @post	| new.isPassable(column, row) == passable
+	 * @throws	ArrayIndexOutOfBoundsException
+	 * 			| column < 0 || column >= getWidth() || row < 0 || row >= getHeight()
+	 */
+	public void setPassable(int column, int row, boolean passable) throws ArrayIndexOutOfBoundsException {
+		checkBounds(column, row);
+		int index = row * this.wordsPerRow + (column >>> 6);
+		if (passable)
+			this.words[index] &= ~(1L << column);
+		else
+			this.words[index] |= 1L << column;
+	}
+
+	/**
+	 * Returns the first impassable column in the given row, at or after the given column
+	 * @param 	row
+	 * 			the row to be searched
+	 * @param 	fromColumn
+	 * 			the first column to be checked
+	 * @return	| the smallest c >= fromColumn with ! isPassable(c, row), or -1 if there is none
+	 */
+	public int nextImpassableColumn(int row, int fromColumn) {
+		if (fromColumn >= this.width)
+			return -1;
+		int offset = row * this.wordsPerRow;
+		int wordIndex = fromColumn >>> 6;
+		long word = this.words[offset + wordIndex] & (-1L << fromColumn);
+		while (word == 0) {
+			wordIndex++;
+			if (wordIndex == this.wordsPerRow)
+				return -1;
+			word = this.words[offset + wordIndex];
+		}
+		int result = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+		return result < this.width ? result : -1;
+	}
+
+	/**
+	 * Returns the first passable column in the given row, at or after the given column
+	 * @param 	row
+	 * 			the row to be searched
+	 * @param 	fromColumn
+	 * 			the first column to be checked
+	 * @return	| the smallest c >= fromColumn with isPassable(c, row), or -1 if there is none
+	 */
+	public int nextPassableColumn(int row, int fromColumn) {
+		if (fromColumn >= this.width)
+			return -1;
+		int offset = row * this.wordsPerRow;
+		int wordIndex = fromColumn >>> 6;
+		long word = ~this.words[offset + wordIndex] & (-1L << fromColumn);
+		while (word == 0) {
+			wordIndex++;
+			if (wordIndex == this.wordsPerRow)
+				return -1;
+			word = ~this.words[offset + wordIndex];
+		}
+		int result = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+		return result < this.width ? result : -1;
+	}
+
+	/**
+	 * Checks whether the given column and row lie in this map
+	 * @throws	ArrayIndexOutOfBoundsException
+	 * 			| column < 0 || column >= getWidth() || row < 0 || row >= getHeight()
+	 */
+	private void checkBounds(int column, int row) throws ArrayIndexOutOfBoundsException {
+		if (column < 0 || column >= this.width || row < 0 || row >= this.height)
+			throw new ArrayIndexOutOfBoundsException("pixel (" + column + "," + row + ") is not in this terrain map");
+	}
+
+}
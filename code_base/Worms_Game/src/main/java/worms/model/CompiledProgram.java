@@ -0,0 +1,148 @@
+package worms.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import worms.model.part3.Instruction;
+import worms.model.part3.Statement;
+import worms.model.part3.Type;
+
+/**
+ * The part of a program that does not depend on the worm executing it: the parsed statement, the instructions it
+ * is compiled to, and the slots and initial values of its variables.
+ *
+ * The statements and expressions of a program do not store a worm, an action handler or the values of variables
+ * (they get these from the executing Program), so one compiled program can be shared by any number of programs
+ * and worms. Every Program only adds its own variables, program counter and position in the code.
+ */
+public class CompiledProgram {
+
+	/**
+	 * Constructor for a compiled program
+	 * @param 	globals
+	 * 			the global variables of the program, with their initial values
+	 * @param 	statement
+	 * 			the statement of the program
+	 * @param 	slotNames
+	 * 			the names of the variables by slot, as resolved when the statement was parsed
+	 * 			(global variables that are not in this array get the next slots)
+	 * @post	| for each slot i in slotNames: new.getSlotNames()[i] == slotNames[i]
+	 * @post	| new.getStatement() == statement
+	 * @post	| new.getCode() == Instruction.compile(statement)
+	 * @effect	| this(globals, statement, slotNames, null)
+	 */
+	public CompiledProgram(Map<String, Type> globals, Statement statement, String[] slotNames) {
+		this(globals, statement, slotNames, null);
+	}
+
+	/**
+	 * Constructor for a compiled program that can be profiled
+	 * @param 	globals
+	 * 			the global variables of the program, with their initial values
+	 * @param 	statement
+	 * 			the statement of the program
+	 * @param 	slotNames
+	 * 			the names of the variables by slot, as resolved when the statement was parsed
+	 * 			(global variables that are not in this array get the next slots)
+	 * @param 	profile
+	 * 			the profile in which the statements and expressions of the program are nodes, null if it is not profiled
+	 * @post	| for each slot i in slotNames: new.getSlotNames()[i] == slotNames[i]
+	 * @post	| new.getStatement() == statement
+	 * @post	| new.getCode() == Instruction.compile(statement)
+	 * @post	| new.getProfile() == profile
+	 */
+	public CompiledProgram(Map<String, Type> globals, Statement statement, String[] slotNames, Profile profile) {
+		Set<String> names = new LinkedHashSet<String>();
+		for (String name : slotNames)
+			names.add(name);
+		names.addAll(globals.keySet());
+		this.slotNames = names.toArray(new String[names.size()]);
+		this.initialValues = Collections.unmodifiableMap(new LinkedHashMap<String, Type>(globals));
+		this.statement = statement;
+		this.code = Instruction.compile(statement);
+		this.profile = profile;
+	}
+
+	/**
+	 * Variable holds the names of the variables of this program, by slot
+	 */
+	private final String[] slotNames;
+
+	/**
+	 * Returns a copy of the names of the variables of this program, by slot
+	 */
+	public String[] getSlotNames() {
+		return this.slotNames.clone();
+	}
+
+	/**
+	 * Variable holds the initial values of the global variables of this program
+	 */
+	private final Map<String, Type> initialValues;
+
+	/**
+	 * Returns the initial values of the global variables of this program (this map can not be changed)
+	 */
+	public Map<String, Type> getInitialValues() {
+		return this.initialValues;
+	}
+
+	/**
+	 * Variable holds the statement of this program
+	 */
+	private final Statement statement;
+
+	/**
+	 * Returns the statement of this program
+	 */
+	public Statement getStatement() {
+		return this.statement;
+	}
+
+	/**
+	 * Variable holds the instructions this program is compiled to
+	 */
+	private final Instruction[] code;
+
+	/**
+	 * Returns a copy of the instructions this program is compiled to
+	 */
+	public Instruction[] getCode() {
+		return this.code.clone();
+	}
+
+	/**
+	 * Returns the number of instructions this program is compiled to
+	 */
+	public int getCodeLength() {
+		return this.code.length;
+	}
+
+	/**
+	 * Variable holds the profile of this program
+	 */
+	private final Profile profile;
+
+	/**
+	 * Returns the profile of this program, shared by every program executing it (null if it is not profiled)
+	 */
+	public Profile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * Returns a listing of this program as it is executed: its statement, after constant expressions have been folded,
+	 * followed by the instructions it is compiled to, one per line with their index and the line of their statement.
+	 */
+	public String dump() {
+		StringBuilder result = new StringBuilder(this.statement.toString());
+		result.append("\n");
+		for (int index = 0; index < this.code.length; index++)
+			result.append(index).append(": ").append(this.code[index]).append("\t(line ")
+					.append(this.code[index].getLine()).append(")\n");
+		return result.toString();
+	}
+}
@@ -0,0 +1,226 @@
+package worms.model;
+
+import java.util.Arrays;
+
+/**
+ * A class that holds, for every pixel of a terrain map, the distance (in meters) to the nearest impassable pixel.
+ *
+ * Distances are measured between pixels, so a pixel at an offset of i columns and j rows lies
+ * sqrt((i*pixelWidth)^2 + (j*pixelHeight)^2) meters away. Impassable pixels have distance 0.
+ * If the terrain has no impassable pixels at all, every distance is Double.POSITIVE_INFINITY.
+ *
+ * The field is computed with the separable exact Euclidean distance transform of Felzenszwalb and Huttenlocher:
+ * the distance to the nearest impassable pixel in the same column, followed by a lower envelope of parabolas
+ * along every row. Both passes walk the pixels row after row and work in place.
+ *
+ * When pixels become passable (see World.carveCrater()), only the distances within a given reach of these pixels
+ * are computed again, from the terrain within twice that reach. The distances farther away can then be too small,
+ * so after an update the field only promises lower bounds: every distance is at most the real distance,
+ * and a distance below getExactLimit() is the real distance.
+ */
+public class DistanceField {
+
+	/**
+	 * Compute the distance field of the given terrain map
+	 * @param 	terrain
+	 * 			the terrain map to be transformed
+	 * @param 	pixelWidth
+	 * 			the width of one pixel (in meters)
+	 * @param 	pixelHeight
+	 * 			the height of one pixel (in meters)
+	 * @post	| for each column, row: new.getDistance(column, row) ==
+	 * 			|	min { sqrt(((c-column)*pixelWidth)^2 + ((r-row)*pixelHeight)^2) | ! terrain.isPassable(c, r) }
+	 */
+	public DistanceField(TerrainMap terrain, double pixelWidth, double pixelHeight) {
+		this.width = terrain.getWidth();
+		this.height = terrain.getHeight();
+		this.pixelWidth = pixelWidth;
+		this.pixelHeight = pixelHeight;
+		this.distances = transform(terrain, new TerrainRegion(0, 0, this.width - 1, this.height - 1), pixelWidth, pixelHeight);
+	}
+
+	/**
+	 * Variables holding the dimensions of this field (in pixels)
+	 */
+	private final int width;
+	private final int height;
+
+	/**
+	 * Variables holding the dimensions of one pixel (in meters)
+	 */
+	private final double pixelWidth;
+	private final double pixelHeight;
+
+	/**
+	 * The distances, row after row (row 0 is the top of the terrain)
+	 */
+	private final float[] distances;
+
+	/**
+	 * Returns the distance (in meters) from the pixel at the given column and row to the nearest impassable pixel
+	 * @param 	column
+	 * 			the column of the pixel (0 is the left of the terrain)
+	 * @param 	row
+	 * 			the row of the pixel (0 is the top of the terrain)
+	 */
+	public double getDistance(int column, int row) {
+		return this.distances[row * this.width + column];
+	}
+
+	/**
+	 * Variable holding the distance (in meters) below which the distances of this field are exact
+	 */
+	private double exactLimit = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Returns the distance (in meters) below which the distances of this field are exact.
+	 * This is Double.POSITIVE_INFINITY until the field is updated.
+	 * @return	| for each column, row: if (getDistance(column, row) < result)
+	 * 			|	getDistance(column, row) is the distance to the nearest impassable pixel
+	 */
+	public double getExactLimit() {
+		return this.exactLimit;
+	}
+
+	/**
+	 * Returns the number of columns of this field
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Returns the number of rows of this field
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Updates this field after pixels of the given terrain map in the given region have become passable.
+	 * The distances of the pixels within the given reach of the region are computed again, with the separable
+	 * transform of the terrain within twice that reach, so the cost only depends on the size of the region and the reach.
+	 * @param 	terrain
+	 * 			the terrain map, with its new pixels (with the same dimensions as this field)
+	 * @param 	changed
+	 * 			the region outside of which no pixel has changed, and in which no pixel has become impassable
+	 * @param 	reach
+	 * 			the distance (in meters) up to which the updated distances are exact
+	 * @post	| new.getExactLimit() == min(this.getExactLimit(), reach)
+	 * @post	| for each column, row: new.getDistance(column, row) is at most the distance to the nearest impassable pixel
+	 * @return	the region of the pixels whose distance may have changed
+	 */
+	public TerrainRegion update(TerrainMap terrain, TerrainRegion changed, double reach) {
+		int columns = (int) Math.ceil(reach / this.pixelWidth);
+		int rows = (int) Math.ceil(reach / this.pixelHeight);
+		TerrainRegion affected = changed.grow(columns, rows, this.width, this.height);
+		// every impassable pixel outside the window lies farther than reach from every affected pixel
+		TerrainRegion window = affected.grow(columns, rows, this.width, this.height);
+		float[] local = transform(terrain, window, this.pixelWidth, this.pixelHeight);
+		// the real distance is at least reach if the window has no impassable pixel nearer, and distances only grow
+		float bound = (float) reach;
+		if (bound > reach)
+			bound = Math.nextDown(bound);
+		for (int row = affected.getFirstRow(); row <= affected.getLastRow(); row++) {
+			int offset = row * this.width;
+			int localOffset = (row - window.getFirstRow()) * window.getWidth() - window.getFirstColumn();
+			for (int column = affected.getFirstColumn(); column <= affected.getLastColumn(); column++) {
+				float distance = local[localOffset + column];
+				if (distance <= reach)
+					this.distances[offset + column] = distance;
+				else
+					this.distances[offset + column] = Math.max(this.distances[offset + column], bound);
+			}
+		}
+		this.exactLimit = Math.min(this.exactLimit, reach);
+		return affected;
+	}
+
+	/**
+	 * Computes the distances of the pixels in the given region of the given terrain map, to the nearest
+	 * impassable pixel in that region.
+	 * @param 	terrain
+	 * 			the terrain map
+	 * @param 	window
+	 * 			the region of the terrain map that is transformed
+	 * @param 	pixelWidth
+	 * 			the width of one pixel (in meters)
+	 * @param 	pixelHeight
+	 * 			the height of one pixel (in meters)
+	 * @return	the distances of the pixels of the region, row after row
+	 */
+	private static float[] transform(TerrainMap terrain, TerrainRegion window, double pixelWidth, double pixelHeight) {
+		int width = window.getWidth();
+		int height = window.getHeight();
+		int left = window.getFirstColumn();
+		int top = window.getFirstRow();
+		float[] distances = new float[width * height];
+		
+		// first pass, row after row: distance (in rows) to the nearest impassable pixel in the same column
+		int[] lastRow = new int[width];
+		Arrays.fill(lastRow, -1);
+		for (int row = 0; row < height; row++) {
+			int offset = row * width;
+			for (int column = 0; column < width; column++) {
+				if (! terrain.isPassable(left + column, top + row))
+					lastRow[column] = row;
+				distances[offset + column] = (lastRow[column] < 0) ? Float.POSITIVE_INFINITY : row - lastRow[column];
+			}
+		}
+		Arrays.fill(lastRow, -1);
+		for (int row = height - 1; row >= 0; row--) {
+			int offset = row * width;
+			for (int column = 0; column < width; column++) {
+				if (distances[offset + column] == 0)
+					lastRow[column] = row;
+				else if (lastRow[column] >= 0 && lastRow[column] - row < distances[offset + column])
+					distances[offset + column] = lastRow[column] - row;
+			}
+		}
+		
+		// second pass, per row: lower envelope of the parabolas (dy*pixelHeight)^2 + ((column-c)*pixelWidth)^2
+		double pixelWidth2 = pixelWidth * pixelWidth;
+		double[] f = new double[width];
+		int[] vertices = new int[width];
+		double[] boundaries = new double[width + 1];
+		for (int row = 0; row < height; row++) {
+			int offset = row * width;
+			for (int column = 0; column < width; column++) {
+				double dy = distances[offset + column] * pixelHeight;
+				f[column] = dy * dy;
+			}
+			int k = -1;
+			for (int column = 0; column < width; column++) {
+				if (f[column] == Double.POSITIVE_INFINITY)
+					continue;
+				double s = Double.NEGATIVE_INFINITY;
+				while (k >= 0) {
+					int v = vertices[k];
+					s = ((f[column] + pixelWidth2 * column * column) - (f[v] + pixelWidth2 * v * v))
+							/ (2 * pixelWidth2 * (column - v));
+					if (s > boundaries[k])
+						break;
+					k--;
+				}
+				k++;
+				vertices[k] = column;
+				boundaries[k] = (k == 0) ? Double.NEGATIVE_INFINITY : s;
+				boundaries[k + 1] = Double.POSITIVE_INFINITY;
+			}
+			if (k < 0) { // no impassable pixel in the whole window
+				Arrays.fill(distances, offset, offset + width, Float.POSITIVE_INFINITY);
+				continue;
+			}
+			int j = 0;
+			for (int column = 0; column < width; column++) {
+				while (boundaries[j + 1] < column)
+					j++;
+				int v = vertices[j];
+				double dx = (column - v) * pixelWidth;
+				distances[offset + column] = (float) Math.sqrt(f[v] + dx * dx);
+			}
+		}
+		return distances;
+	}
+
+}
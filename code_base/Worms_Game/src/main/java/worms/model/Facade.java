@@ -2,6 +2,7 @@ package worms.model;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
 import worms.gui.game.IActionHandler;
@@ -10,12 +11,7 @@ import worms.model.exceptions.IllegalNameException;
 import worms.model.exceptions.IllegalPositionException;
 import worms.model.exceptions.IllegalRadiusException;
 import worms.model.ModelException;
-import worms.model.part3.Expression;
-import worms.model.part3.ProgramFactoryImplementation;
-import worms.model.part3.Statement;
-import worms.model.part3.Type;
 import worms.model.programs.ParseOutcome;
-import worms.model.programs.ProgramParser;
 
 /**
 * This Facade implements the IFacade
@@ -95,6 +91,17 @@ public class Facade implements IFacade{
 		}
 	}
 	
+	public JumpTrajectory getJumpTrajectory(Worm worm, double timeStep) throws ModelException {
+		if (! worm.isAbleToJump())
+			throw new ModelException("Not possible to jump");
+		try{
+			return worm.getJumpTrajectory(timeStep);
+		}
+		catch (IllegalPositionException exc) {
+			throw new ModelException("Illegal Jump end position");
+		}
+	}
+	
 	// Done!
 	public double[] getJumpStep(Worm worm, double t) throws ModelException {
 		if (! worm.isAbleToJump())
@@ -225,6 +232,16 @@ public class Facade implements IFacade{
 	public void addNewWorm(World world, Program program) {
 		world.addNewWorm(program);
 	}
+	
+	@Override
+	public List<Worm> addNewWorms(World world, int count, Program program) {
+		try {
+			return world.addNewWorms(count, program);
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("no free position found for all worms");
+		}
+	}
 
 	@Override
 	public Worm createWorm(World world, double x, double y, double direction, double radius, String name, Program program) {
@@ -277,6 +294,16 @@ public class Facade implements IFacade{
 		world.addNewFood();
 	}
 	
+	@Override
+	public List<Food> addNewFood(World world, int count){
+		try {
+			return world.addNewFood(count);
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("no free position found for all food");
+		}
+	}
+	
 	//Done
 	public Food createFood(World world, double x, double y){
 		return world.createFood(x, y);
@@ -286,6 +313,10 @@ public class Facade implements IFacade{
 		return new World(width, height, passableMap, random);
 	}
 	
+	public World createWorld(double width, double height, TerrainMap terrain, Random random){
+		return new World(width, height, terrain, random);
+	}
+	
 	//  Why do we have 2 createWorm methods ??
 	public Worm createWorm(World world, double x, double y, double direction, double radius, String name) throws ModelException {
 		try {
@@ -400,6 +431,15 @@ public class Facade implements IFacade{
 		}
 	}
 	
+	public JumpTrajectory getJumpTrajectory(Projectile projectile, double timeStep){
+		try{
+			return projectile.getJumpTrajectory(timeStep);
+		}
+		catch (IllegalPositionException exc) {
+			throw new ModelException("Not Able to shoot");
+		}
+	}
+	
 	//Done
 	public double getJumpTime(Projectile projectile, double timeStep){
 		try{
@@ -444,25 +484,30 @@ public class Facade implements IFacade{
 	// ########## PROGRAMS #######################################################################################################################################
 	// ###########################################################################################################################################################
 		
+	/**
+	 * The programs parsed by this facade, by program text. A compiled program does not depend on a worm or
+	 * an action handler, so all programs parsed from the same text share it.
+	 */
+	private final ProgramCache programCache = new ProgramCache();
+	
+	/**
+	 * Returns the cache with the programs parsed by this facade
+	 */
+	public ProgramCache getProgramCache() {
+		return this.programCache;
+	}
+	
+	/**
+	 * Parses the given program text, with the program cache of this facade.
+	 * A program with type errors (e.g. a while whose condition is not a Boolean) is not a well-formed program:
+	 * its type errors are returned as a failure, like syntax errors, and no exception is thrown.
+	 * @return	| if the program text has syntax errors or type errors, a failure with these errors,
+	 * 			| otherwise a success with a new program of the given handler
+	 */
 	//Done
 	@Override
 	public ParseOutcome<?> parseProgram(String programText, IActionHandler handler) {
-		ProgramFactoryImplementation factory = new ProgramFactoryImplementation();
-		ProgramParser<Expression<Type>, Statement, Type> parser = new ProgramParser<Expression<Type>, Statement, Type>(factory);
-		factory.setParser(parser);
-		try{
-			parser.parse(programText);
-		}
-		catch(IllegalArgumentException e){
-			throw new ModelException("Program has illegal Type in Assignment.");
-		}
-		if (parser.getErrors().size() > 0){
-			return ParseOutcome.failure(parser.getErrors());
-		}
-		else{
-			Program program = new Program(parser.getGlobals(),parser.getStatement(), handler);
-			return ParseOutcome.success(program);
-		}
+		return this.programCache.parse(programText, handler);
 	}
 
 	//Done
@@ -0,0 +1,275 @@
+package worms.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * A class that finds random free positions in a world, at which a new object of a given radius can be placed.
+ *
+ * For every radius that is asked for, the pixels that could contain an adjacent position are collected
+ * once from the distance field of the world (the rows are scanned in parallel). A position is then drawn
+ * uniformly from these candidate pixels with the given random generator and checked with isAdjacentPosition().
+ * Because the candidates are kept in a fixed order, the same seed gives the same positions.
+ *
+ * A sampler belongs to one terrain map; the world creates a new one when its terrain map is replaced. When pixels
+ * of the terrain map change, the world updates the candidates within the region in which the distance field changed.
+ */
+public class FreePositionSampler {
+
+	/**
+	 * Create a sampler for the current terrain map of the given world
+	 * @param 	world
+	 * 			the world in which positions have to be found
+	 * @post	| new.getWorld() == world
+	 */
+	public FreePositionSampler(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Variable holding the world of this sampler
+	 */
+	private final World world;
+
+	/**
+	 * Returns the world of this sampler
+	 */
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * The maximum number of radii for which the candidate pixels are kept
+	 */
+	public static final int MAX_CACHED_RADII = 8;
+
+	/**
+	 * The candidate pixels of the radii that were asked for most recently (at most MAX_CACHED_RADII of them)
+	 */
+	private final LinkedHashMap<Double, Candidates> candidatesByRadius = new LinkedHashMap<Double, Candidates>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Double, Candidates> eldest) {
+			return this.size() > MAX_CACHED_RADII;
+		}
+	};
+
+	/**
+	 * Returns the number of radii for which candidate pixels are kept
+	 */
+	int getNbCachedRadii() {
+		return this.candidatesByRadius.size();
+	}
+
+	/**
+	 * The number of positions that are tried for one object before giving up
+	 */
+	public static final int NB_TRIES_LIMIT = 1000;
+
+	/**
+	 * The candidate pixels (row * terrain width + column) of one radius
+	 */
+	private static class Candidates {
+
+		private Candidates(int[] pixels) {
+			this.pixels = pixels;
+		}
+
+		private int[] pixels;
+	}
+
+	/**
+	 * Returns a random position at which an object with the given radius is adjacent to impassable terrain
+	 * @param 	radius
+	 * 			the radius of the object to be placed (in meters)
+	 * @param 	random
+	 * 			the random generator used to choose the position
+	 * @return	| this.getFreePositions(radius, 1, random)[0]
+	 * @throws	IllegalArgumentException
+	 * 			| if there is no adjacent position for the given radius
+	 */
+	public double[] getFreePosition(double radius, Random random) throws IllegalArgumentException {
+		return this.getFreePositions(radius, 1, random)[0];
+	}
+
+	/**
+	 * Returns the given number of random positions at which an object with the given radius is adjacent
+	 * to impassable terrain. All the positions lie in different pixels.
+	 * @param 	radius
+	 * 			the radius of the objects to be placed (in meters)
+	 * @param 	count
+	 * 			the number of positions to be returned
+	 * @param 	random
+	 * 			the random generator used to choose the positions
+	 * @return	| this.getFreePositions(radius, count, random, position -> true)
+	 * @throws	IllegalArgumentException
+	 * 			| if no adjacent position in a pixel not chosen yet is found in NB_TRIES_LIMIT tries
+	 */
+	public double[][] getFreePositions(double radius, int count, Random random) throws IllegalArgumentException {
+		return this.getFreePositions(radius, count, random, position -> true);
+	}
+
+	/**
+	 * Returns the given number of random positions at which an object with the given radius is adjacent
+	 * to impassable terrain and that are accepted by the given test. All the positions lie in different pixels.
+	 * @param 	radius
+	 * 			the radius of the objects to be placed (in meters)
+	 * @param 	count
+	 * 			the number of positions to be returned
+	 * @param 	random
+	 * 			the random generator used to choose the positions
+	 * @param 	isFree
+	 * 			the test a position has to pass besides adjacency (e.g. not overlapping other objects)
+	 * @return	| result.length == count
+	 * @return	| for each i: this.getWorld().isAdjacentPosition(result[i][0], result[i][1], radius)
+	 * 			|	&& isFree.test(result[i])
+	 * @throws	IllegalArgumentException
+	 * 			| if no such position in a pixel not chosen yet is found in NB_TRIES_LIMIT tries
+	 */
+	public double[][] getFreePositions(double radius, int count, Random random, Predicate<double[]> isFree) throws IllegalArgumentException {
+		Candidates candidates = this.getCandidates(radius);
+		TerrainMap terrain = this.world.getTerrainMap();
+		int[] pixels = candidates.pixels;
+		double[][] result = new double[count][];
+		// pixels[end..) are the pixels already chosen during this call
+		int end = pixels.length;
+		for (int i = 0; i < count; i++) {
+			for (int nbTries = 0; result[i] == null; nbTries++) {
+				if (end == 0 || nbTries >= NB_TRIES_LIMIT)
+					throw new IllegalArgumentException("no adjacent position found");
+				int index = random.nextInt(end);
+				int pixel = pixels[index];
+				int column = pixel % terrain.getWidth();
+				int row = pixel / terrain.getWidth();
+				double x = (column + random.nextDouble()) * this.world.getPixelwidth();
+				double y = (terrain.getHeight() - row - 1 + random.nextDouble()) * this.world.getPixelheight();
+				double[] position = {x, y};
+				if (this.world.isAdjacentPosition(x, y, radius) && isFree.test(position)) {
+					result[i] = position;
+					pixels[index] = pixels[end - 1];
+					pixels[end - 1] = pixel;
+					end--;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the candidate pixels for the given radius, collecting them on first use
+	 * @param 	radius
+	 * 			the radius of the objects to be placed (in meters)
+	 */
+	private Candidates getCandidates(double radius) {
+		Candidates candidates = this.candidatesByRadius.get(radius);
+		if (candidates == null) {
+			candidates = new Candidates(this.collectCandidates(radius));
+			this.candidatesByRadius.put(radius, candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns a copy of the candidate pixels for the given radius (row * terrain width + column), collecting them on first use
+	 * @param 	radius
+	 * 			the radius of the objects to be placed (in meters)
+	 */
+	int[] getCandidatePixels(double radius) {
+		return this.getCandidates(radius).pixels.clone();
+	}
+
+	/**
+	 * Collects the pixels that overlap the part of the world in which the object lies fully in the world, and whose
+	 * distance to the nearest impassable pixel is neither clearly below the radius (impassable anywhere in the pixel), nor too large for
+	 * an impassable pixel to lie in the ring (radius, 1.1*radius) (the early return of isAdjacentPosition()).
+	 * @param 	radius
+	 * 			the radius of the objects to be placed (in meters)
+	 * @return	the candidate pixels (row * terrain width + column), in row-major order
+	 */
+	private int[] collectCandidates(double radius) {
+		TerrainMap terrain = this.world.getTerrainMap();
+		int width = terrain.getWidth();
+		this.world.getDistanceField(); // built here, before the rows are collected in parallel
+		int[][] rows = IntStream.range(0, terrain.getHeight()).parallel()
+				.mapToObj(row -> this.collectCandidates(radius, row, 0, width - 1)).toArray(int[][]::new);
+		int total = 0;
+		for (int[] row : rows)
+			total += row.length;
+		int[] result = new int[total];
+		int next = 0;
+		for (int[] row : rows) {
+			System.arraycopy(row, 0, result, next, row.length);
+			next += row.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the candidate pixels for the given radius in the given row, from the given first to the given last column
+	 * (see collectCandidates(double)). Distances that are not exact (see DistanceField.getExactLimit()) are
+	 * not too small for a candidate, since they are only lower bounds.
+	 * @return	the candidate pixels (row * terrain width + column), from left to right
+	 */
+	private int[] collectCandidates(double radius, int row, int firstColumn, int lastColumn) {
+		TerrainMap terrain = this.world.getTerrainMap();
+		DistanceField field = this.world.getDistanceField();
+		double pixelWidth = this.world.getPixelwidth();
+		double pixelHeight = this.world.getPixelheight();
+		double pixelDiagonal = Math.sqrt(pixelWidth * pixelWidth + pixelHeight * pixelHeight);
+		int width = terrain.getWidth();
+		double bottom = (terrain.getHeight() - row - 1) * pixelHeight;
+		if (! (bottom + pixelHeight >= radius && bottom <= this.world.getHeight() - radius))
+			return new int[0];
+		int[] found = new int[lastColumn - firstColumn + 1];
+		int nbFound = 0;
+		for (int column = firstColumn; column <= lastColumn; column++) {
+			double distance = field.getDistance(column, row);
+			double margin = 1e-5 + distance * 1e-6;
+			double left = column * pixelWidth;
+			if ((distance > radius - margin - pixelDiagonal || distance >= field.getExactLimit())
+					&& distance - 1.1 * radius - pixelDiagonal <= radius + margin
+					&& left + pixelWidth >= radius && left <= this.world.getWidth() - radius)
+				found[nbFound++] = row * width + column;
+		}
+		return Arrays.copyOf(found, nbFound);
+	}
+
+	/**
+	 * Updates the candidate pixels of every radius that was asked for, after the distances of the distance field
+	 * of the world have changed in the given region.
+	 * The candidates outside the region are kept, in their order; those in the region are collected again and added
+	 * after them, row after row. Only the pixels of the region are looked at in the distance field.
+	 * @param 	region
+	 * 			the region outside of which no distance has changed
+	 */
+	public void update(TerrainRegion region) {
+		int width = this.world.getTerrainMap().getWidth();
+		for (Map.Entry<Double, Candidates> entry : this.candidatesByRadius.entrySet()) {
+			int[] pixels = entry.getValue().pixels;
+			int[][] rows = new int[region.getHeight()][];
+			int total = 0;
+			for (int row = region.getFirstRow(); row <= region.getLastRow(); row++) {
+				int[] found = this.collectCandidates(entry.getKey(), row, region.getFirstColumn(), region.getLastColumn());
+				rows[row - region.getFirstRow()] = found;
+				total += found.length;
+			}
+			int[] result = new int[pixels.length + total];
+			int length = 0;
+			for (int pixel : pixels)
+				if (! region.contains(pixel % width, pixel / width))
+					result[length++] = pixel;
+			for (int[] found : rows) {
+				System.arraycopy(found, 0, result, length, found.length);
+				length += found.length;
+			}
+			entry.getValue().pixels = Arrays.copyOf(result, length);
+		}
+	}
+
+}
@@ -82,6 +82,8 @@ public class GameObject extends Entity{
 	 * 			the new x position to be set to this Game Object (double)
 	 * @post 	the x- position of this Game Object is set to the given x- position
 	 * 			| new.getXPosition()() == newXPosition;
+	 * @effect	the place of this Game Object in the spatial grids of its world is updated
+	 * 			| this.getWorld().updateObjectPosition(this)
 	 * @throws IllegalPositionException
 	 * 			if the new x position is not valid
 	 * 			| ! isValidXPosition(newXPosition)
@@ -90,6 +92,7 @@ public class GameObject extends Entity{
 		if (! isValidXPosition(newXPosition))
 			throw new IllegalPositionException(newXPosition,'x');
 		this.xPosition = newXPosition;
+		this.getWorld().updateObjectPosition(this);
 	}
 	
 	/**
@@ -135,6 +138,8 @@ public class GameObject extends Entity{
 	 * 			the new y position to be set to this Game Object (double)
 	 * @post 	the y- position of this Game Object is set to the given y- position
 	 * 			| new.getYPosition()() == newYPosition;
+	 * @effect	the place of this Game Object in the spatial grids of its world is updated
+	 * 			| this.getWorld().updateObjectPosition(this)
 	 * @throws IllegalPositionException
 	 * 			if the new y position is not valid
 	 * 			| ! isValidYPosition(newYPosition)
@@ -145,6 +150,7 @@ public class GameObject extends Entity{
 			throw new IllegalPositionException(newYPosition,'y');
 		}
 		this.yPosition = newYPosition;
+		this.getWorld().updateObjectPosition(this);
 	}
 	
 	/**
@@ -202,6 +208,8 @@ public class GameObject extends Entity{
 			throw new IllegalRadiusException(radius);
 		}
 		this.radius = radius;
+		if (this.getWorld() != null)
+			this.getWorld().updateObjectPosition(this);
 	}
 	
 	/**
@@ -284,4 +292,26 @@ public class GameObject extends Entity{
 			return true; // you are allowed to set the world to null if the object is (being)terminated.
 		return (world != null);
 	}
+	
+	/**
+	 * The number of this Game Object in the order in which objects were added to the lists of its world
+	 */
+	private long additionNumber;
+	
+	/**
+	 * Return the number of this Game Object in the order in which objects were added to the lists of its world
+	 * (an object added later has a larger number)
+	 */
+	@Basic
+	long getAdditionNumber() {
+		return this.additionNumber;
+	}
+	
+	/**
+	 * Sets the number of this Game Object in the order in which objects were added to the lists of its world
+	 * @post	| new.getAdditionNumber() == additionNumber
+	 */
+	void setAdditionNumber(long additionNumber) {
+		this.additionNumber = additionNumber;
+	}
 }
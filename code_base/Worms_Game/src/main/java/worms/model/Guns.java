@@ -86,4 +86,19 @@ public enum Guns {
 			default: return 0;
 		}
 	}
+	
+	// --- Crater ---
+	/**
+	 * Returns the radius (in meters) of the crater a projectile of this gun carves in the terrain where it lands
+	 * @return	| if this == Rifle
+	 * 			|	result == 0
+	 * 			| if this == Bazooka
+	 * 			|	result == 0.5
+	 */
+	public double getCraterRadius(){
+		switch (this){
+			case Bazooka: return 0.5;
+			default: return 0;
+		}
+	}
 }
@@ -0,0 +1,239 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import worms.gui.game.IActionHandler;
+
+/**
+ * An action handler that executes the actions of a worm without a GUI.
+ *
+ * The actions call the same facade methods, in the same order, as the commands of the GUI do,
+ * but they finish immediately: no animation is shown and nobody waits for it. The time the animations
+ * would have taken is added to a simulated clock instead (in worm-seconds), so a driver can still report it.
+ *
+ * An action returns true if it has been completed successfully, false otherwise (e.g. when the worm
+ * has not enough action points), exactly like an action executed through the GUI.
+ */
+public class HeadlessActionHandler implements IActionHandler {
+
+	/**
+	 * Time step used when calculating jump positions
+	 */
+	public static final double JUMP_TIME_STEP = 1e-4;
+
+	/**
+	 * Duration of a single step of a worm (in worm-seconds)
+	 */
+	public static final double MOVE_DURATION = 0.1;
+
+	/**
+	 * Velocity with which worms fall down (in worm-meter per worm-seconds)
+	 */
+	public static final double FALL_VELOCITY = 5.0;
+
+	/**
+	 * Constructor for a headless action handler
+	 * @param 	facade
+	 * 			the facade through which the actions are executed
+	 * @param 	world
+	 * 			the world in which the actions are executed
+	 * @post	| new.getFacade() == facade
+	 * @post	| new.getWorld() == world
+	 * @post	| new.getSimulatedTime() == 0 && new.getNbActions() == 0 && new.getNbFailedActions() == 0
+	 */
+	public HeadlessActionHandler(IFacade facade, World world) {
+		this.facade = facade;
+		this.world = world;
+	}
+
+	// ----------------------- Facade and World ---------------------------
+	/**
+	 * Variable holds the facade of this handler
+	 */
+	private final IFacade facade;
+
+	/**
+	 * Returns the facade through which this handler executes the actions
+	 */
+	public IFacade getFacade() {
+		return this.facade;
+	}
+
+	/**
+	 * Variable holds the world of this handler
+	 */
+	private final World world;
+
+	/**
+	 * Returns the world in which this handler executes the actions
+	 */
+	public World getWorld() {
+		return this.world;
+	}
+
+	// ----------------------- Statistics ---------------------------------
+	/**
+	 * Variable holds the simulated time of all actions executed by this handler (in worm-seconds)
+	 */
+	private double simulatedTime;
+
+	/**
+	 * Returns the simulated time of all actions executed by this handler (in worm-seconds)
+	 */
+	public double getSimulatedTime() {
+		return this.simulatedTime;
+	}
+
+	/**
+	 * Variable holds the number of actions asked to this handler
+	 */
+	private int nbActions;
+
+	/**
+	 * Returns the number of actions asked to this handler
+	 */
+	public int getNbActions() {
+		return this.nbActions;
+	}
+
+	/**
+	 * Variable holds the number of actions that could not be completed
+	 */
+	private int nbFailedActions;
+
+	/**
+	 * Returns the number of actions asked to this handler that could not be completed
+	 */
+	public int getNbFailedActions() {
+		return this.nbFailedActions;
+	}
+
+	/**
+	 * Variable holds the messages printed through this handler since they were last cleared
+	 */
+	private final List<String> messages = new ArrayList<String>();
+
+	/**
+	 * Returns a copy of the messages printed through this handler since they were last cleared
+	 */
+	public List<String> getMessages() {
+		return new ArrayList<String>(this.messages);
+	}
+
+	/**
+	 * Forgets the messages printed through this handler
+	 * @post	| new.getMessages().isEmpty()
+	 */
+	public void clearMessages() {
+		this.messages.clear();
+	}
+
+	/**
+	 * Records the result of an action
+	 * @param 	succeeded
+	 * 			whether the action has been completed
+	 * @param 	duration
+	 * 			the simulated duration of the action (in worm-seconds)
+	 * @return	| succeeded
+	 */
+	private boolean record(boolean succeeded, double duration) {
+		this.nbActions++;
+		if (!succeeded)
+			this.nbFailedActions++;
+		this.simulatedTime += duration;
+		return succeeded;
+	}
+
+	// ----------------------- Actions ------------------------------------
+	@Override
+	public boolean turn(Worm worm, double angle) {
+		if (!this.isAlive(worm) || !this.getFacade().canTurn(worm, angle))
+			return this.record(false, 0);
+		try {
+			this.getFacade().turn(worm, angle);
+			return this.record(true, 0);
+		}
+		catch (ModelException exc) {
+			return this.record(false, 0);
+		}
+	}
+
+	@Override
+	public boolean move(Worm worm) {
+		if (!this.isAlive(worm) || !this.getFacade().canMove(worm))
+			return this.record(false, 0);
+		try {
+			this.getFacade().move(worm);
+		}
+		catch (ModelException exc) {
+			return this.record(false, 0);
+		}
+		double duration = MOVE_DURATION;
+		if (this.isAlive(worm) && this.getFacade().canFall(worm)) {
+			double startY = this.getFacade().getY(worm);
+			this.getFacade().fall(worm);
+			if (this.isAlive(worm))
+				duration += Math.abs(startY - this.getFacade().getY(worm)) / FALL_VELOCITY;
+		}
+		return this.record(true, duration);
+	}
+
+	@Override
+	public boolean jump(Worm worm) {
+		if (!this.isAlive(worm))
+			return this.record(false, 0);
+		try {
+			double duration = this.getFacade().getJumpTime(worm, JUMP_TIME_STEP);
+			this.getFacade().jump(worm, JUMP_TIME_STEP);
+			return this.record(true, duration);
+		}
+		catch (ModelException exc) {
+			return this.record(false, 0);
+		}
+	}
+
+	@Override
+	public boolean fire(Worm worm, int propulsion) {
+		if (!this.isAlive(worm))
+			return this.record(false, 0);
+		try {
+			this.getFacade().shoot(worm, propulsion);
+			Projectile projectile = this.getFacade().getActiveProjectile(this.getWorld());
+			if (projectile == null)
+				return this.record(false, 0);
+			double duration = this.getFacade().getJumpTime(projectile, JUMP_TIME_STEP);
+			this.getFacade().jump(projectile, JUMP_TIME_STEP);
+			return this.record(true, duration);
+		}
+		catch (ModelException exc) {
+			return this.record(false, 0);
+		}
+	}
+
+	@Override
+	public boolean toggleWeapon(Worm worm) {
+		if (!this.isAlive(worm))
+			return this.record(false, 0);
+		try {
+			this.getFacade().selectNextWeapon(worm);
+			return this.record(true, 0);
+		}
+		catch (ModelException exc) {
+			return this.record(false, 0);
+		}
+	}
+
+	@Override
+	public void print(String message) {
+		this.messages.add(message);
+	}
+
+	/**
+	 * Returns whether the given worm can still execute actions
+	 * @return	| worm != null && this.getFacade().isAlive(worm)
+	 */
+	private boolean isAlive(Worm worm) {
+		return worm != null && this.getFacade().isAlive(worm);
+	}
+}
@@ -0,0 +1,276 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A game driver that plays a game in a world without a GUI, one turn at a time.
+ *
+ * The world no longer executes the programs of computer controlled worms itself (which nests every
+ * next turn inside the previous one); this driver executes the program of the active worm, starts the
+ * next turn if the program did not end it, and reports the result of every turn.
+ * The programs of the worms should be parsed with the action handler of this driver, so that their actions
+ * are executed immediately and counted in the results. Worms without a program simply pass their turn.
+ */
+public class HeadlessGame {
+
+	/**
+	 * Constructor for a headless game
+	 * @param 	world
+	 * 			the world in which the game is played
+	 * @param 	handler
+	 * 			the action handler with which the programs of the worms were parsed
+	 * @post	| new.getWorld() == world
+	 * @post	| new.getActionHandler() == handler
+	 * @effect	| world.setExecutingPrograms(false)
+	 */
+	public HeadlessGame(World world, HeadlessActionHandler handler) {
+		this.world = world;
+		this.handler = handler;
+		world.setExecutingPrograms(false);
+	}
+
+	// ----------------------- World and handler ---------------------------
+	/**
+	 * Variable holds the world of this game
+	 */
+	private final World world;
+
+	/**
+	 * Returns the world in which this game is played
+	 */
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Variable holds the action handler of this game
+	 */
+	private final HeadlessActionHandler handler;
+
+	/**
+	 * Returns the action handler with which the programs of the worms were parsed
+	 */
+	public HeadlessActionHandler getActionHandler() {
+		return this.handler;
+	}
+
+	// ----------------------- Turns ----------------------------------------
+	/**
+	 * Variable holds the number of turns played in this game
+	 */
+	private int nbTurns;
+
+	/**
+	 * Returns the number of turns played in this game
+	 */
+	public int getNbTurns() {
+		return this.nbTurns;
+	}
+
+	/**
+	 * Variable holds whether this game has been started
+	 */
+	private boolean isStarted;
+
+	/**
+	 * Returns whether this game has been started
+	 */
+	public boolean isStarted() {
+		return this.isStarted;
+	}
+
+	/**
+	 * Starts this game, if it has not been started yet
+	 * @effect	| if (! this.isStarted()) this.getWorld().startGame()
+	 * @post	| new.isStarted()
+	 */
+	public void start() {
+		if (!this.isStarted) {
+			this.isStarted = true;
+			this.world.startGame();
+		}
+	}
+
+	/**
+	 * Returns whether this game is finished
+	 * @return	| this.getWorld().isGameFinished()
+	 */
+	public boolean isFinished() {
+		return this.world.isGameFinished();
+	}
+
+	/**
+	 * Plays the turn of the active worm: its program is executed, and the next turn is started if the program
+	 * did not end the turn itself.
+	 * @effect	| this.start()
+	 * @return	the result of the turn
+	 * @throws	IllegalStateException
+	 * 			| this.isFinished()
+	 */
+	public TurnResult playTurn() throws IllegalStateException {
+		this.start();
+		if (this.isFinished())
+			throw new IllegalStateException("the game is finished");
+		Worm worm = this.world.getActiveWorm();
+		int nbActions = this.handler.getNbActions();
+		int nbFailedActions = this.handler.getNbFailedActions();
+		double simulatedTime = this.handler.getSimulatedTime();
+		this.handler.clearMessages();
+
+		if (worm.isComputerControlled())
+			worm.getProgram().allExec();
+		if (!this.isFinished() && this.world.getActiveWorm() == worm)
+			this.world.startNextTurn();
+
+		this.nbTurns++;
+		return new TurnResult(this.nbTurns, worm.getName(), !worm.isTerminated(),
+				worm.isTerminated() ? 0 : worm.getRemainingHitPoints(),
+				this.handler.getNbActions() - nbActions, this.handler.getNbFailedActions() - nbFailedActions,
+				this.handler.getSimulatedTime() - simulatedTime, this.handler.getMessages(),
+				this.world.getAllWormsProtected().size(), this.isFinished());
+	}
+
+	/**
+	 * Plays turns until the game is finished, or until the given number of turns has been played
+	 * @param 	maxNbTurns
+	 * 			the largest number of turns to be played
+	 * @return	the results of the played turns, in order
+	 * 			| result.size() <= maxNbTurns
+	 */
+	public List<TurnResult> play(int maxNbTurns) {
+		this.start();
+		List<TurnResult> results = new ArrayList<TurnResult>();
+		while (!this.isFinished() && results.size() < maxNbTurns)
+			results.add(this.playTurn());
+		return results;
+	}
+
+	/**
+	 * Returns the name of the winner of this game: the winning team, or else the winning worm
+	 * @return	| if (this.getWorld().getWinningTeam() != null)
+	 * 			|	result == this.getWorld().getWinningTeam().getName()
+	 * 			| else if (this.getWorld().getWinningWorm() != null)
+	 * 			|	result == this.getWorld().getWinningWorm().getName()
+	 * 			| else
+	 * 			|	result == null
+	 */
+	public String getWinner() {
+		Team team = this.world.getWinningTeam();
+		if (team != null)
+			return team.getName();
+		Worm worm = this.world.getWinningWorm();
+		if (worm != null)
+			return worm.getName();
+		return null;
+	}
+
+	// ----------------------- Turn results ---------------------------------
+	/**
+	 * The result of one turn of a headless game
+	 */
+	public static class TurnResult {
+
+		private TurnResult(int turn, String wormName, boolean isWormAlive, int hitPoints, int nbActions,
+				int nbFailedActions, double simulatedTime, List<String> messages, int nbWormsLeft, boolean isGameFinished) {
+			this.turn = turn;
+			this.wormName = wormName;
+			this.isWormAlive = isWormAlive;
+			this.hitPoints = hitPoints;
+			this.nbActions = nbActions;
+			this.nbFailedActions = nbFailedActions;
+			this.simulatedTime = simulatedTime;
+			this.messages = messages;
+			this.nbWormsLeft = nbWormsLeft;
+			this.isGameFinished = isGameFinished;
+		}
+
+		private final int turn;
+		private final String wormName;
+		private final boolean isWormAlive;
+		private final int hitPoints;
+		private final int nbActions;
+		private final int nbFailedActions;
+		private final double simulatedTime;
+		private final List<String> messages;
+		private final int nbWormsLeft;
+		private final boolean isGameFinished;
+
+		/**
+		 * Returns the number of this turn (the first turn has number 1)
+		 */
+		public int getTurn() {
+			return this.turn;
+		}
+
+		/**
+		 * Returns the name of the worm that played this turn
+		 */
+		public String getWormName() {
+			return this.wormName;
+		}
+
+		/**
+		 * Returns whether the worm that played this turn is still alive after it
+		 */
+		public boolean isWormAlive() {
+			return this.isWormAlive;
+		}
+
+		/**
+		 * Returns the hit points of the worm that played this turn after it (0 if it died)
+		 */
+		public int getHitPoints() {
+			return this.hitPoints;
+		}
+
+		/**
+		 * Returns the number of actions the worm asked for during this turn
+		 */
+		public int getNbActions() {
+			return this.nbActions;
+		}
+
+		/**
+		 * Returns the number of actions of this turn that could not be completed
+		 */
+		public int getNbFailedActions() {
+			return this.nbFailedActions;
+		}
+
+		/**
+		 * Returns the time the actions of this turn would have taken in the GUI (in worm-seconds)
+		 */
+		public double getSimulatedTime() {
+			return this.simulatedTime;
+		}
+
+		/**
+		 * Returns a copy of the messages printed by the program during this turn
+		 */
+		public List<String> getMessages() {
+			return new ArrayList<String>(this.messages);
+		}
+
+		/**
+		 * Returns the number of worms left in the world after this turn
+		 */
+		public int getNbWormsLeft() {
+			return this.nbWormsLeft;
+		}
+
+		/**
+		 * Returns whether the game is finished after this turn
+		 */
+		public boolean isGameFinished() {
+			return this.isGameFinished;
+		}
+
+		@Override
+		public String toString() {
+			return "turn " + this.turn + ": " + this.wormName + " (" + this.nbActions + " actions, "
+					+ this.nbFailedActions + " failed, " + this.simulatedTime + "s, " + this.hitPoints + " HP), "
+					+ this.nbWormsLeft + " worms left";
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package worms.model;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * An immutable class that holds the trajectory of one jump of a movable game object: its duration
+ * and the positions along the parabola, sampled at regular times.
+ *
+ * A trajectory is computed once per jump and can be asked for positions many times (e.g. once per frame
+ * of an animation). Positions between two samples are interpolated linearly.
+ *
+ * @invar	there is at least one sample, at time 0
+ * 			| getNbSamples() >= 1
+ */
+public class JumpTrajectory {
+
+	/**
+	 * The largest time (in seconds) between two samples
+	 */
+	public static final double SAMPLE_INTERVAL = 0.01;
+
+	/**
+	 * Create the trajectory of a jump with the given start position, initial velocity and duration
+	 * @param 	x0
+	 * 			the x-coordinate of the start position (in meters)
+	 * @param 	y0
+	 * 			the y-coordinate of the start position (in meters)
+	 * @param 	v0x
+	 * 			the initial velocity in the x-direction (in meters per second)
+	 * @param 	v0y
+	 * 			the initial velocity in the y-direction (in meters per second)
+	 * @param 	duration
+	 * 			the duration of the jump (in seconds)
+	 * @post	| new.getDuration() == duration
+	 * @post	| for each sample i: new.getX(i) == x0 + v0x * new.getTime(i)
+	 * 			|	&& new.getY(i) == y0 + v0y * new.getTime(i) - 0.5 * Movable.g * new.getTime(i)^2
+	 */
+	public JumpTrajectory(double x0, double y0, double v0x, double v0y, double duration) {
+		this.duration = duration;
+		int nbIntervals = Math.max(1, (int) Math.ceil(duration / SAMPLE_INTERVAL));
+		this.interval = duration / nbIntervals;
+		this.xs = new double[nbIntervals + 1];
+		this.ys = new double[nbIntervals + 1];
+		for (int i = 0; i <= nbIntervals; i++) {
+			double time = i * this.interval;
+			this.xs[i] = x0 + v0x * time;
+			this.ys[i] = y0 + v0y * time - 0.5* Movable.g* Math.pow(time, 2);
+		}
+	}
+
+	/**
+	 * Variable holding the duration of this jump (in seconds)
+	 */
+	private final double duration;
+
+	/**
+	 * Variable holding the time between two samples (in seconds)
+	 */
+	private final double interval;
+
+	/**
+	 * The sampled positions, sample i lies at time i * interval
+	 */
+	private final double[] xs;
+	private final double[] ys;
+
+	/**
+	 * Returns the duration of this jump (in seconds)
+	 */
+	@Basic
+	public double getDuration() {
+		return this.duration;
+	}
+
+	/**
+	 * Returns the number of samples of this trajectory
+	 */
+	public int getNbSamples() {
+		return this.xs.length;
+	}
+
+	/**
+	 * Returns the time (in seconds) of the sample with the given index
+	 */
+	public double getTime(int index) {
+		return index * this.interval;
+	}
+
+	/**
+	 * Returns the x-coordinate of the sample with the given index
+	 */
+	public double getX(int index) {
+		return this.xs[index];
+	}
+
+	/**
+	 * Returns the y-coordinate of the sample with the given index
+	 */
+	public double getY(int index) {
+		return this.ys[index];
+	}
+
+	/**
+	 * Returns the position at the given time, interpolated between the two nearest samples
+	 * @param 	time
+	 * 			the time since the start of the jump (in seconds); it is clamped to [0, getDuration()]
+	 * @return	| {x, y}, linearly interpolated between the samples before and after the given time
+	 */
+	public double[] getPosition(double time) {
+		int last = this.xs.length - 1;
+		if (! (time > 0) || this.interval == 0)
+			return new double[] {this.xs[0], this.ys[0]};
+		if (time >= this.duration)
+			return new double[] {this.xs[last], this.ys[last]};
+		double index = time / this.interval;
+		int before = Math.min(last - 1, (int) index);
+		double fraction = index - before;
+		return new double[] {
+				this.xs[before] + fraction * (this.xs[before + 1] - this.xs[before]),
+				this.ys[before] + fraction * (this.ys[before + 1] - this.ys[before]) };
+	}
+
+}
@@ -1,7 +1,5 @@
 package worms.model;
 
-import java.util.LinkedList;
-
 import worms.model.exceptions.IllegalPositionException;
 import worms.model.exceptions.IllegalRadiusException;
 import be.kuleuven.cs.som.annotate.Basic;
@@ -74,10 +72,12 @@ public abstract class Movable extends GameObject {
 	 * 			| isValidDirection(newDirection) == true;
 	 * @post 	the direction of this worm is set to the given direction
 	 * 			| new.getDirection() == newDirection;
+	 * @effect	| this.invalidateJumpTrajectory()
 	 */
 	public void setDirection(double newDirection){
 		assert isValidDirection(newDirection);
 		this.direction = newDirection;
+		this.invalidateJumpTrajectory();
 	}
 	
 	/** A function that verifies whether a given direction is valid
@@ -139,20 +139,140 @@ public abstract class Movable extends GameObject {
 	 * 			| this.getWorld().isAdjacent(pos[0],pos[1],this.getRadius()) == true && airtime != 0
 	 */
 	public double getJumpTime(double timeStep) {
+		return this.getJumpTrajectory(timeStep).getDuration();
+	}
+	
+	/**
+	 * Returns the trajectory of a jump from the current position, in the current direction.
+	 * The trajectory is computed once and reused until this object, another worm or the terrain changes.
+	 * 
+	 * @param 	timeStep
+	 * 			the time step used to find the end of the jump
+	 * @return	| result.getDuration() == the airtime for a jump from the current position, in the current direction,
+	 * 			|	and without hitting impassable terrain
+	 * @return	| for each sample i: {result.getX(i), result.getY(i)} lies on the parabola of getJumpStep()
+	 */
+	public JumpTrajectory getJumpTrajectory(double timeStep) {
+		World world = this.getWorld();
+		if (this.jumpTrajectory == null || this.jumpTrajectoryTimeStep != timeStep 
+				|| this.jumpTrajectoryNbChanges != world.getNbChanges()) {
+			double duration = this.solveJumpTime(timeStep);
+			double direction = this.getDirection();
+			double v0 = this.getV0();
+			this.jumpTrajectory = new JumpTrajectory(this.getXPosition(), this.getYPosition(),
+					v0 * Math.cos(direction), v0 * Math.sin(direction), duration);
+			this.jumpTrajectoryTimeStep = timeStep;
+			this.jumpTrajectoryNbChanges = world.getNbChanges();
+		}
+		return this.jumpTrajectory;
+	}
+	
+	/**
+	 * Variables holding the last computed jump trajectory, the time step it was computed for,
+	 * and the number of changes of the world at that moment
+	 */
+	private JumpTrajectory jumpTrajectory;
+	private double jumpTrajectoryTimeStep;
+	private long jumpTrajectoryNbChanges;
+	
+	/**
+	 * Forgets the last computed jump trajectory, because a property it depends on has changed
+	 * @post	| the next call of getJumpTrajectory() computes a new trajectory
+	 */
+	protected void invalidateJumpTrajectory() {
+		this.jumpTrajectory = null;
+	}
+	
+	/**
+	 * Computes the airtime for a jump from the current position, in the current direction, 
+	 * and without hitting impassable terrain or another worm.
+	 * @param 	timeStep
+	 * 			the time step between two checked positions
+	 * @return	| scanJumpTime(timeStep)
+	 */
+	private double solveJumpTime(double timeStep) {
+		double step = this.timeMultiplier*timeStep;  // because otherwise this function has to deal with too much iterations
+		double x0 = this.getXPosition();
+		double y0 = this.getYPosition();
+		double direction = this.getDirection();
+		double v0 = this.getV0();
+		double v0x = v0 * Math.cos(direction);
+		double v0y = v0 * Math.sin(direction);
+		double radius = this.getRadius();
+		World world = this.getWorld();
+		double pixelDiagonal = Math.sqrt(Math.pow(world.getPixelwidth(), 2) + Math.pow(world.getPixelheight(), 2));
+		
+		double[] current = {x0, y0};
+		if (! (this.isValidXPosition(x0) && this.isValidYPosition(y0)) || ! isFreeJumpPosition(current, radius)) {
+			return 0.0;
+		}
+		// the first step is never checked, as in scanJumpTime()
+		double previousTime = 0.0;
+		double time = step;
+		double skipUntil = Double.NEGATIVE_INFINITY;
+		while (true) {
+			previousTime = time;
+			time += step;
+			if (time < skipUntil)
+				continue;
+			current[0] = x0 + v0x * time;
+			current[1] = y0 + v0y * time - 0.5* g* Math.pow(time, 2);
+			if (! (this.isValidXPosition(current[0]) && this.isValidYPosition(current[1])))
+				return time;
+			if (! isFreeJumpPosition(current, radius))
+				return previousTime;
+			
+			// no terrain, worm or border lies within this distance of any position the object can reach within the next steps
+			double safeDistance = Math.min(current[0], world.getWidth() - current[0]);
+			safeDistance = Math.min(safeDistance, Math.min(current[1], world.getHeight() - current[1]));
+			double clearance = world.getClearance(current[0], current[1]);
+			safeDistance = Math.min(safeDistance, clearance - radius - pixelDiagonal - 1e-5 - clearance * 1e-6);
+			safeDistance = Math.min(safeDistance, MAX_SKIP_DISTANCE);
+			if (safeDistance > 0)
+				safeDistance = Math.min(safeDistance, world.getWormClearance(current[0], current[1], safeDistance + radius, this) - radius - 1e-5);
+			safeDistance = safeDistance * (1 - 1e-9) - 1e-9;
+			if (safeDistance > 0) {
+				double speed = Math.abs(v0x) + Math.abs(v0y - g * time);
+				skipUntil = time + 2 * safeDistance / (speed + Math.sqrt(speed * speed + 2 * g * safeDistance));
+			}
+		}
+	}
+	
+	/**
+	 * The largest distance (in meters) getJumpTime() skips at once, which keeps the search for nearby worms small
+	 */
+	private static final double MAX_SKIP_DISTANCE = 1.0;
+	
+	/**
+	 * Checks whether the object can be at the given position during a jump
+	 * @param 	position
+	 * 			the position to be checked (x on 0 and y on 1)
+	 * @param 	radius
+	 * 			the radius of this object
+	 * @return	| ! this.getWorld().isImpassablePosition(position[0], position[1], radius) && isNotHittingOtherWorm(position, radius)
+	 */
+	private boolean isFreeJumpPosition(double[] position, double radius) {
+		return ! (this.getWorld().isImpassablePosition(position[0], position[1], radius))
+				&& isNotHittingOtherWorm(position, radius);
+	}
+	
+	/**
+	 * Return the airtime for a jump by checking the trajectory at every time step.
+	 * This gives the same results as getJumpTime(), at a much higher cost.
+	 * @param 	timeStep
+	 * 			the time step between two checked positions
+	 * @return	| getJumpTime(timeStep)
+	 */
+	double scanJumpTime(double timeStep) {
 		double timeMultiplier = this.timeMultiplier;  // because otherwise this function has to deal with too much iterations
 		double[] current = {this.getXPosition(), this.getYPosition()};
 		double previousTime = 0.0;
 		double time = timeMultiplier*timeStep;
 		double radius = this.getRadius();
 		
-		LinkedList<GameObject> allWormObjects = new LinkedList<>();  // cast all worms to GameObjects
-		for (Worm worm: this.getWorld().getAllWormsProtected()) {
-			allWormObjects.add((GameObject)worm);
-		}
 		while ( (this.isValidXPosition(current[0]) && this.isValidYPosition(current[1])) 
 				&& !(this.getWorld().isImpassablePosition(current[0], current[1], radius))
-				&& ( (this.getWorld().overlapsWith(current, radius, allWormObjects) == null )
-					|| (this.getWorld().overlapsWith(current, radius, allWormObjects) == this)) ) { //while not off the map or hit impassable terrain... and you didn't hit  a worm
+				&& isNotHittingOtherWorm(current, radius) ) { //while not off the map or hit impassable terrain... and you didn't hit  a worm
 			previousTime = time;
 			time += timeMultiplier*timeStep;
 			try{
@@ -165,6 +285,19 @@ public abstract class Movable extends GameObject {
 		return previousTime;
 	}
 	
+	/**
+	 * Checks whether the first worm of the world that overlaps with the given circle is this object itself, or there is none
+	 * @param 	position
+	 * 			the center of the circle (x on 0 and y on 1)
+	 * @param 	radius
+	 * 			the radius of the circle
+	 * @return	| overlappingWorm == null || overlappingWorm == this
+	 */
+	private boolean isNotHittingOtherWorm(double[] position, double radius) {
+		Worm overlappingWorm = this.getWorld().getOverlappingWorm(position, radius);
+		return (overlappingWorm == null) || (overlappingWorm == this);
+	}
+	
 	/**
 	 * Return the x and y position on a given DeltaT after starting the jump.
 	 * 
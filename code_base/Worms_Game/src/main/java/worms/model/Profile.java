@@ -0,0 +1,371 @@
+package worms.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import worms.gui.game.IActionHandler;
+
+/**
+ * The execution profile of a program: how often each statement and expression of the program was executed, and
+ * how much wall time it took, by position (line and column) in the program text.
+ *
+ * A profile is made by a ProgramCache in profiling mode, when it parses a program (see ProgramCache.setProfiling()).
+ * The expressions of such a program are wrapped in ProfiledExpressions, and its programs time every instruction
+ * (see Program.nextExec()). All programs that execute the same compiled program add to the same profile.
+ * The actions a program asks for are timed as well, through an action handler that wraps the one of the program.
+ *
+ * The time of a node is measured from its start to its end; its self time is that time minus the time of the
+ * nodes executed inside it. The profile also keeps the self time by stack of nodes, which is exported as folded
+ * stacks for flame graphs. A profile may only be used by one thread at a time.
+ */
+public class Profile {
+
+	/**
+	 * A statement, expression or action of a profiled program
+	 */
+	public static class Node {
+
+		private Node(String name, int line, int column) {
+			this.name = name;
+			this.line = line;
+			this.column = column;
+		}
+
+		private final String name;
+		private final int line;
+		private final int column;
+		private long count;
+		private long totalNanos;
+		private long selfNanos;
+
+		/**
+		 * Returns the name of the kind of this node (e.g. Assignment, Add or IActionHandler.move)
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns the line of this node in the program text (0 for actions)
+		 */
+		public int getLine() {
+			return this.line;
+		}
+
+		/**
+		 * Returns the column of this node in the program text (0 for actions)
+		 */
+		public int getColumn() {
+			return this.column;
+		}
+
+		/**
+		 * Returns the number of times this node has been executed.
+		 * The instructions of a control statement (its tests, jumps and its end) each count as one execution.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Returns the wall time spent in this node, including the nodes executed inside it (in nanoseconds)
+		 */
+		public long getTotalNanos() {
+			return this.totalNanos;
+		}
+
+		/**
+		 * Returns the wall time spent in this node itself (in nanoseconds)
+		 */
+		public long getSelfNanos() {
+			return this.selfNanos;
+		}
+
+		/**
+		 * Returns the name of this node in a stack: its name and position, without spaces or semicolons
+		 */
+		private String getFrameName() {
+			if (this.line == 0)
+				return this.name;
+			return this.name + "@" + this.line + ":" + this.column;
+		}
+	}
+
+	// ----------------------- Nodes --------------------------------------
+	/**
+	 * The nodes of this profile, in the order in which they were added
+	 */
+	private final List<Node> nodes = new ArrayList<Node>();
+
+	/**
+	 * The nodes of this profile by the object they stand for (e.g. a statement)
+	 */
+	private final Map<Object, Node> nodesByKey = new IdentityHashMap<Object, Node>();
+
+	/**
+	 * Adds a node with the given name and position to this profile
+	 * @return	a new node with the given name, line and column, that has not been executed yet
+	 */
+	public Node addNode(String name, int line, int column) {
+		Node node = new Node(name, line, column);
+		this.nodes.add(node);
+		return node;
+	}
+
+	/**
+	 * Adds a node with the given name and position to this profile, for the given object
+	 * @effect	| this.addNode(name, line, column)
+	 * @post	| new.getNode(key) == result
+	 */
+	public Node addNode(Object key, String name, int line, int column) {
+		Node node = this.addNode(name, line, column);
+		this.nodesByKey.put(key, node);
+		return node;
+	}
+
+	/**
+	 * Returns the node of this profile for the given object, or null if there is none
+	 */
+	public Node getNode(Object key) {
+		return this.nodesByKey.get(key);
+	}
+
+	/**
+	 * Returns the nodes of this profile, in the order in which they were added
+	 */
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(this.nodes);
+	}
+
+	// ----------------------- Timing -------------------------------------
+	/**
+	 * A stack of nodes that has been executed, with the self time spent in it
+	 */
+	private static class Stack {
+
+		private Stack(Stack parent, Node node) {
+			this.parent = parent;
+			this.node = node;
+		}
+
+		private final Stack parent;
+		private final Node node;
+		private final Map<Node, Stack> children = new IdentityHashMap<Node, Stack>();
+		private long selfNanos;
+
+		private Stack getChild(Node node) {
+			Stack child = this.children.get(node);
+			if (child == null) {
+				child = new Stack(this, node);
+				this.children.put(node, child);
+			}
+			return child;
+		}
+	}
+
+	/**
+	 * The stack of the nodes that are being executed (the root has no node)
+	 */
+	private final Stack root = new Stack(null, null);
+
+	private Stack current = this.root;
+
+	/**
+	 * The start times and the time spent in nested nodes of the nodes that are being executed, by depth
+	 */
+	private long[] startTimes = new long[16];
+	private long[] nestedTimes = new long[16];
+	private int depth = 0;
+
+	/**
+	 * Registers that the given node starts executing, inside the nodes that are executing now.
+	 * Every call must be followed by a call of exit() when the node is finished (also if it throws an exception).
+	 */
+	public void enter(Node node) {
+		if (this.depth == this.startTimes.length) {
+			this.startTimes = Arrays.copyOf(this.startTimes, 2 * this.depth);
+			this.nestedTimes = Arrays.copyOf(this.nestedTimes, 2 * this.depth);
+		}
+		this.current = this.current.getChild(node);
+		this.nestedTimes[this.depth] = 0;
+		this.startTimes[this.depth++] = System.nanoTime();
+	}
+
+	/**
+	 * Registers that the node that was entered last is finished
+	 */
+	public void exit() {
+		long time = System.nanoTime() - this.startTimes[--this.depth];
+		long self = time - this.nestedTimes[this.depth];
+		if (this.depth > 0)
+			this.nestedTimes[this.depth - 1] += time;
+		Node node = this.current.node;
+		node.count++;
+		node.totalNanos += time;
+		node.selfNanos += self;
+		this.current.selfNanos += self;
+		this.current = this.current.parent;
+	}
+
+	/**
+	 * The nodes of the actions of the action handlers of this profile
+	 */
+	private final Node turnNode = this.addNode("IActionHandler.turn", 0, 0);
+	private final Node moveNode = this.addNode("IActionHandler.move", 0, 0);
+	private final Node jumpNode = this.addNode("IActionHandler.jump", 0, 0);
+	private final Node fireNode = this.addNode("IActionHandler.fire", 0, 0);
+	private final Node toggleWeaponNode = this.addNode("IActionHandler.toggleWeapon", 0, 0);
+	private final Node printNode = this.addNode("IActionHandler.print", 0, 0);
+
+	/**
+	 * Returns an action handler that executes the actions of the given handler, and times them as nodes of this profile
+	 */
+	public IActionHandler profile(final IActionHandler handler) {
+		return new IActionHandler() {
+
+			@Override
+			public boolean turn(Worm worm, double angle) {
+				enter(turnNode);
+				try {
+					return handler.turn(worm, angle);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			@Override
+			public boolean move(Worm worm) {
+				enter(moveNode);
+				try {
+					return handler.move(worm);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			@Override
+			public boolean jump(Worm worm) {
+				enter(jumpNode);
+				try {
+					return handler.jump(worm);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			@Override
+			public boolean fire(Worm worm, int propulsion) {
+				enter(fireNode);
+				try {
+					return handler.fire(worm, propulsion);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			@Override
+			public boolean toggleWeapon(Worm worm) {
+				enter(toggleWeaponNode);
+				try {
+					return handler.toggleWeapon(worm);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			@Override
+			public void print(String message) {
+				enter(printNode);
+				try {
+					handler.print(message);
+				}
+				finally {
+					exit();
+				}
+			}
+		};
+	}
+
+	// ----------------------- Reports ------------------------------------
+	/**
+	 * Returns the flat report of this profile: a header, and a line per executed node with its position, name,
+	 * number of executions, total time and self time (in microseconds), the nodes with the most self time first.
+	 */
+	public List<String> getFlatReport() {
+		List<Node> executed = new ArrayList<Node>();
+		for (Node node : this.nodes)
+			if (node.count > 0)
+				executed.add(node);
+		Collections.sort(executed, new Comparator<Node>() {
+			@Override
+			public int compare(Node first, Node second) {
+				return Long.compare(second.selfNanos, first.selfNanos);
+			}
+		});
+		List<String> result = new ArrayList<String>(executed.size() + 1);
+		result.add(String.format("%-10s %-28s %10s %12s %12s", "line:col", "node", "count", "total(us)", "self(us)"));
+		for (Node node : executed)
+			result.add(String.format("%-10s %-28s %10d %12.1f %12.1f", node.line + ":" + node.column, node.name,
+					node.count, node.totalNanos / 1000.0, node.selfNanos / 1000.0));
+		return result;
+	}
+
+	/**
+	 * Returns the folded stacks of this profile, for flame graphs: a line per stack of nodes that has been executed,
+	 * with the names of its nodes from the outermost one, separated by semicolons, and the self time of the
+	 * innermost node in that stack (in nanoseconds)
+	 */
+	public List<String> getFoldedStacks() {
+		List<String> result = new ArrayList<String>();
+		this.addFoldedStacks(this.root, "", result);
+		return result;
+	}
+
+	private void addFoldedStacks(Stack stack, String prefix, List<String> result) {
+		for (Stack child : stack.children.values()) {
+			String name = prefix + child.node.getFrameName();
+			if (child.selfNanos > 0)
+				result.add(name + " " + child.selfNanos);
+			this.addFoldedStacks(child, name + ";", result);
+		}
+	}
+
+	/**
+	 * Writes the flat report and the folded stacks of this profile to the given files
+	 * @throws	IOException
+	 * 			if one of the files can not be written
+	 */
+	public void export(File flatReport, File foldedStacks) throws IOException {
+		Files.write(flatReport.toPath(), this.getFlatReport(), StandardCharsets.UTF_8);
+		Files.write(foldedStacks.toPath(), this.getFoldedStacks(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Forgets the executions registered in this profile, its nodes stay
+	 * @post	| for each node in new.getNodes(): node.getCount() == 0
+	 */
+	public void reset() {
+		for (Node node : this.nodes) {
+			node.count = 0;
+			node.totalNanos = 0;
+			node.selfNanos = 0;
+		}
+		this.root.children.clear();
+		this.current = this.root;
+		this.depth = 0;
+	}
+}
@@ -1,79 +1,150 @@
 package worms.model;
 
 import java.util.Map;
+
 import worms.gui.game.IActionHandler;
+import worms.model.part3.Instruction;
 import worms.model.part3.Statement;
 import worms.model.part3.Type;
+import worms.model.part3.VariableFrame;
 
 public class Program {
 	
 	/**
-	 * Constructor for this program
+	 * Constructor for this program, the variables get their slots in the order of the given map
 	 * @param 	globals
 	 * 			the global variables of this program (Map<String, Type>)
 	 * @param 	statement
 	 * 			the statement of this program (Statement)
 	 * @param 	actionHandler
 	 * 			the IActionHandler interface.
+	 * @effect	| this(globals, statement, actionHandler, new String[0])
 	 */
 	public Program(Map<String,Type> globals, Statement statement, IActionHandler actionHandler){
-		this.globals = globals;
-		this.staticGlobals = globals;
-		this.statement = statement;
+		this(globals, statement, actionHandler, new String[0]);
+	}
+	
+	/**
+	 * Constructor for this program
+	 * @param 	globals
+	 * 			the global variables of this program (Map<String, Type>)
+	 * @param 	statement
+	 * 			the statement of this program (Statement)
+	 * @param 	actionHandler
+	 * 			the IActionHandler interface.
+	 * @param 	slotNames
+	 * 			the names of the variables by slot, as resolved when the statement was parsed
+	 * 			(global variables that are not in this array get the next slots)
+	 * @effect	| this(new CompiledProgram(globals, statement, slotNames), actionHandler)
+	 */
+	public Program(Map<String,Type> globals, Statement statement, IActionHandler actionHandler, String[] slotNames){
+		this(new CompiledProgram(globals, statement, slotNames), actionHandler);
+	}
+	
+	/**
+	 * Constructor for this program, executing the given compiled program
+	 * @param 	compiledProgram
+	 * 			the compiled program to be executed, it can be shared with other programs
+	 * @param 	actionHandler
+	 * 			the IActionHandler interface.
+	 * @post	| new.getCompiledProgram() == compiledProgram
+	 * @post	| for each slot i: new.getFrame().getName(i) == compiledProgram.getSlotNames()[i]
+	 * @post	| new.getGlobals().equals(compiledProgram.getInitialValues()) for the variables of the initial values
+	 * @post	| new.getProgramIndex() == 0
+	 */
+	public Program(CompiledProgram compiledProgram, IActionHandler actionHandler){
+		this.compiledProgram = compiledProgram;
+		this.frame = new VariableFrame(compiledProgram.getSlotNames(), compiledProgram.getInitialValues());
+		this.statement = compiledProgram.getStatement();
+		this.code = compiledProgram.getCode();
+		this.instructionStates = new Object[this.code.length];
 		this.actionHandler = actionHandler;
-		
-		this.programLine= statement.getLine();
-		System.out.println("statement.getLine: "+this. programLine);
-		this.programLastLine= statement.getLine() + statement.getLength() - 1; // -1 because getLength() counts the first line of the statement
-		System.out.println("programLastLine: "+this. programLastLine);
+		this.profile = compiledProgram.getProfile();
+		if (this.profile != null){
+			this.profiledActionHandler = this.profile.profile(actionHandler);
+			this.instructionNodes = new Profile.Node[this.code.length];
+			for (int index = 0; index < this.code.length; index++)
+				this.instructionNodes[index] = this.profile.getNode(this.code[index].getStatement());
+		}
 	}
 	
-	// -------------------- Program Lines --------------------------
 	/**
-	 * A variable that stores the line of the program where execution is at the moment.
+	 * Returns a new program that executes the same compiled program with the same action handler,
+	 * with its own variables, starting at the beginning
+	 * @return	| result.getCompiledProgram() == this.getCompiledProgram()
+	 * 			|	&& result.getActionHandler() == this.getActionHandler() && result.getWorm() == null
 	 */
-	private int programLine;
+	public Program copy(){
+		return new Program(this.compiledProgram, this.actionHandler);
+	}
 	
 	/**
-	 * A variable that stores the amount of lines that this program contains.
+	 * variable holds the compiled program this program executes
 	 */
-	private int programLastLine;
+	private final CompiledProgram compiledProgram;
 	
 	/**
-	 * returns the current program line.
+	 * returns the compiled program this program executes
 	 */
-	public int getProgramLine(){
-		return this.programLine;
+	public CompiledProgram getCompiledProgram(){
+		return this.compiledProgram;
 	}
 	
+	// -------------------- Code -----------------------------------
 	/**
-	 * Sets the program line to the given value
-	 * @param line
-	 * 			the line of the program to be set (int)
-	 * @post  new.getProgramLine() == line
+	 * The instructions this program is compiled to (shared with the compiled program).
 	 */
-	public void setProgramLine(int line){ 
-		if ( line > this.programLastLine){
-			this.globals = this.staticGlobals;
-			this.programLine = statement.getLine(); //start again at the beginning of the program
-		}
-		else
-			this.programLine= line;
+	private Instruction[] code;
+	
+	/**
+	 * returns a copy of the instructions this program is compiled to.
+	 */
+	public Instruction[] getCode(){
+		return this.code.clone();
 	}
 	
 	/**
-	 * returns the last line of this program
+	 * A variable that stores the index of the instruction that will be executed next.
 	 */
-	public int getProgramLastLine(){
-		return this.programLastLine;
+	private int programIndex;
+	
+	/**
+	 * returns the index of the instruction that will be executed next.
+	 */
+	public int getProgramIndex(){
+		return this.programIndex;
 	}
 	
 	/**
-	 * increments the programline with one.
-	 * @effect new.getProgramLine() == this.getProgramLine()+1
+	 * The state of the instructions of this program, by index (e.g. the objects a for each loop has not visited yet).
+	 * Instructions keep their state here, so that they can be shared by many programs.
 	 */
-	public void programLineIncrement(){
-		this.setProgramLine(this.getProgramLine()+1);;
+	private Object[] instructionStates;
+	
+	/**
+	 * returns the state of the instruction with the given index, for this program
+	 */
+	public Object getInstructionState(int index){
+		return this.instructionStates[index];
+	}
+	
+	/**
+	 * sets the state of the instruction with the given index, for this program
+	 * @post	| new.getInstructionState(index) == state
+	 */
+	public void setInstructionState(int index, Object state){
+		this.instructionStates[index] = state;
+	}
+	
+	/**
+	 * returns the line of the statement that will be executed next.
+	 * @return	| if (this.getCode().length == 0) result == this.getStatement().getLine()
+	 * 			| else result == this.getCode()[this.getProgramIndex()].getLine()
+	 */
+	public int getProgramLine(){
+		if (this.code.length == 0)
+			return this.statement.getLine();
+		return this.code[this.programIndex].getLine();
 	}
 	
 	// -------------------- Program Counter ------------------------
@@ -120,20 +191,23 @@ public class Program {
 	
 	// --------------------- Globals --------------------------------
 	/**
-	 * variable holds the global variables of this program
+	 * variable holds the values of the global variables of this program, by slot
 	 */
-	private Map<String, Type> globals;
+	private VariableFrame frame;
 	
 	/**
-	 * variable holds the static global variables of this program (as initialised)
+	 * returns the frame with the values of the global variables of this program
 	 */
-	private Map<String, Type> staticGlobals;
+	public VariableFrame getFrame(){
+		return this.frame;
+	}
 	
 	/**
-	 * returns the global variables of this program
+	 * returns the global variables of this program by name.
+	 * This is a copy meant for debugging; the program itself works on getFrame().
 	 */
 	public Map<String, Type> getGlobals(){
-		return this.globals;
+		return this.frame.asMap();
 	}
 	
 	// ---------------------- Statement ------------------------------
@@ -157,11 +231,38 @@ public class Program {
 
 	/**
 	 * returns the action handler interface of this program
+	 * (if this program is profiled, a handler that times the actions of that interface)
 	 */
 	public IActionHandler getActionHandler() {
+		if (this.profiledActionHandler != null)
+			return this.profiledActionHandler;
 		return this.actionHandler;
 	}
 	
+	// ------------------------- Profile ------------------------------
+	/**
+	 * Variable holds the profile of this program, null if it is not profiled
+	 */
+	private final Profile profile;
+	
+	/**
+	 * The nodes of the profile of this program, by instruction index (the node of the statement of the instruction)
+	 */
+	private Profile.Node[] instructionNodes;
+	
+	/**
+	 * The action handler of this program that times the actions in the profile
+	 */
+	private IActionHandler profiledActionHandler;
+	
+	/**
+	 * returns the profile of this program, null if it is not profiled
+	 * @return	| this.getCompiledProgram().getProfile()
+	 */
+	public Profile getProfile(){
+		return this.profile;
+	}
+	
 	// ------------------------- WORM --------------------------------
 	// CONNECTION: slave
 	/**
@@ -184,28 +285,51 @@ public class Program {
 		this.worm = worm;
 	}
 	
+	//--------------------------- Execution --------------------------
 	/**
-	 * sets the correct worm and action handler interface to the statement (and substatements) of this program
+	 * Returns whether this program can execute more instructions in the current turn
+	 * @return	| ! this.isTerminated() && this.programCounterOk() && this.getWorm().getRemainingActionPoints() > 10
 	 */
-	public void setAppropriateValues(){
-		System.out.println("#############################    Program Appropriate values set is started     #############################");
-		//via worm, the statements can access the globals of this program (statement.getWorm.getProgram.getGlobals() )
-		this.statement.setAppropriateValues(this.worm, this.actionHandler); 
-		System.out.println("#############################    Program Appropriate values set is done    ################################");
+	private boolean canContinue(){
+		return ! this.isTerminated() && this.programCounterOk() && this.getWorm().getRemainingActionPoints() > 10;
 	}
 	
-	//--------------------------- Execution --------------------------
 	/**
-	 * executes one first-level statement of this program.
+	 * executes the instructions of this program from the current one to the end of the program,
+	 * or until the program can not continue in this turn. The next execution starts where this one stopped.
+	 * If this program is profiled, every instruction is timed as the node of its statement.
 	 */
 	public void nextExec(){
-		if (this.programCounterOk()){
-			int line = this.getProgramLine();
-			if (line == 47){
+		if (this.profile != null){
+			this.nextExecProfiled();
+			return;
+		}
+		while (this.canContinue()){
+			this.programIndex = this.code[this.programIndex].execute(this, this.programIndex);
+			if (this.programIndex >= this.code.length){
+				this.programIndex = 0; //start again at the beginning of the program
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * executes the instructions of this program like nextExec(), timing every instruction in the profile
+	 */
+	private void nextExecProfiled(){
+		while (this.canContinue()){
+			Profile.Node node = this.instructionNodes[this.programIndex];
+			this.profile.enter(node);
+			try {
+				this.programIndex = this.code[this.programIndex].execute(this, this.programIndex);
+			}
+			finally {
+				this.profile.exit();
+			}
+			if (this.programIndex >= this.code.length){
+				this.programIndex = 0; //start again at the beginning of the program
 				return;
 			}
-			System.out.print("next line started:");System.out.println(line);
-			this.statement.function(line);
 		}
 	}
 	
@@ -213,21 +337,30 @@ public class Program {
 	 * executes 1000 statements of this program.
 	 */
 	public void allExec(){
-		System.out.println("Started allExec.");
+		Trace trace = this.getTrace();
+		trace.log(Trace.Category.PROGRAM, Trace.Level.INFO, "started the turn of", this.getWorm());
 		this.programCounterReset(); 
-		while(this.programCounterOk() && this.getWorm().getRemainingActionPoints() > 10){ 
-			//System.out.print("programCounter:");System.out.println(this.getProgramCounter());
+		if (this.code.length == 0)
+			return;
+		while(this.canContinue()){ 
 			try{
 				this.nextExec();
 			}
 			catch (NullPointerException exc){
-				//System.out.println(exc.getMessage());
 				exc.printStackTrace();
-				System.out.println("this PC worm terminated itself");
+				trace.log(Trace.Category.PROGRAM, Trace.Level.ERROR, "the program stopped its turn because of", exc);
 				break;
 			}
 		}
-		System.out.println("the pc game finished its turn");
+		trace.log(Trace.Category.PROGRAM, Trace.Level.INFO, "finished the turn after statements:", this.getProgramCounter());
+	}
+	
+	/**
+	 * Returns the trace in which this program records what it does: the trace of the world of its worm
+	 * @return	| this.getWorm().getWorld().getTrace()
+	 */
+	public Trace getTrace(){
+		return this.getWorm().getWorld().getTrace();
 	}
 	
 	// ----------------------------- Termination ------------------------------------------
@@ -236,8 +369,10 @@ public class Program {
 	 */
 	public void terminate(){
 		this.worm= null;
-		this.globals = null;
+		this.frame = null;
 		this.statement = null;
+		this.code = null;
+		this.instructionStates = null;
 		this.actionHandler = null;
 		this.isTerminated = true;
 	}
@@ -257,10 +392,7 @@ public class Program {
 	// ---------------------------- valid program -------------------------------
 		
 	public boolean isValidProgram(){
-		System.out.println("xxxxxxxxxxxxxxxxxxxxx VP begin xxxxxxxxxxxxxxxxxxxxxxx");
-		boolean result = statement.checkForLoop();
-		System.out.println("xxxxxxxxxxxxxxxxxxxxx VP end  xxxxxxxxxxxxxxxxxxxxxxxxx");
-		return result;
+		return statement.checkForLoop();
 	}
 	
 }
@@ -0,0 +1,214 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import worms.gui.game.IActionHandler;
+import worms.model.part3.Expression;
+import worms.model.part3.ProgramFactoryImplementation;
+import worms.model.part3.Statement;
+import worms.model.part3.Type;
+import worms.model.programs.ParseOutcome;
+import worms.model.programs.ProgramParser;
+
+/**
+ * A class that parses program texts and remembers the outcome for the most recently used texts.
+ *
+ * The outcomes are kept in a map with a bounded number of entries, keyed by the full program text (two texts
+ * share an outcome only if they are equal as strings); when it is full, the least recently used text is forgotten. A successful outcome is
+ * kept as a CompiledProgram, which does not depend on a worm or an action handler, so every worm that
+ * gets a program with the same text shares it. Failures are kept as well, with their error messages.
+ *
+ * One factory, lexer and parser are reused for every parse, so a cache may only be used by one thread at a time.
+ */
+public class ProgramCache {
+
+	/**
+	 * The number of program texts remembered by default
+	 */
+	public static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * The system property that makes new caches dump every program they parse (see setDumpingPrograms())
+	 */
+	public static final String DUMP_PROPERTY = "worms.dumpPrograms";
+
+	/**
+	 * Create a cache that remembers the default number of program texts
+	 * @effect	| this(DEFAULT_CAPACITY)
+	 */
+	public ProgramCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a cache that remembers the given number of program texts
+	 * @param 	capacity
+	 * 			the largest number of program texts remembered
+	 * @post	| new.getCapacity() == capacity && new.size() == 0 && new.getNbParses() == 0
+	 * @throws	IllegalArgumentException
+	 * 			| capacity < 1
+	 */
+	public ProgramCache(int capacity) throws IllegalArgumentException {
+		if (capacity < 1)
+			throw new IllegalArgumentException("a program cache must remember at least one program");
+		this.capacity = capacity;
+		this.factory.setParser(this.parser);
+	}
+
+	/**
+	 * Variable holds the largest number of program texts remembered by this cache
+	 */
+	private final int capacity;
+
+	/**
+	 * Returns the largest number of program texts remembered by this cache
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * The outcome of parsing one program text: a compiled program, or the errors of the parse
+	 */
+	private static class Entry {
+
+		private Entry(CompiledProgram compiled, List<String> errors) {
+			this.compiled = compiled;
+			this.errors = errors;
+		}
+
+		private final CompiledProgram compiled;
+		private final List<String> errors;
+	}
+
+	/**
+	 * The remembered outcomes, by program text, from the least to the most recently used
+	 */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return this.size() > ProgramCache.this.capacity;
+		}
+	};
+
+	/**
+	 * Returns the number of program texts remembered by this cache
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Variable holds the number of program texts this cache had to parse
+	 */
+	private int nbParses;
+
+	/**
+	 * Returns the number of program texts this cache had to parse (the texts that were not remembered)
+	 */
+	public int getNbParses() {
+		return this.nbParses;
+	}
+
+	/**
+	 * Variable registering whether this cache prints every program it parses
+	 */
+	private boolean isDumpingPrograms = Boolean.getBoolean(DUMP_PROPERTY);
+
+	/**
+	 * Returns whether this cache prints every program it parses, as it is executed after optimization
+	 * (see CompiledProgram.dump()). This is set for new caches if the system property DUMP_PROPERTY is "true".
+	 */
+	public boolean isDumpingPrograms() {
+		return this.isDumpingPrograms;
+	}
+
+	/**
+	 * Sets whether this cache prints every program it parses
+	 * @post	| new.isDumpingPrograms() == flag
+	 */
+	public void setDumpingPrograms(boolean flag) {
+		this.isDumpingPrograms = flag;
+	}
+
+	/**
+	 * Returns whether this cache makes programs that are profiled (see Profile)
+	 */
+	public boolean isProfiling() {
+		return this.factory.isProfiling();
+	}
+
+	/**
+	 * Sets whether this cache makes programs that are profiled.
+	 * Every program text parsed in profiling mode gets its own profile, shared by all programs with that text
+	 * (see CompiledProgram.getProfile()). Since the programs of the other mode are compiled differently,
+	 * this cache forgets the texts it remembers when the mode changes.
+	 * @post	| new.isProfiling() == flag
+	 * @post	| if (flag != this.isProfiling()) new.size() == 0
+	 */
+	public void setProfiling(boolean flag) {
+		if (flag != this.factory.isProfiling())
+			this.entries.clear();
+		this.factory.setProfiling(flag);
+	}
+
+	/**
+	 * The factory used for every parse
+	 */
+	private final ProgramFactoryImplementation factory = new ProgramFactoryImplementation();
+
+	/**
+	 * The parser used for every parse (it keeps its ANTLR lexer and parser between parses)
+	 */
+	private final ProgramParser<Expression<Type>, Statement, Type> parser =
+			new ProgramParser<Expression<Type>, Statement, Type>(this.factory);
+
+	/**
+	 * Returns the outcome of parsing the given program text: a new program executing the compiled program of
+	 * the text with the given action handler, or the errors found in the text.
+	 * The text is only parsed if it is not remembered by this cache.
+	 * @param 	programText
+	 * 			the text of the program
+	 * @param 	handler
+	 * 			the action handler of the program
+	 */
+	public ParseOutcome<?> parse(String programText, IActionHandler handler) {
+		Entry entry = this.entries.get(programText);
+		if (entry == null) {
+			entry = this.parse(programText);
+			this.entries.put(programText, entry);
+		}
+		if (entry.compiled == null)
+			return ParseOutcome.failure(new ArrayList<String>(entry.errors));
+		return ParseOutcome.success(new Program(entry.compiled, handler));
+	}
+
+	/**
+	 * Parses the given program text.
+	 * The syntax errors are reported by the parser, and then all type errors found by the factory.
+	 * The factory also folds constant expressions; constant ifs and skips are left out when the program is compiled.
+	 * @param 	programText
+	 * 			the text of the program
+	 */
+	private Entry parse(String programText) {
+		this.nbParses++;
+		this.factory.reset();
+		this.parser.parse(programText);
+		if (this.parser.getErrors().size() > 0)
+			return new Entry(null, Collections.unmodifiableList(new ArrayList<String>(this.parser.getErrors())));
+		if (this.factory.getTypeErrors().size() > 0)
+			return new Entry(null, Collections.unmodifiableList(this.factory.getTypeErrors()));
+		CompiledProgram compiled = new CompiledProgram(this.parser.getGlobals(), this.parser.getStatement(),
+				this.factory.getSlotNames(), this.factory.getProfile());
+		if (this.isDumpingPrograms)
+			System.out.println(compiled.dump());
+		return new Entry(compiled, null);
+	}
+}
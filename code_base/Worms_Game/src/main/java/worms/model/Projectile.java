@@ -64,23 +64,22 @@ public class Projectile extends Movable {
 	 * Let this projectile fly in its parabolic-shaped direction (overridden)
 	 * @effect	| if overlappedWorm != null	
 	 * 			|	overlappedWorm.setRemainingActionPoints(overlappedWorm.getRemainingActionPoints - weapon.getHitPointsDamage())
+	 * @effect	| if (! new.isTerminated())
+	 * 			|	this.getWorld().carveCrater(new.getXPosition(), new.getYPosition(), weapon.getCraterRadius())
 	 */
 	@Override
 	public void jump(double timeStep){
 		super.jump(timeStep);
 		if (! this.isTerminated()){
 			// check if a projectile hit a worm
-			// first create list, so the general function would accept it's arguments
-			LinkedList<GameObject> wormList = new LinkedList<>();
-			for (Worm worm: this.getWorld().getAllWormsProtected()){
-				wormList.add((GameObject) worm);
-			}
 			// return the worm that is hit and reduce its hitpoints
 			double[] pos =  {this.getXPosition(), this.getYPosition()};
-			Worm overlappedWorm = (Worm) this.getWorld().overlapsWith(pos, this.getRadius()*10, wormList); // *10 because radius of projectile is really small
+			Worm overlappedWorm = this.getWorld().getOverlappingWorm(pos, this.getRadius()*10); // *10 because radius of projectile is really small
 			if (overlappedWorm != null){
 				overlappedWorm.setRemainingHitPoints(overlappedWorm.getRemainingHitPoints() - weapon.getHitpointsDamage());
 			}
+			// the explosion carves a crater where the projectile landed
+			this.getWorld().carveCrater(pos[0], pos[1], weapon.getCraterRadius());
 		}
 	}
 	
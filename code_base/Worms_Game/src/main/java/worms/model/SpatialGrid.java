@@ -0,0 +1,380 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * A uniform grid of square cells over a world, used to find the game objects near a position
+ * without checking every object of that world.
+ *
+ * Every object is stored in the cell of its center. An overlap query only checks the cells that lie within
+ * the query radius plus the largest radius of the stored objects.
+ * When several objects overlap, the one that was added first is returned, as a linear scan over
+ * the objects in order of addition would do.
+ *
+ * @param <T>	the type of the stored game objects
+ */
+public class SpatialGrid<T extends GameObject> {
+
+	/**
+	 * The maximum number of cells of a grid (the cells grow for larger worlds)
+	 */
+	private static final int MAX_CELLS = 1 << 16;
+
+	/**
+	 * Create a new empty grid for a world with the given dimensions
+	 * @param 	width
+	 * 			the width of the world (in meters)
+	 * @param 	height
+	 * 			the height of the world (in meters)
+	 */
+	public SpatialGrid(double width, double height) {
+		this.cellSize = Math.max(Math.max(1.0, Math.sqrt(width * height / MAX_CELLS)),
+				Math.max(width, height) / MAX_CELLS);
+		this.columns = Math.max(1, (int) Math.ceil(width / this.cellSize));
+		this.rows = Math.max(1, (int) Math.ceil(height / this.cellSize));
+		this.cells = newCells(this.columns * this.rows);
+		this.visited = new int[this.columns * this.rows];
+	}
+
+	/**
+	 * Variable holding the length of the side of one cell (in meters)
+	 */
+	private final double cellSize;
+
+	/**
+	 * Variables holding the number of columns and rows of cells
+	 */
+	private final int columns;
+	private final int rows;
+
+	/**
+	 * The objects of every cell, row after row. A cell without objects may be null.
+	 */
+	private final ArrayList<T>[] cells;
+
+	/**
+	 * Returns a new array of the given number of cells, all null (Java cannot create an array of a generic type)
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <T> ArrayList<T>[] newCells(int length) {
+		return new ArrayList[length];
+	}
+
+	/**
+	 * The number of the last query that visited each cell, and the number of the last query
+	 */
+	private final int[] visited;
+	private int nbQueries = 0;
+
+	/**
+	 * The cell and order of addition of every stored object
+	 */
+	private final IdentityHashMap<T, Entry> entries = new IdentityHashMap<>();
+
+	/**
+	 * Variable counting the added objects, used to keep the order of addition
+	 */
+	private long nbAdded = 0;
+
+	/**
+	 * Variable holding the largest radius any stored object has had
+	 */
+	private double maxRadius = 0;
+
+	/**
+	 * The place of one object in this grid
+	 */
+	private static class Entry {
+		private Entry(int cell, long sequence) {
+			this.cell = cell;
+			this.sequence = sequence;
+		}
+		private int cell;
+		private final long sequence;
+	}
+
+	/**
+	 * Returns the number of objects in this grid
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns whether the given object is stored in this grid
+	 * @param 	object
+	 * 			the object to be checked
+	 */
+	public boolean contains(T object) {
+		return this.entries.containsKey(object);
+	}
+
+	/**
+	 * Adds the given object to this grid, after all objects that are already in it
+	 * @param 	object
+	 * 			the object to be added
+	 * @post	| new.contains(object)
+	 */
+	public void add(T object) {
+		if (this.entries.containsKey(object))
+			return;
+		int cell = this.cellOf(object.getXPosition(), object.getYPosition());
+		this.entries.put(object, new Entry(cell, this.nbAdded++));
+		this.cellList(cell).add(object);
+		this.maxRadius = Math.max(this.maxRadius, object.getRadius());
+	}
+
+	/**
+	 * Removes the given object from this grid
+	 * @param 	object
+	 * 			the object to be removed
+	 * @post	| ! new.contains(object)
+	 */
+	public void remove(T object) {
+		Entry entry = this.entries.remove(object);
+		if (entry != null)
+			this.removeFromCell(entry.cell, object);
+	}
+
+	/**
+	 * Moves the given object to the cell of its current position and registers its current radius.
+	 * Objects that are not stored in this grid are ignored.
+	 * @param 	object
+	 * 			the object that has moved or changed its radius
+	 */
+	public void update(GameObject object) {
+		Entry entry = this.entries.get(object);
+		if (entry == null)
+			return;
+		@SuppressWarnings("unchecked")
+		T stored = (T) object;
+		int cell = this.cellOf(object.getXPosition(), object.getYPosition());
+		if (cell != entry.cell) {
+			this.removeFromCell(entry.cell, stored);
+			this.cellList(cell).add(stored);
+			entry.cell = cell;
+		}
+		this.maxRadius = Math.max(this.maxRadius, object.getRadius());
+	}
+
+	/**
+	 * Returns the first added object of this grid that overlaps with the circle with the given center and radius
+	 * @param 	x
+	 * 			the x-coordinate of the center of the circle (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the center of the circle (in meters)
+	 * @param 	radius
+	 * 			the radius of the circle (in meters)
+	 * @return	| the object o with the smallest order of addition for which
+	 * 			|	World.pythagorianDistance(x, y, o.getXPosition(), o.getYPosition()) <= radius + o.getRadius()
+	 * 			| or null if there is no such object
+	 */
+	public T getOverlapping(double x, double y, double radius) {
+		if (this.entries.isEmpty())
+			return null;
+		double reach = radius + this.maxRadius + 1e-5; // the distances are rounded to 5 digits
+		int minColumn = this.columnOf(x - reach);
+		int maxColumn = this.columnOf(x + reach);
+		int minRow = this.rowOf(y - reach);
+		int maxRow = this.rowOf(y + reach);
+		T result = null;
+		long resultSequence = Long.MAX_VALUE;
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<T> cell = this.cells[row * this.columns + column];
+				if (cell == null)
+					continue;
+				for (int i = 0; i < cell.size(); i++) {
+					T object = cell.get(i);
+					if (World.pythagorianDistance(x, y, object.getXPosition(), object.getYPosition()) <= (radius + object.getRadius())) {
+						long sequence = this.entries.get(object).sequence;
+						if (sequence < resultSequence) {
+							result = object;
+							resultSequence = sequence;
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the object that is overlapped first by a row of circles along a ray.
+	 * Circle k (1 <= k <= nbSamples) has the given radius and its center at (x + k*step*dirX, y + k*step*dirY).
+	 * @param 	x
+	 * 			the x-coordinate of the start of the ray (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the start of the ray (in meters)
+	 * @param 	dirX
+	 * 			the x-component of the (unit) direction of the ray
+	 * @param 	dirY
+	 * 			the y-component of the (unit) direction of the ray
+	 * @param 	step
+	 * 			the distance between two circles (in meters)
+	 * @param 	nbSamples
+	 * 			the number of circles
+	 * @param 	radius
+	 * 			the radius of the circles (in meters)
+	 * @return	| getOverlapping(x + k*step*dirX, y + k*step*dirY, radius) for the smallest k for which that is not null,
+	 * 			| or null if there is no such k
+	 */
+	public T getFirstAlongRay(double x, double y, double dirX, double dirY, double step, int nbSamples, double radius) {
+		if (this.entries.isEmpty() || nbSamples < 1)
+			return null;
+		int query = ++this.nbQueries;
+		double reach = radius + this.maxRadius + 1e-5 + this.cellSize / 2; // the distances are rounded to 5 digits
+		T result = null;
+		int resultSample = Integer.MAX_VALUE;
+		long resultSequence = Long.MAX_VALUE;
+		
+		// walk along the ray in half cells, and check every cell near the ray once
+		double length = nbSamples * step;
+		for (double s = step; s <= length + this.cellSize / 2; s += this.cellSize / 2) {
+			if (s > (double) resultSample * step + this.cellSize)
+				break; // objects in the cells further on can only be hit by later circles
+			double px = x + s * dirX;
+			double py = y + s * dirY;
+			int minColumn = this.columnOf(px - reach);
+			int maxColumn = this.columnOf(px + reach);
+			int minRow = this.rowOf(py - reach);
+			int maxRow = this.rowOf(py + reach);
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= maxColumn; column++) {
+					int index = row * this.columns + column;
+					if (this.visited[index] == query)
+						continue;
+					this.visited[index] = query;
+					ArrayList<T> cell = this.cells[index];
+					if (cell == null)
+						continue;
+					for (int i = 0; i < cell.size(); i++) {
+						T object = cell.get(i);
+						int sample = firstSampleOverlapping(object, x, y, dirX, dirY, step, nbSamples, radius);
+						if (sample < 0 || sample > resultSample)
+							continue;
+						long sequence = this.entries.get(object).sequence;
+						if (sample < resultSample || sequence < resultSequence) {
+							result = object;
+							resultSample = sample;
+							resultSequence = sequence;
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first circle along a ray (as in getFirstAlongRay()) that overlaps with the given object,
+	 * or -1 if there is none.
+	 * The candidate circles follow from the intersection of the ray with the object, grown by the radius of the circles.
+	 */
+	private static int firstSampleOverlapping(GameObject object, double x, double y, double dirX, double dirY, 
+			double step, int nbSamples, double radius) {
+		double objectX = object.getXPosition();
+		double objectY = object.getYPosition();
+		double toObjectX = objectX - x;
+		double toObjectY = objectY - y;
+		double along = toObjectX * dirX + toObjectY * dirY;
+		double across2 = toObjectX * toObjectX + toObjectY * toObjectY - along * along;
+		double reach = radius + object.getRadius() + 1e-5;
+		if (across2 > reach * reach)
+			return -1;
+		double halfChord = Math.sqrt(reach * reach - Math.max(0, across2));
+		int first = (int) Math.max(1, Math.ceil((along - halfChord) / step));
+		int last = (int) Math.min(nbSamples, Math.floor((along + halfChord) / step));
+		for (int k = first; k <= last; k++) {
+			if (World.pythagorianDistance(x + k*step*dirX, y + k*step*dirY, objectX, objectY) <= (radius + object.getRadius()))
+				return k;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the distance from the given position to the edge of the nearest object of this grid,
+	 * or the given maximum distance if no object is nearer
+	 * @param 	x
+	 * 			the x-coordinate of the position (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the position (in meters)
+	 * @param 	maxDistance
+	 * 			the largest distance of interest (in meters)
+	 * @param 	exclude
+	 * 			an object to be ignored (may be null)
+	 * @return	| min(maxDistance, min { distance((x,y), o.getPosition()) - o.getRadius() | o in this grid && o != exclude })
+	 */
+	public double getClearance(double x, double y, double maxDistance, GameObject exclude) {
+		double result = maxDistance;
+		if (this.entries.isEmpty())
+			return result;
+		double reach = maxDistance + this.maxRadius;
+		int minColumn = this.columnOf(x - reach);
+		int maxColumn = this.columnOf(x + reach);
+		int minRow = this.rowOf(y - reach);
+		int maxRow = this.rowOf(y + reach);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<T> cell = this.cells[row * this.columns + column];
+				if (cell == null)
+					continue;
+				for (int i = 0; i < cell.size(); i++) {
+					T object = cell.get(i);
+					if (object == exclude)
+						continue;
+					double dx = x - object.getXPosition();
+					double dy = y - object.getYPosition();
+					result = Math.min(result, Math.sqrt(dx * dx + dy * dy) - object.getRadius());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the index of the cell that holds the given position
+	 */
+	private int cellOf(double x, double y) {
+		return this.rowOf(y) * this.columns + this.columnOf(x);
+	}
+
+	/**
+	 * Returns the column of cells that holds the given x-coordinate, clamped to the grid
+	 */
+	private int columnOf(double x) {
+		return Math.min(this.columns - 1, Math.max(0, (int) (x / this.cellSize)));
+	}
+
+	/**
+	 * Returns the row of cells that holds the given y-coordinate, clamped to the grid
+	 */
+	private int rowOf(double y) {
+		return Math.min(this.rows - 1, Math.max(0, (int) (y / this.cellSize)));
+	}
+
+	/**
+	 * Returns the list of objects of the given cell, creating it if needed
+	 */
+	private ArrayList<T> cellList(int cell) {
+		if (this.cells[cell] == null)
+			this.cells[cell] = new ArrayList<>(4);
+		return this.cells[cell];
+	}
+
+	/**
+	 * Removes the given object from the list of the given cell
+	 */
+	private void removeFromCell(int cell, T object) {
+		ArrayList<T> list = this.cells[cell];
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == object) {
+				list.set(i, list.get(list.size() - 1));
+				list.remove(list.size() - 1);
+				return;
+			}
+		}
+	}
+
+}
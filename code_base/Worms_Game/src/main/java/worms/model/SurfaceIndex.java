@@ -0,0 +1,170 @@
+package worms.model;
+
+import java.util.Arrays;
+
+/**
+ * A class that holds, for every column of a terrain map, the runs of impassable pixels in that column.
+ *
+ * The top of every run is a surface on which an object can land. Looking for the first impassable pixel at or
+ * below a given row is a binary search over the runs of its column, so the cost does not depend on how far that
+ * pixel lies below the given row. Rows are counted as in the terrain map: row 0 is the top of the terrain.
+ */
+public class SurfaceIndex {
+
+	/**
+	 * Build the index of the given terrain map
+	 * @param 	terrain
+	 * 			the terrain map to be indexed
+	 * @post	| for each column, row: new.getFirstSolidRow(column, row) ==
+	 * 			|	min { r | r >= row && ! terrain.isPassable(column, r) }, or terrain.getHeight() if there is none
+	 */
+	public SurfaceIndex(TerrainMap terrain) {
+		this.width = terrain.getWidth();
+		this.height = terrain.getHeight();
+		this.runs = new int[this.width][];
+		int[] buffer = new int[this.height + 1];
+		for (int column = 0; column < this.width; column++) {
+			int length = 0;
+			int row = 0;
+			while (row < this.height) {
+				if (terrain.isPassable(column, row)) {
+					row++;
+					continue;
+				}
+				buffer[length++] = row;
+				while (row < this.height && ! terrain.isPassable(column, row))
+					row++;
+				buffer[length++] = row - 1;
+			}
+			this.runs[column] = Arrays.copyOf(buffer, length);
+		}
+	}
+
+	/**
+	 * Variables holding the dimensions of this index (in pixels)
+	 */
+	private final int width;
+	private final int height;
+
+	/**
+	 * The runs of impassable pixels by column, from the top down, as the first and the last row of every run
+	 */
+	private final int[][] runs;
+
+	/**
+	 * Returns the number of columns of this index
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Returns the number of rows of this index
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Returns the number of runs of impassable pixels in the given column (the number of surfaces in that column)
+	 * @param 	column
+	 * 			the column (0 is the left of the terrain)
+	 */
+	public int getNbRuns(int column) {
+		return this.runs[column].length / 2;
+	}
+
+	/**
+	 * Updates the runs of the columns of the given region, after pixels of the terrain map in that region have changed.
+	 * Only the rows of the region are read from the terrain map: the runs that cross its top or bottom keep their
+	 * parts outside the region, so the cost is proportional to the size of the region and the number of runs of its columns.
+	 * @param 	terrain
+	 * 			the terrain map that is indexed, with its new pixels
+	 * @param 	region
+	 * 			the region outside of which no pixel has changed
+	 * @post	| for each column, row: new.getFirstSolidRow(column, row) ==
+	 * 			|	min { r | r >= row && ! terrain.isPassable(column, r) }, or terrain.getHeight() if there is none
+	 */
+	public void update(TerrainMap terrain, TerrainRegion region) {
+		int firstRow = region.getFirstRow();
+		int lastRow = region.getLastRow();
+		for (int column = region.getFirstColumn(); column <= region.getLastColumn(); column++) {
+			int[] runs = this.runs[column];
+			// the region adds at most one run per two rows, and splits at most one run in two
+			int[] result = new int[runs.length + region.getHeight() + 3];
+			int length = 0;
+			int run = 0;
+			// the runs above the region
+			while (run < runs.length && runs[run + 1] < firstRow) {
+				result[length++] = runs[run];
+				result[length++] = runs[run + 1];
+				run += 2;
+			}
+			// the part above the region of a run that crosses its top
+			if (run < runs.length && runs[run] < firstRow)
+				length = appendRun(result, length, runs[run], firstRow - 1);
+			// the runs in the region
+			int row = firstRow;
+			while (row <= lastRow) {
+				if (terrain.isPassable(column, row)) {
+					row++;
+					continue;
+				}
+				int start = row;
+				while (row <= lastRow && ! terrain.isPassable(column, row))
+					row++;
+				length = appendRun(result, length, start, row - 1);
+			}
+			// the part below the region of a run that crosses its bottom, and the runs below the region
+			while (run < runs.length && runs[run + 1] <= lastRow)
+				run += 2;
+			if (run < runs.length && runs[run] <= lastRow) {
+				length = appendRun(result, length, lastRow + 1, runs[run + 1]);
+				run += 2;
+			}
+			for (; run < runs.length; run += 2)
+				length = appendRun(result, length, runs[run], runs[run + 1]);
+			this.runs[column] = Arrays.copyOf(result, length);
+		}
+	}
+
+	/**
+	 * Appends the run from the given first to the given last row to the given runs, joining it with the last run
+	 * if that ends right above it
+	 * @return	the new number of entries of the given runs
+	 */
+	private static int appendRun(int[] runs, int length, int first, int last) {
+		if (length > 0 && runs[length - 1] == first - 1) {
+			runs[length - 1] = last;
+			return length;
+		}
+		runs[length] = first;
+		runs[length + 1] = last;
+		return length + 2;
+	}
+
+	/**
+	 * Returns the first impassable pixel in the given column at or below the given row
+	 * @param 	column
+	 * 			the column (0 is the left of the terrain)
+	 * @param 	row
+	 * 			the row from which to look down (0 is the top of the terrain)
+	 * @return	| min { r | r >= row && the pixel at column and r is impassable }, or this.getHeight() if there is none
+	 */
+	public int getFirstSolidRow(int column, int row) {
+		int[] runs = this.runs[column];
+		// the first run that ends at or below the given row
+		int low = 0;
+		int high = runs.length / 2;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (runs[2 * middle + 1] < row)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		if (low == runs.length / 2)
+			return this.height;
+		return Math.max(runs[2 * low], row);
+	}
+}
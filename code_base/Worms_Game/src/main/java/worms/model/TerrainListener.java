@@ -0,0 +1,20 @@
+package worms.model;
+
+/**
+ * An interface for the objects that want to know when the terrain of a world changes (e.g. to redraw it).
+ *
+ * A listener is called after the terrain map and the structures derived from it are updated, on the thread that
+ * changed the terrain.
+ */
+public interface TerrainListener {
+
+	/**
+	 * Called when pixels of the terrain of the given world have changed
+	 * @param 	world
+	 * 			the world whose terrain has changed
+	 * @param 	region
+	 * 			the smallest region that holds every pixel that has changed
+	 */
+	public void terrainChanged(World world, TerrainRegion region);
+
+}
@@ -0,0 +1,34 @@
+package worms.model;
+
+/**
+ * An interface for the pixel map of the terrain of a world.
+ *
+ * The map uses the same layout as the passable map of a level:
+ * row 0 holds the pixels at the top of the terrain (largest y-coordinates),
+ * column 0 holds the pixels at the left of the terrain (smallest x-coordinates).
+ *
+ */
+public interface TerrainMap {
+
+	/**
+	 * Returns the number of columns (pixels in the x-direction) of this map
+	 */
+	public int getWidth();
+
+	/**
+	 * Returns the number of rows (pixels in the y-direction) of this map
+	 */
+	public int getHeight();
+
+	/**
+	 * Returns whether the pixel at the given column and row is passable
+	 * @param 	column
+	 * 			the column of the pixel to be checked (0 is the left of the terrain)
+	 * @param 	row
+	 * 			the row of the pixel to be checked (0 is the top of the terrain)
+	 * @throws	ArrayIndexOutOfBoundsException
+	 * 			| column < 0 || column >= getWidth() || row < 0 || row >= getHeight()
+	 */
+	public boolean isPassable(int column, int row) throws ArrayIndexOutOfBoundsException;
+
+}
@@ -0,0 +1,131 @@
+package worms.model;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A rectangle of pixels of a terrain map, given by its first and last column and row (both included).
+ * Rows are counted as in the terrain map: row 0 is the top of the terrain.
+ *
+ * A world publishes the region of the pixels that changed when its terrain changes (see World.carveCrater()),
+ * and the structures derived from the terrain are updated within such regions.
+ *
+ * @invar	| getFirstColumn() <= getLastColumn() && getFirstRow() <= getLastRow()
+ */
+@Value
+public class TerrainRegion {
+
+	/**
+	 * Create the region from the given first to the given last column and row
+	 * @post	| new.getFirstColumn() == firstColumn && new.getLastColumn() == lastColumn
+	 * @post	| new.getFirstRow() == firstRow && new.getLastRow() == lastRow
+	 * @throws	IllegalArgumentException
+	 * 			| firstColumn > lastColumn || firstRow > lastRow
+	 */
+	public TerrainRegion(int firstColumn, int firstRow, int lastColumn, int lastRow) throws IllegalArgumentException {
+		if (firstColumn > lastColumn || firstRow > lastRow)
+			throw new IllegalArgumentException("a terrain region holds at least one pixel");
+		this.firstColumn = firstColumn;
+		this.firstRow = firstRow;
+		this.lastColumn = lastColumn;
+		this.lastRow = lastRow;
+	}
+
+	/**
+	 * Variables holding the first and last column and row of this region
+	 */
+	private final int firstColumn;
+	private final int firstRow;
+	private final int lastColumn;
+	private final int lastRow;
+
+	/**
+	 * Returns the first (leftmost) column of this region
+	 */
+	public int getFirstColumn() {
+		return this.firstColumn;
+	}
+
+	/**
+	 * Returns the first (top) row of this region
+	 */
+	public int getFirstRow() {
+		return this.firstRow;
+	}
+
+	/**
+	 * Returns the last (rightmost) column of this region
+	 */
+	public int getLastColumn() {
+		return this.lastColumn;
+	}
+
+	/**
+	 * Returns the last (bottom) row of this region
+	 */
+	public int getLastRow() {
+		return this.lastRow;
+	}
+
+	/**
+	 * Returns the number of columns of this region
+	 * @return	| getLastColumn() - getFirstColumn() + 1
+	 */
+	public int getWidth() {
+		return this.lastColumn - this.firstColumn + 1;
+	}
+
+	/**
+	 * Returns the number of rows of this region
+	 * @return	| getLastRow() - getFirstRow() + 1
+	 */
+	public int getHeight() {
+		return this.lastRow - this.firstRow + 1;
+	}
+
+	/**
+	 * Checks whether the given pixel lies in this region
+	 * @return	| getFirstColumn() <= column && column <= getLastColumn() && getFirstRow() <= row && row <= getLastRow()
+	 */
+	public boolean contains(int column, int row) {
+		return this.firstColumn <= column && column <= this.lastColumn && this.firstRow <= row && row <= this.lastRow;
+	}
+
+	/**
+	 * Returns this region, grown by the given number of columns and rows on every side, within a map of the given size
+	 * @param 	columns
+	 * 			the number of columns added on the left and on the right
+	 * @param 	rows
+	 * 			the number of rows added at the top and at the bottom
+	 * @param 	mapWidth
+	 * 			the number of columns of the map
+	 * @param 	mapHeight
+	 * 			the number of rows of the map
+	 * @pre		| this lies in the map
+	 * @return	| result.getFirstColumn() == max(0, getFirstColumn() - columns)
+	 * 			|	&& result.getLastColumn() == min(mapWidth - 1, getLastColumn() + columns)
+	 * @return	| result.getFirstRow() == max(0, getFirstRow() - rows) && result.getLastRow() == min(mapHeight - 1, getLastRow() + rows)
+	 */
+	public TerrainRegion grow(int columns, int rows, int mapWidth, int mapHeight) {
+		return new TerrainRegion(Math.max(0, this.firstColumn - columns), Math.max(0, this.firstRow - rows),
+				Math.min(mapWidth - 1, this.lastColumn + columns), Math.min(mapHeight - 1, this.lastRow + rows));
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (! (other instanceof TerrainRegion))
+			return false;
+		TerrainRegion region = (TerrainRegion) other;
+		return this.firstColumn == region.firstColumn && this.firstRow == region.firstRow
+				&& this.lastColumn == region.lastColumn && this.lastRow == region.lastRow;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((this.firstColumn * 31 + this.firstRow) * 31 + this.lastColumn) * 31 + this.lastRow;
+	}
+
+	@Override
+	public String toString() {
+		return "columns " + this.firstColumn + ".." + this.lastColumn + ", rows " + this.firstRow + ".." + this.lastRow;
+	}
+}
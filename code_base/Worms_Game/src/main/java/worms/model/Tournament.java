@@ -0,0 +1,434 @@
+package worms.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import worms.gui.Level;
+import worms.model.programs.ParseOutcome;
+import worms.model.programs.ParseOutcome.Success;
+
+/**
+ * A tournament that ranks programs by letting them play many matches against each other, without a GUI.
+ *
+ * Every program gets a team with the same number of worms. A match is played in its own world, with its own
+ * facade (and so its own program cache and parser), its own copy of the terrain and a random generator made
+ * from the seed of the match. Nothing is shared between matches but the program texts and the passable map,
+ * which are only read, so the matches of a tournament are played in parallel on a fork-join pool. The seeds
+ * of the matches only depend on the seed of the tournament, so the same seed gives the same results, whatever
+ * the number of threads.
+ */
+public class Tournament {
+
+	/**
+	 * The largest number of programs in a tournament (a world has at most 10 teams)
+	 */
+	public static final int MAX_NB_PROGRAMS = 10;
+
+	/**
+	 * Create a tournament between the given programs, in worlds with the given dimensions and passable map
+	 * @param 	programs
+	 * 			the texts of the programs, by name
+	 * @param 	width
+	 * 			the width of the worlds (in meters)
+	 * @param 	height
+	 * 			the height of the worlds (in meters)
+	 * @param 	passableMap
+	 * 			the passable map of the worlds (it is not changed, every match gets its own terrain)
+	 * @post	| new.getProgramNames() == programs.keySet() (in the same order)
+	 * @post	| new.getNbWormsPerProgram() == 2 && new.getMaxNbTurns() == 200
+	 * @throws	IllegalArgumentException
+	 * 			| programs.isEmpty() || programs.size() > MAX_NB_PROGRAMS
+	 * @throws	IllegalArgumentException
+	 * 			if one of the programs can not be parsed, or is not well formed
+	 */
+	public Tournament(Map<String, String> programs, double width, double height, boolean[][] passableMap)
+			throws IllegalArgumentException {
+		if (programs.isEmpty() || programs.size() > MAX_NB_PROGRAMS)
+			throw new IllegalArgumentException("a tournament needs between 1 and " + MAX_NB_PROGRAMS + " programs");
+		ProgramCache cache = new ProgramCache();
+		for (Map.Entry<String, String> program : programs.entrySet()) {
+			ParseOutcome<?> outcome = cache.parse(program.getValue(), null);
+			if (! outcome.isSuccess())
+				throw new IllegalArgumentException("program " + program.getKey() + " can not be parsed: " + outcome.getResult());
+			if (! ((Program) outcome.getResult()).isValidProgram())
+				throw new IllegalArgumentException("program " + program.getKey() + " is not well formed");
+		}
+		this.programs = Collections.unmodifiableMap(new LinkedHashMap<String, String>(programs));
+		this.width = width;
+		this.height = height;
+		this.passableMap = passableMap;
+	}
+
+	/**
+	 * Create a tournament between the programs in the given files, named after their files
+	 * @effect	| this(texts of the files by file name, width, height, passableMap)
+	 * @throws	IOException
+	 * 			if one of the files can not be read
+	 */
+	public static Tournament fromFiles(List<File> files, double width, double height, boolean[][] passableMap)
+			throws IOException, IllegalArgumentException {
+		Map<String, String> programs = new LinkedHashMap<String, String>();
+		for (File file : files)
+			programs.put(file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		return new Tournament(programs, width, height, passableMap);
+	}
+
+	// ----------------------- Settings -----------------------------------
+	/**
+	 * Variable holds the texts of the programs, by name
+	 */
+	private final Map<String, String> programs;
+
+	/**
+	 * Returns the names of the programs of this tournament
+	 */
+	public List<String> getProgramNames() {
+		return new ArrayList<String>(this.programs.keySet());
+	}
+
+	/**
+	 * Variables hold the dimensions and the passable map of the worlds of this tournament
+	 */
+	private final double width;
+	private final double height;
+	private final boolean[][] passableMap;
+
+	/**
+	 * Variable holds the number of worms every program gets in a match
+	 */
+	private int nbWormsPerProgram = 2;
+
+	/**
+	 * Returns the number of worms every program gets in a match
+	 */
+	public int getNbWormsPerProgram() {
+		return this.nbWormsPerProgram;
+	}
+
+	/**
+	 * Sets the number of worms every program gets in a match
+	 * @post	| new.getNbWormsPerProgram() == nbWormsPerProgram
+	 * @throws	IllegalArgumentException
+	 * 			| nbWormsPerProgram < 1
+	 */
+	public void setNbWormsPerProgram(int nbWormsPerProgram) throws IllegalArgumentException {
+		if (nbWormsPerProgram < 1)
+			throw new IllegalArgumentException("every program needs at least one worm");
+		this.nbWormsPerProgram = nbWormsPerProgram;
+	}
+
+	/**
+	 * Variable holds the largest number of turns of a match, after which it is a draw
+	 */
+	private int maxNbTurns = 200;
+
+	/**
+	 * Returns the largest number of turns of a match, after which it is a draw
+	 */
+	public int getMaxNbTurns() {
+		return this.maxNbTurns;
+	}
+
+	/**
+	 * Sets the largest number of turns of a match
+	 * @post	| new.getMaxNbTurns() == maxNbTurns
+	 * @throws	IllegalArgumentException
+	 * 			| maxNbTurns < 1
+	 */
+	public void setMaxNbTurns(int maxNbTurns) throws IllegalArgumentException {
+		if (maxNbTurns < 1)
+			throw new IllegalArgumentException("a match has at least one turn");
+		this.maxNbTurns = maxNbTurns;
+	}
+
+	// ----------------------- Playing ------------------------------------
+	/**
+	 * Returns the name of the team of the program with the given index (team names may only contain letters)
+	 */
+	private static String getTeamName(int index) {
+		return "Team" + (char) ('A' + index);
+	}
+
+	/**
+	 * Plays one match in a new world, made with the given seed
+	 * @param 	seed
+	 * 			the seed of the random generator of the world (which places the worms and food)
+	 * @return	the result of the match
+	 */
+	public MatchResult playMatch(long seed) {
+		long start = System.nanoTime();
+		Facade facade = new Facade();
+		World world = facade.createWorld(this.width, this.height, this.passableMap, new Random(seed));
+		HeadlessActionHandler handler = new HeadlessActionHandler(facade, world);
+		List<String> names = this.getProgramNames();
+		Map<Team, String> programNames = new HashMap<Team, String>();
+		for (int index = 0; index < names.size(); index++) {
+			programNames.put(world.addEmptyTeam(getTeamName(index)), names.get(index));
+			Program program = ((Success) facade.parseProgram(this.programs.get(names.get(index)), handler)).getResult();
+			world.addNewWorms(this.nbWormsPerProgram, program);
+		}
+		HeadlessGame game = new HeadlessGame(world, handler);
+		game.play(this.maxNbTurns);
+
+		String winner = null;
+		if (game.isFinished() && world.getWinningTeam() != null)
+			winner = programNames.get(world.getWinningTeam());
+		return new MatchResult(seed, winner, game.getNbTurns(), world.getAllWormsProtected().size(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays the given number of matches on the common fork-join pool
+	 * @effect	| this.play(nbMatches, seed, ForkJoinPool.commonPool())
+	 */
+	public Result play(int nbMatches, long seed) {
+		return this.play(nbMatches, seed, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Plays the given number of matches on the given pool, every match in a task of its own
+	 * @param 	nbMatches
+	 * 			the number of matches to be played
+	 * @param 	seed
+	 * 			the seed from which the seeds of the matches are drawn
+	 * @param 	pool
+	 * 			the pool on which the matches are played
+	 * @return	the results of the matches, in the order of their seeds
+	 * 			| result.getMatches().get(i) == this.playMatch(i-th seed drawn from new Random(seed))
+	 * @throws	IllegalStateException
+	 * 			if a match throws an exception (which is the cause of this exception)
+	 */
+	public Result play(int nbMatches, long seed, ForkJoinPool pool) throws IllegalStateException {
+		Random seeds = new Random(seed);
+		List<Callable<MatchResult>> tasks = new ArrayList<Callable<MatchResult>>(nbMatches);
+		for (int match = 0; match < nbMatches; match++) {
+			final long matchSeed = seeds.nextLong();
+			tasks.add(new Callable<MatchResult>() {
+				@Override
+				public MatchResult call() {
+					return playMatch(matchSeed);
+				}
+			});
+		}
+		long start = System.nanoTime();
+		List<MatchResult> matches = new ArrayList<MatchResult>(nbMatches);
+		try {
+			for (Future<MatchResult> future : pool.invokeAll(tasks))
+				matches.add(future.get());
+		}
+		catch (ExecutionException exc) {
+			throw new IllegalStateException("a match of the tournament failed", exc.getCause());
+		}
+		catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("the tournament was interrupted", exc);
+		}
+		return new Result(this.getProgramNames(), matches, System.nanoTime() - start);
+	}
+
+	// ----------------------- Results ------------------------------------
+	/**
+	 * The result of one match of a tournament
+	 */
+	public static class MatchResult {
+
+		private MatchResult(long seed, String winner, int nbTurns, int nbWormsLeft, long nanos) {
+			this.seed = seed;
+			this.winner = winner;
+			this.nbTurns = nbTurns;
+			this.nbWormsLeft = nbWormsLeft;
+			this.nanos = nanos;
+		}
+
+		private final long seed;
+		private final String winner;
+		private final int nbTurns;
+		private final int nbWormsLeft;
+		private final long nanos;
+
+		/**
+		 * Returns the seed of the world of this match
+		 */
+		public long getSeed() {
+			return this.seed;
+		}
+
+		/**
+		 * Returns the name of the program that won this match (null if it is a draw)
+		 */
+		public String getWinner() {
+			return this.winner;
+		}
+
+		/**
+		 * Returns the number of turns played in this match
+		 */
+		public int getNbTurns() {
+			return this.nbTurns;
+		}
+
+		/**
+		 * Returns the number of worms left at the end of this match
+		 */
+		public int getNbWormsLeft() {
+			return this.nbWormsLeft;
+		}
+
+		/**
+		 * Returns the wall time this match took, including making its world (in nanoseconds)
+		 */
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		@Override
+		public String toString() {
+			return "seed " + this.seed + ": " + ((this.winner == null) ? "draw" : this.winner) + " after "
+					+ this.nbTurns + " turns (" + this.nanos / 1000000 + " ms)";
+		}
+	}
+
+	/**
+	 * The results of all matches of a tournament
+	 */
+	public static class Result {
+
+		private Result(List<String> programNames, List<MatchResult> matches, long wallNanos) {
+			this.programNames = programNames;
+			this.matches = Collections.unmodifiableList(matches);
+			this.wallNanos = wallNanos;
+		}
+
+		private final List<String> programNames;
+		private final List<MatchResult> matches;
+		private final long wallNanos;
+
+		/**
+		 * Returns the results of the matches, in the order of their seeds
+		 */
+		public List<MatchResult> getMatches() {
+			return this.matches;
+		}
+
+		/**
+		 * Returns the number of matches won by the program with the given name
+		 */
+		public int getNbWins(String programName) {
+			int result = 0;
+			for (MatchResult match : this.matches)
+				if (programName.equals(match.getWinner()))
+					result++;
+			return result;
+		}
+
+		/**
+		 * Returns the fraction of the matches won by the program with the given name
+		 * @return	| this.getNbWins(programName) / (double) this.getMatches().size()
+		 */
+		public double getWinRate(String programName) {
+			return this.matches.isEmpty() ? 0 : this.getNbWins(programName) / (double) this.matches.size();
+		}
+
+		/**
+		 * Returns the number of matches without a winner
+		 */
+		public int getNbDraws() {
+			int result = 0;
+			for (MatchResult match : this.matches)
+				if (match.getWinner() == null)
+					result++;
+			return result;
+		}
+
+		/**
+		 * Returns the mean number of turns of the matches
+		 */
+		public double getMeanNbTurns() {
+			long total = 0;
+			for (MatchResult match : this.matches)
+				total += match.getNbTurns();
+			return this.matches.isEmpty() ? 0 : total / (double) this.matches.size();
+		}
+
+		/**
+		 * Returns the sum of the wall times of the matches (in nanoseconds)
+		 */
+		public long getTotalMatchNanos() {
+			long result = 0;
+			for (MatchResult match : this.matches)
+				result += match.getNanos();
+			return result;
+		}
+
+		/**
+		 * Returns the wall time of the whole tournament (in nanoseconds)
+		 */
+		public long getWallNanos() {
+			return this.wallNanos;
+		}
+
+		/**
+		 * Returns a report of these results: a line per program with its wins and win rate, the best first,
+		 * followed by the draws, the mean number of turns, and the time of the matches and of the tournament
+		 */
+		public List<String> getReport() {
+			List<String> names = new ArrayList<String>(this.programNames);
+			Collections.sort(names, new Comparator<String>() {
+				@Override
+				public int compare(String first, String second) {
+					return Integer.compare(getNbWins(second), getNbWins(first));
+				}
+			});
+			List<String> result = new ArrayList<String>();
+			result.add(String.format("%-28s %8s %8s", "program", "wins", "rate"));
+			for (String name : names)
+				result.add(String.format("%-28s %8d %7.1f%%", name, this.getNbWins(name), 100 * this.getWinRate(name)));
+			result.add(String.format("%-28s %8d", "draws", this.getNbDraws()));
+			result.add(String.format("%d matches, %.1f turns per match", this.matches.size(), this.getMeanNbTurns()));
+			result.add(String.format("match time %.1f ms, wall time %.1f ms (x%.2f)", this.getTotalMatchNanos() / 1e6,
+					this.wallNanos / 1e6, this.getTotalMatchNanos() / (double) Math.max(1, this.wallNanos)));
+			return result;
+		}
+	}
+
+	// ----------------------- Command line -------------------------------
+	/**
+	 * Plays a tournament between program files on a level and prints its report.
+	 * Arguments: the name of a level (e.g. Simple), the number of matches, the seed, and the program files.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.err.println("usage: Tournament <level> <number of matches> <seed> <program file>...");
+			return;
+		}
+		Level level = null;
+		for (Level available : Level.getAvailableLevels())
+			if (available.getName().equals(args[0]))
+				level = available;
+		if (level == null) {
+			System.err.println("unknown level " + args[0]);
+			return;
+		}
+		level.load();
+		List<File> files = new ArrayList<File>();
+		for (int index = 3; index < args.length; index++)
+			files.add(new File(args[index]));
+		Tournament tournament = fromFiles(files, level.getWorldWidth(), level.getWorldHeight(), level.getPassableMap());
+		Result result = tournament.play(Integer.parseInt(args[1]), Long.parseLong(args[2]));
+		for (String line : result.getReport())
+			System.out.println(line);
+	}
+}
@@ -0,0 +1,271 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A trace of what happens in a world, for debugging.
+ *
+ * Every message has a category and a level, and is only recorded if the level is switched on for its category
+ * (by default nothing is). A message that is not recorded costs one array lookup: the message itself is a constant
+ * string and its argument an object that already exists, so nothing is formatted or allocated. Recorded messages
+ * are kept in a ring buffer with a fixed number of entries, the oldest messages are overwritten by new ones. The
+ * argument of a recorded message is turned into a string at once, so the trace keeps no references to the objects
+ * of the world (which may change or be terminated before the trace is dumped).
+ *
+ * Recording is lock-free and may be done by several threads at once: a thread takes the next sequence number from
+ * an atomic counter and stores an immutable entry in the slot of that number, with a compare-and-set on an atomic
+ * array. A thread that has been overtaken by a whole turn of the ring (by a thread with a later sequence number
+ * for the same slot) does not store its entry, so a slot only ever moves to a newer message. A dump reads every
+ * entry in one atomic get and only keeps the ones with the sequence number it expects in that slot.
+ */
+public class Trace {
+
+	/**
+	 * The levels of messages, from the most to the least important.
+	 * Switching a level on for a category switches on all more important levels as well.
+	 */
+	public static enum Level {
+		ERROR, WARNING, INFO, DEBUG
+	}
+
+	/**
+	 * The categories of messages
+	 */
+	public static enum Category {
+		/**
+		 * The execution of programs (turns, budgets, errors)
+		 */
+		PROGRAM,
+		/**
+		 * The statements executed by programs
+		 */
+		STATEMENT,
+		/**
+		 * The actions of worms asked for by programs
+		 */
+		ACTION
+	}
+
+	/**
+	 * The number of messages kept by default
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Create a trace that keeps the default number of messages
+	 * @effect	| this(DEFAULT_CAPACITY)
+	 */
+	public Trace() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a trace that keeps the given number of messages (rounded up to a power of two), with every level switched off
+	 * @param 	capacity
+	 * 			the number of messages kept
+	 * @post	| new.getCapacity() >= capacity
+	 * @post	| for each category: new.getLevel(category) == null
+	 * @throws	IllegalArgumentException
+	 * 			| capacity < 1 || capacity > (1 << 30)
+	 */
+	public Trace(int capacity) throws IllegalArgumentException {
+		if (capacity < 1 || capacity > (1 << 30))
+			throw new IllegalArgumentException("a trace must keep between 1 and 2^30 messages");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.entries = new AtomicReferenceArray<Entry>(size);
+		this.mask = size - 1;
+		for (int index = 0; index < this.levels.length; index++)
+			this.levels[index] = -1;
+	}
+
+	// ----------------------- Switches -----------------------------------
+	/**
+	 * The least important level switched on, by category (as the ordinal of the level, -1 if none is).
+	 * Switches are read without synchronization: a thread may see a change of a switch somewhat later.
+	 */
+	private final int[] levels = new int[Category.values().length];
+
+	/**
+	 * Switches on the messages of the given category with the given level or a more important one, and switches
+	 * off the others of that category
+	 * @param 	category
+	 * 			the category of the messages
+	 * @param 	level
+	 * 			the least important level of the messages to be recorded, null to record none
+	 * @post	| new.getLevel(category) == level
+	 */
+	public void setLevel(Category category, Level level) {
+		this.levels[category.ordinal()] = (level == null) ? -1 : level.ordinal();
+	}
+
+	/**
+	 * Switches on the messages of every category with the given level or a more important one
+	 * @effect	| for each category: this.setLevel(category, level)
+	 */
+	public void setLevel(Level level) {
+		for (Category category : Category.values())
+			this.setLevel(category, level);
+	}
+
+	/**
+	 * Returns the least important level of the messages of the given category that are recorded (null if none are)
+	 */
+	public Level getLevel(Category category) {
+		int level = this.levels[category.ordinal()];
+		return (level < 0) ? null : Level.values()[level];
+	}
+
+	/**
+	 * Returns whether messages of the given category and level are recorded
+	 * @return	| result == (this.getLevel(category) != null && level.compareTo(this.getLevel(category)) <= 0)
+	 */
+	public boolean isEnabled(Category category, Level level) {
+		return level.ordinal() <= this.levels[category.ordinal()];
+	}
+
+	// ----------------------- Recording ----------------------------------
+	/**
+	 * Records the given message, if its category and level are switched on
+	 * @param 	category
+	 * 			the category of the message
+	 * @param 	level
+	 * 			the level of the message
+	 * @param 	message
+	 * 			the message (a constant string, so recording it does not build a string)
+	 */
+	public void log(Category category, Level level, String message) {
+		if (this.isEnabled(category, level))
+			this.record(category, level, message, null, 0, false);
+	}
+
+	/**
+	 * Records the given message with the given argument, if its category and level are switched on.
+	 * The argument is turned into a string (with toString()) only if the message is recorded.
+	 * @param 	argument
+	 * 			the object the message is about
+	 * @see		log(Category, Level, String)
+	 */
+	public void log(Category category, Level level, String message, Object argument) {
+		if (this.isEnabled(category, level))
+			this.record(category, level, message, (argument == null) ? null : argument.toString(), 0, false);
+	}
+
+	/**
+	 * Records the given message with the given value, if its category and level are switched on.
+	 * @param 	value
+	 * 			the number the message is about (kept without boxing it)
+	 * @see		log(Category, Level, String)
+	 */
+	public void log(Category category, Level level, String message, double value) {
+		if (this.isEnabled(category, level))
+			this.record(category, level, message, null, value, true);
+	}
+
+	/**
+	 * The number of messages recorded so far, the next message gets this number as its sequence number
+	 */
+	private final AtomicLong nbRecorded = new AtomicLong();
+
+	/**
+	 * Returns the number of messages recorded by this trace so far (including the ones that have been overwritten)
+	 */
+	public long getNbRecorded() {
+		return this.nbRecorded.get();
+	}
+
+	/**
+	 * The slots of the ring buffer, the message with sequence number n is kept in slot n & mask (null if none is)
+	 */
+	private final AtomicReferenceArray<Entry> entries;
+
+	private final int mask;
+
+	/**
+	 * Returns the number of messages kept by this trace
+	 */
+	public int getCapacity() {
+		return this.entries.length();
+	}
+
+	private void record(Category category, Level level, String message, String argument, double value, boolean hasValue) {
+		long sequence = this.nbRecorded.getAndIncrement();
+		Entry entry = new Entry(sequence, System.nanoTime(), category, level, message, argument, value, hasValue);
+		int slot = (int) (sequence & this.mask);
+		while (true) {
+			Entry old = this.entries.get(slot);
+			if (old != null && old.sequence > sequence)
+				return; // a later message has been stored in this slot already
+			if (this.entries.compareAndSet(slot, old, entry))
+				return;
+		}
+	}
+
+	/**
+	 * One recorded message. An entry is immutable, so a thread that reads it from the ring buffer sees all of it.
+	 */
+	private static class Entry {
+
+		private Entry(long sequence, long time, Category category, Level level, String message, String argument,
+				double value, boolean hasValue) {
+			this.sequence = sequence;
+			this.time = time;
+			this.category = category;
+			this.level = level;
+			this.message = message;
+			this.argument = argument;
+			this.value = value;
+			this.hasValue = hasValue;
+		}
+
+		private final long sequence;
+		private final long time;
+		private final Category category;
+		private final Level level;
+		private final String message;
+		private final String argument;
+		private final double value;
+		private final boolean hasValue;
+	}
+
+	// ----------------------- Dumping ------------------------------------
+	/**
+	 * Returns the messages kept by this trace, from the oldest to the newest, each as
+	 * "sequence number, time (in nanoseconds), level, category: message argument".
+	 * Messages that are still being stored while this trace is dumped, or that were overwritten by newer ones
+	 * in the meantime, are left out.
+	 */
+	public List<String> dump() {
+		long end = this.nbRecorded.get();
+		long start = Math.max(0, end - this.entries.length());
+		List<String> result = new ArrayList<String>((int) (end - start));
+		for (long sequence = start; sequence < end; sequence++) {
+			Entry entry = this.entries.get((int) (sequence & this.mask));
+			if (entry == null || entry.sequence != sequence)
+				continue;
+			StringBuilder line = new StringBuilder();
+			line.append(sequence).append(' ').append(entry.time).append(' ').append(entry.level).append(' ')
+					.append(entry.category).append(": ").append(entry.message);
+			if (entry.argument != null)
+				line.append(' ').append(entry.argument);
+			if (entry.hasValue)
+				line.append(' ').append(entry.value);
+			result.add(line.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Forgets the messages kept by this trace (the switches stay as they are).
+	 * Messages that are recorded while this trace is cleared may be kept.
+	 * @post	| new.dump().isEmpty()
+	 */
+	public void clear() {
+		for (int slot = 0; slot < this.entries.length(); slot++)
+			this.entries.set(slot, null);
+	}
+}
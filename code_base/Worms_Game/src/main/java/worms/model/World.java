@@ -1,7 +1,13 @@
 package worms.model;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import worms.model.exceptions.IllegalNameException;
 import worms.model.exceptions.IllegalPositionException;
 
@@ -20,9 +26,32 @@ import worms.model.exceptions.IllegalPositionException;
 public class World {
 	
 	/**
-	 * Variable used to make the GUI go faster.
+	 * Variable used to make the GUI go faster (the number of pixels skipped between two samples of the terrain).
+	 * Every world has its own, so worlds with different settings can be used at the same time.
 	 */
-	protected static int testScalar= 1; // 1 used for testing, to make it faster use 5
+	private int testScalar= 1; // 1 used for testing, to make it faster use 5
+	
+	/**
+	 * Returns the number of pixels between two samples of the terrain in the sweeps of this world
+	 */
+	public int getTestScalar() {
+		return this.testScalar;
+	}
+	
+	/**
+	 * Sets the number of pixels between two samples of the terrain in the sweeps of this world.
+	 * Any other value than 1 makes the sweeps coarser and faster, and turns off the distance field shortcuts.
+	 * @param 	testScalar
+	 * 			the number of pixels between two samples
+	 * @post	| new.getTestScalar() == testScalar
+	 * @throws	IllegalArgumentException
+	 * 			| testScalar < 1
+	 */
+	public void setTestScalar(int testScalar) throws IllegalArgumentException {
+		if (testScalar < 1)
+			throw new IllegalArgumentException("the test scalar must be at least 1");
+		this.testScalar = testScalar;
+	}
 	
 	/**
 	 * Constructor for this World
@@ -37,25 +66,49 @@ public class World {
 	 * 			a random object of the class Random, used to calculate Random numbers
 	 * @pre		| World.isValidWidth()
 	 * @pre		| World.isValidHeight()
+	 * @effect	| this(width, height, BitTerrainMap.fromPassableMap(impassablePositions), random)
+	 * @post 	| Arrays.deepEquals(new.getImpassablePositions(), impassablePositions)
+	 */
+	public World(double width, double height, boolean[][] impassablePositions,Random random){
+		this(width, height, BitTerrainMap.fromPassableMap(impassablePositions), random);
+	}
+	
+	/**
+	 * Constructor for this World
+	 * 
+	 * @param 	width
+	 * 			The Width of this world in meters (double)
+	 * @param 	height
+	 * 			The Height of this world in meters (double)
+	 * @param 	terrain
+	 * 			The terrain map of this world
+	 * @param 	random
+	 * 			a random object of the class Random, used to calculate Random numbers
+	 * @pre		| World.isValidWidth()
+	 * @pre		| World.isValidHeight()
 	 * @effect	| new.getWidth() == width
 	 * @effect	| new.getHeight() == height
-	 * @effect 	| new.getImpassablePositions() == impassablePositions
+	 * @effect 	| new.getTerrainMap() == terrain
 	 * @effect 	| new.getActiveProjectile() == null
-	 * @effect	| new.getPixelWidth() == width/(double)impassablePositions[0].length
-	 * @effect	| new.getPixelHeight() == height/(double)impassablePositions.length;
+	 * @effect	| new.getPixelWidth() == width/(double)terrain.getWidth()
+	 * @effect	| new.getPixelHeight() == height/(double)terrain.getHeight();
+	 * @post	| if (random != null) new.getRandom() == random
 	 */
-	public World(double width, double height, boolean[][] impassablePositions,Random random){
+	public World(double width, double height, TerrainMap terrain, Random random){
 		assert isValidWidth(width);
 		this.width = width;
 		
 		assert isValidHeight(height);
 		this.height = height;
 		
-		this.pixelwidth = width/(double)impassablePositions[0].length ;  // # meters per pixel (width)
-		this.pixelheight = height/(double)impassablePositions.length; 	 // # meters per pixel (height)
+		this.pixelwidth = width/(double)terrain.getWidth() ;  // # meters per pixel (width)
+		this.pixelheight = height/(double)terrain.getHeight(); 	 // # meters per pixel (height)
 		//isGameFinished is automatically initialized on false
-		this.setImpassablePositions(impassablePositions);
+		this.setTerrainMap(terrain);
 		this.ActiveProjectile = null;
+		this.wormGrid = new SpatialGrid<>(width, height);
+		this.foodGrid = new SpatialGrid<>(width, height);
+		this.random = (random == null) ? new Random() : random;
 	}
 	
 	
@@ -87,6 +140,19 @@ public class World {
 	}
 	
 	
+	/**
+	 * Variable holding the random generator of this world
+	 */
+	private final Random random;
+	
+	/**
+	 * Returns the random generator of this world, used to place new objects
+	 */
+	public Random getRandom() {
+		return this.random;
+	}
+	
+	
 	// ----------- WIDTH ------------------------
 	/**
 	 * Variable holds the Width of this world
@@ -137,14 +203,75 @@ public class World {
 	
 	// ----------- IMPASSABLE POSITIONS ---------
 	/**
-	 * Variable holds the map of impassable positions of this world
+	 * Variable holds the terrain map of this world
+	 */
+	private TerrainMap terrain;
+	
+	/**
+	 * Returns the terrain map of this world
+	 */
+	public TerrainMap getTerrainMap() {
+		return this.terrain;
+	}
+	
+	/**
+	 * Sets the terrain map of this world
+	 * @param 	terrain
+	 * 			the terrain map to be set
+	 * @post	| new.getTerrainMap() == terrain
+	 * @effect	the index of the surfaces of the terrain map is built
+	 * 			| new.getSurfaceIndex() == new SurfaceIndex(terrain)
+	 */
+	public void setTerrainMap(TerrainMap terrain) {
+		this.terrain = terrain;
+		this.impassablePositions = null;
+		this.distanceField = null;
+		this.surfaceIndex = new SurfaceIndex(terrain);
+		this.freePositionSampler = null;
+		this.nbChanges++;
+	}
+	
+	/**
+	 * Variable caches the distance field of the terrain map, built on first use
+	 */
+	private DistanceField distanceField;
+	
+	/**
+	 * Returns the distance field of the terrain map of this world
+	 * @return	| result.getDistance(column, row) is the distance (in meters) from that pixel to the nearest impassable pixel
+	 */
+	protected DistanceField getDistanceField() {
+		if (this.distanceField == null)
+			this.distanceField = new DistanceField(this.terrain, this.pixelwidth, this.pixelheight);
+		return this.distanceField;
+	}
+	
+	/**
+	 * Variable holds the index of the surfaces in every column of the terrain map, built when the terrain map is set
+	 */
+	private SurfaceIndex surfaceIndex;
+	
+	/**
+	 * Returns the index of the surfaces in every column of the terrain map of this world
+	 * @return	| result.getFirstSolidRow(column, row) is the first impassable pixel in that column at or below that row
+	 */
+	protected SurfaceIndex getSurfaceIndex() {
+		return this.surfaceIndex;
+	}
+	
+	/**
+	 * Variable caches the map of impassable positions of this world, built from the terrain map on first use
 	 */
 	private boolean[][] impassablePositions;
 	
 	/**
 	 * Returns the map of impassable positions of this world
+	 * The matrix is only built (from the terrain map) when it is asked for, and is not used by the world itself.
+	 * @return	| for each column, row: result[row][column] == this.getTerrainMap().isPassable(column, row)
 	 */
 	public boolean[][] getImpassablePositions() {
+		if (this.impassablePositions == null)
+			this.impassablePositions = BitTerrainMap.toPassableMap(this.terrain);
 		return this.impassablePositions;
 	}
 
@@ -152,10 +279,101 @@ public class World {
 	 * Sets the map of impassable positions 
 	 * @param 	impassablePositions
 	 * 			the map of impassable positions to be set
-	 * @post	| new.getImpassablePositions() == impassablePositions
+	 * @effect	| this.setTerrainMap(BitTerrainMap.fromPassableMap(impassablePositions))
+	 * @post	| Arrays.deepEquals(new.getImpassablePositions(), impassablePositions)
+	 * 			The given matrix is not kept: later changes to it do not change the terrain of this world.
 	 */
 	public void setImpassablePositions(boolean[][] impassablePositions) {
-		this.impassablePositions = impassablePositions;
+		this.setTerrainMap(BitTerrainMap.fromPassableMap(impassablePositions));
+	}
+	
+	/**
+	 * The distance (in meters) up to which the distance field stays exact when the terrain changes.
+	 * Objects with a larger radius are still checked correctly near changed terrain, by scanning their pixels.
+	 */
+	public static final double EXACT_CLEARANCE = 2.0;
+	
+	/**
+	 * Carves a crater with the given center and radius in the terrain of this world: every impassable pixel whose
+	 * center lies within the radius becomes passable.
+	 * The structures derived from the terrain map (the distance field, the surface index, the candidates of free positions
+	 * and the map of impassable positions) are only updated near the crater, so the cost depends on the size of the
+	 * crater, not on the size of the world. The terrain listeners of this world are told which region has changed.
+	 * @param 	x
+	 * 			the x-coordinate of the center of the crater (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the center of the crater (in meters)
+	 * @param 	radius
+	 * 			the radius of the crater (in meters)
+	 * @post	| for each pixel (column, row) whose center lies within radius of (x, y): new.getTerrainMap().isPassable(column, row)
+	 * @post	| for each other pixel (column, row): new.getTerrainMap().isPassable(column, row) == this.getTerrainMap().isPassable(column, row)
+	 * @effect	| if (result != null) for each listener: listener.terrainChanged(this, result)
+	 * @return	the smallest region that holds every pixel that has changed, or null if no pixel has changed
+	 */
+	public TerrainRegion carveCrater(double x, double y, double radius) {
+		if (! (radius > 0))
+			return null;
+		int height = this.terrain.getHeight();
+		int firstColumn = Math.max(0, (int) Math.floor((x - radius) / this.pixelwidth));
+		int lastColumn = Math.min(this.terrain.getWidth() - 1, (int) Math.floor((x + radius) / this.pixelwidth));
+		int firstRow = Math.max(0, height - 1 - (int) Math.floor((y + radius) / this.pixelheight));
+		int lastRow = Math.min(height - 1, height - 1 - (int) Math.floor((y - radius) / this.pixelheight));
+		if (firstColumn > lastColumn || firstRow > lastRow)
+			return null;
+		
+		if (! (this.terrain instanceof BitTerrainMap))
+			this.terrain = BitTerrainMap.fromPassableMap(BitTerrainMap.toPassableMap(this.terrain));
+		BitTerrainMap terrain = (BitTerrainMap) this.terrain;
+		TerrainRegion changed = null;
+		for (int row = firstRow; row <= lastRow; row++) {
+			double dy = (height - row - 0.5) * this.pixelheight - y;
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				double dx = (column + 0.5) * this.pixelwidth - x;
+				if (dx * dx + dy * dy > radius * radius || terrain.isPassable(column, row))
+					continue;
+				terrain.setPassable(column, row, true);
+				if (this.impassablePositions != null)
+					this.impassablePositions[row][column] = true;
+				changed = (changed == null) ? new TerrainRegion(column, row, column, row)
+						: new TerrainRegion(Math.min(changed.getFirstColumn(), column), changed.getFirstRow(),
+								Math.max(changed.getLastColumn(), column), row);
+			}
+		}
+		if (changed == null)
+			return null;
+		
+		this.surfaceIndex.update(terrain, changed);
+		if (this.distanceField != null) {
+			TerrainRegion affected = this.distanceField.update(terrain, changed, EXACT_CLEARANCE);
+			if (this.freePositionSampler != null)
+				this.freePositionSampler.update(affected);
+		}
+		else
+			this.freePositionSampler = null;
+		this.nbChanges++;
+		for (TerrainListener listener : this.terrainListeners)
+			listener.terrainChanged(this, changed);
+		return changed;
+	}
+	
+	/**
+	 * The objects that are told when the terrain of this world changes
+	 */
+	private final List<TerrainListener> terrainListeners = new CopyOnWriteArrayList<TerrainListener>();
+	
+	/**
+	 * Adds the given listener to the objects that are told when the terrain of this world changes
+	 * @post	| the listener is called for every later change of the terrain of this world, until it is removed
+	 */
+	public void addTerrainListener(TerrainListener listener) {
+		this.terrainListeners.add(listener);
+	}
+	
+	/**
+	 * Removes the given listener from the objects that are told when the terrain of this world changes
+	 */
+	public void removeTerrainListener(TerrainListener listener) {
+		this.terrainListeners.remove(listener);
 	}
 
 	
@@ -218,6 +436,30 @@ public class World {
 		return winningWorm;
 	}
 	
+	/**
+	 * Variable holds whether this world executes the programs of computer controlled worms itself
+	 * when their turn starts (true), or leaves that to a game driver (false)
+	 */
+	private boolean isExecutingPrograms = true;
+	
+	/**
+	 * Returns whether this world executes the programs of computer controlled worms itself when their turn starts
+	 */
+	public boolean isExecutingPrograms() {
+		return this.isExecutingPrograms;
+	}
+	
+	/**
+	 * Sets whether this world executes the programs of computer controlled worms itself when their turn starts.
+	 * A game driver that runs the turns one by one (e.g. HeadlessGame) turns this off.
+	 * @param 	isExecutingPrograms
+	 * 			whether this world executes the programs itself
+	 * @post	| new.isExecutingPrograms() == isExecutingPrograms
+	 */
+	public void setExecutingPrograms(boolean isExecutingPrograms) {
+		this.isExecutingPrograms = isExecutingPrograms;
+	}
+	
 	/** 
 	 * This method starts the game.
 	 * @effect  | if ! this.getAllWorms().size() <=1
@@ -231,7 +473,7 @@ public class World {
 		if (this.getAllWorms().size() <=1 ) {
 			endGame();
 		}
-		if (this.getActiveWorm().isComputerControlled()){
+		if (this.isExecutingPrograms() && this.getActiveWorm().isComputerControlled()){
 			this.getActiveWorm().getProgram().allExec();
 			//System.out.println("the active worm is computer controlled, start next turn after having executed all");
 			startNextTurn();
@@ -311,7 +553,7 @@ public class World {
 		Worm worm = this.getActiveWorm();
 		worm.setRemainingActionPoints(worm.getMaxActionPoints());
 		worm.setRemainingHitPoints(worm.getRemainingHitPoints() + 10);
-		if (worm.isComputerControlled()){
+		if (this.isExecutingPrograms() && worm.isComputerControlled()){
 			worm.getProgram().allExec();
 			this.startNextTurn();
 		}
@@ -391,29 +633,31 @@ public class World {
 	public boolean isImpassablePosition(double x, double y, double radius){
 		int xInPixels =  (int)((x )/this.pixelwidth);
 		int yInPixels =  (int)((y )/this.pixelheight);
-		double[] oldPositionInMeters= {x, y}; // used to calculate the distance
 		int radiusInPixels = (int) (radius/ this.pixelwidth - this.pixelwidth/10.0 );// );  //convert radius to pixels, -pixelWidth/10.0 because we want the edge not to touch the next position. (barely touching impassable positions is not a problem)
 	
 		if (isFullyInWorld(x, y, radius)) {
 
 			if (! isPassablePixel( xInPixels, yInPixels)){
-//				System.out.println("the center is impassable, so impassable");
 				return true;
 			}
 			
-			int step= 1*testScalar;  // pixels per step
-			for (int i= -radiusInPixels; i<= radiusInPixels -step +1; i+= step) {// go from left to right   
-				for (int j = -radiusInPixels; j<= radiusInPixels -step +1; j+= step) { //go from bottom to up
-					int[] checkPosition= {Math.abs(xInPixels +i), Math.abs(yInPixels +j)};
-					double[] checkPositionInMeters= {x + i*pixelwidth, y + j*pixelheight};
-					if ( (pythagorianDistance(checkPositionInMeters, oldPositionInMeters) <= radius) && (! isPassablePixel(checkPosition[0], checkPosition[1])) )  {// if in the circle and impassable; i INVERETED the order
-//						System.out.println("impassable found in radius, so impassable");
-						return true;
-					}
-				}
+			// the distance field answers the question, unless the distance lies too close to the radius (rounding)
+			// or the nearest impassable pixel could lie outside the scanned square
+			if (testScalar == 1 && xInPixels - radiusInPixels >= 0 && yInPixels - radiusInPixels >= 0
+					&& xInPixels + radiusInPixels < this.terrain.getWidth() && yInPixels + radiusInPixels < this.terrain.getHeight()) {
+				double distance = this.getDistanceField().getDistance(xInPixels, this.terrain.getHeight()- yInPixels -1);
+				double margin = 1e-5 + distance * 1e-6;
+				if (distance >= radius + margin)
+					return false;
+				if (distance > radius - margin)
+					// no impassable pixel lies nearer than the ring, so only the pixels of the ring have to be checked
+					return scanImpassableRing(x, y, radius, radius - 2*margin, radius + 2*margin);
+				// a distance that is not exact is only a lower bound (see DistanceField.getExactLimit())
+				if (distance < (radiusInPixels + 1) * Math.min(this.pixelwidth, this.pixelheight) - margin
+						&& distance < this.getDistanceField().getExactLimit())
+					return true;
 			}
-//			System.out.println("No impassable found in radius, so passable");
-			return false;
+			return scanImpassablePosition(x, y, radius);
 		}
 		if ( isCenterInWorld(x, y, xInPixels, yInPixels) ){ //is the center in the world?
 					
@@ -430,6 +674,82 @@ public class World {
 		return false;
 	}
 	
+	/**
+	 * Checks pixel by pixel whether an impassable pixel lies inside the radius of the object with given x, y and radius.
+	 * The object has to lie fully in this world.
+	 * 
+	 * @param 	x
+	 * 			the x-coordinate to be checked (center point, in meters) (double)
+	 * @param 	y
+	 * 			the y-coordinate to be checked (center point, in meters) (double)
+	 * @param 	radius
+	 * 			the radius to be checked (double)
+	 * @return	| for_one (i, j in [-radiusInPixels, radiusInPixels]):
+	 * 			|	(pythagorianDistance(checkPositionInMeters, oldPositionInMeters) <= radius) && (! isPassablePixel(checkPosition[0], checkPosition[1]))
+	 */
+	boolean scanImpassablePosition(double x, double y, double radius){
+		int xInPixels =  (int)((x )/this.pixelwidth);
+		int yInPixels =  (int)((y )/this.pixelheight);
+		double[] oldPositionInMeters= {x, y}; // used to calculate the distance
+		int radiusInPixels = (int) (radius/ this.pixelwidth - this.pixelwidth/10.0 );
+		
+		int step= 1*testScalar;  // pixels per step
+		for (int i= -radiusInPixels; i<= radiusInPixels -step +1; i+= step) {// go from left to right   
+			for (int j = -radiusInPixels; j<= radiusInPixels -step +1; j+= step) { //go from bottom to up
+				int[] checkPosition= {Math.abs(xInPixels +i), Math.abs(yInPixels +j)};
+				double[] checkPositionInMeters= {x + i*pixelwidth, y + j*pixelheight};
+				if ( (pythagorianDistance(checkPositionInMeters, oldPositionInMeters) <= radius) && (! isPassablePixel(checkPosition[0], checkPosition[1])) )  {// if in the circle and impassable; i INVERETED the order
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks, like scanImpassablePosition(), whether an impassable pixel lies inside the radius of the object
+	 * with given x, y and radius, but only looks at the pixels at a distance between the given inner and outer radius.
+	 * The square of pixels scanned by scanImpassablePosition() has to lie in the terrain map.
+	 * 
+	 * @param 	x
+	 * 			the x-coordinate to be checked (center point, in meters) (double)
+	 * @param 	y
+	 * 			the y-coordinate to be checked (center point, in meters) (double)
+	 * @param 	radius
+	 * 			the radius to be checked (double)
+	 * @param 	innerRadius
+	 * 			the distance (in meters) below which all pixels are known to be passable
+	 * @param 	outerRadius
+	 * 			the distance (in meters) above which pixels do not lie inside the radius
+	 * @return	| scanImpassablePosition(x, y, radius)
+	 */
+	private boolean scanImpassableRing(double x, double y, double radius, double innerRadius, double outerRadius){
+		int xInPixels =  (int)((x )/this.pixelwidth);
+		int yInPixels =  (int)((y )/this.pixelheight);
+		double[] oldPositionInMeters= {x, y}; 
+		double[] checkPositionInMeters= new double[2];
+		int radiusInPixels = (int) (radius/ this.pixelwidth - this.pixelwidth/10.0 );
+		
+		for (int i= -radiusInPixels; i<= radiusInPixels; i++) {
+			double dx = i*this.pixelwidth;
+			int minJ = (int) Math.ceil(Math.sqrt(Math.max(0, innerRadius*innerRadius - dx*dx)) / this.pixelheight);
+			int maxJ = (int) Math.min(radiusInPixels, Math.floor(Math.sqrt(Math.max(0, outerRadius*outerRadius - dx*dx)) / this.pixelheight));
+			for (int j = minJ; j <= maxJ; j++) {
+				for (int sign = -1; sign <= 1; sign += 2) {
+					if (j == 0 && sign == 1)
+						continue;
+					checkPositionInMeters[0] = x + i*pixelwidth;
+					checkPositionInMeters[1] = y + sign*j*pixelheight;
+					if ( (pythagorianDistance(checkPositionInMeters, oldPositionInMeters) <= radius) 
+							&& (! isPassablePixel(xInPixels +i, yInPixels +sign*j)) ) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Checks if the center of the object (given in isImpassablePosition()) is in the world.
 	 * @param 	x
@@ -441,14 +761,14 @@ public class World {
 	 * @param 	yInPixels
 	 * 			the y-position of the impassable-positions map
 	 * @return	| x>=0 && y>=0 && x< this.getWidth() && y< this.getHeight()  
-				|  &&  xInPixels>=0 && yInPixels>=0 && xInPixels< getImpassablePositions()[0].length 
-				|  && yInPixels<= this.getImpassablePositions().length
+				|  &&  xInPixels>=0 && yInPixels>=0 && xInPixels< this.getTerrainMap().getWidth() 
+				|  && yInPixels<= this.getTerrainMap().getHeight()
 	 */
 	private boolean isCenterInWorld(double x, double y, int xInPixels,
 			int yInPixels) {
 		return x>=0 && y>=0 && x< this.getWidth() && y< this.getHeight()  
-				&&  xInPixels>=0 && yInPixels>=0 && xInPixels< getImpassablePositions()[0].length 
-				&& yInPixels<= this.getImpassablePositions().length;
+				&&  xInPixels>=0 && yInPixels>=0 && xInPixels< this.getTerrainMap().getWidth() 
+				&& yInPixels<= this.getTerrainMap().getHeight();
 	}
 
 	/**
@@ -460,17 +780,33 @@ public class World {
 	 * @return  | Math.sqrt(Math.pow(firstPoint[0] - secondPoint[0], 2) + Math.pow(firstPoint[1] - secondPoint[1], 2))
 	 */
 	protected static double pythagorianDistance(double[] firstPoint, double[] secondPoint) {
-		double result = Math.sqrt(Math.pow(firstPoint[0] - secondPoint[0], 2) + Math.pow(firstPoint[1] - secondPoint[1], 2));
+		return pythagorianDistance(firstPoint[0], firstPoint[1], secondPoint[0], secondPoint[1]);
+	}
+	
+	/**
+	 * This method returns the cartesian distance between 2 points, rounded to 5 digits
+	 * @param 	firstX
+	 * 			the x-coordinate of the first point
+	 * @param 	firstY
+	 * 			the y-coordinate of the first point
+	 * @param 	secondX
+	 * 			the x-coordinate of the second point
+	 * @param 	secondY
+	 * 			the y-coordinate of the second point
+	 * @return  | Math.sqrt(Math.pow(firstX - secondX, 2) + Math.pow(firstY - secondY, 2))
+	 */
+	protected static double pythagorianDistance(double firstX, double firstY, double secondX, double secondY) {
+		double result = Math.sqrt(Math.pow(firstX - secondX, 2) + Math.pow(firstY - secondY, 2));
 		result= (double)Math.round(result * 100000) / 100000.0;
 		return result;
 	}
 	
 	/**  TOTALLY
 	 * This method returns True if the position (x,y) is a passable position.
-	 * @return  | this.getImpassablePositions()[this.getImpassablePositions().length- yInPixels -1][xInPixels ]
+	 * @return  | this.getTerrainMap().isPassable(xInPixels, this.getTerrainMap().getHeight()- yInPixels -1)
 	 */
 	private boolean isPassablePixel(int xInPixels, int yInPixels) {  
-		return this.getImpassablePositions()[this.getImpassablePositions().length- yInPixels -1][xInPixels ];  
+		return this.terrain.isPassable(xInPixels, this.terrain.getHeight()- yInPixels -1);  
 		// y are the rows, x are the columns, so we had to INVERSE this !!!!!
 		// because we count from bottom to up, and the matrix goes from up to down, we have to invert the y-axis.
 		// The -1 is necessary if we want the first position down left to be (0,0)
@@ -493,6 +829,157 @@ public class World {
 	 */
 	public boolean isAdjacentPosition(double x, double y, double radius) {
 		if (!isFullyInWorld(x, y, radius)) {
+			return false;
+		}
+		
+		if ( (this.isImpassablePosition(x, y, radius)) ) {
+			return false;
+		}
+		
+		// no sample of the ring can see an impassable pixel if the nearest one is too far from the center
+		double largeRadius= radius * 1.1;
+		double pixelDiagonal = Math.sqrt(this.pixelwidth * this.pixelwidth + this.pixelheight * this.pixelheight);
+		double clearance = this.getClearance(x, y);
+		if (clearance - largeRadius - pixelDiagonal > radius + 1e-5 + clearance * 1e-6) {
+			return false;
+		}
+		
+		// look right, up, left and down.
+		for (double angle = 0; angle < 2*Math.PI; angle+= Math.PI/2.0) { 
+			if (isImpassableOnRay(x, y, radius, angle, largeRadius, pixelDiagonal)) {
+				return true;
+			}
+		}
+		
+		// look at other angles too. (for worms larger than 1 pixel)
+		double angle_incrementer = Math.atan(this.getPixelheight()/largeRadius)*testScalar;
+		for (double angle = 0; angle < 2*Math.PI; angle+= angle_incrementer) { 
+			if (isImpassableOnRay(x, y, radius, angle, largeRadius, pixelDiagonal)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks the samples of the ring (radius, 1.1*radius) around the given position in the given direction,
+	 * in the same order and at the same positions as sweepAdjacentPosition().
+	 * Samples that lie too far from any impassable pixel (according to the distance field) are skipped.
+	 * @param 	x
+	 * 			the x position of the center (in meters)
+	 * @param 	y
+	 * 			the y position of the center (in meters)
+	 * @param 	radius
+	 * 			the radius of the object to be checked
+	 * @param 	angle
+	 * 			the direction of the ray
+	 * @param 	largeRadius
+	 * 			the outer radius of the ring
+	 * @param 	pixelDiagonal
+	 * 			the length of the diagonal of one pixel (in meters)
+	 * @return	| for_one (delta in [radius, largeRadius]): isImpassablePosition(x+ delta*cos(angle), y+ delta*sin(angle), radius)
+	 */
+	private boolean isImpassableOnRay(double x, double y, double radius, double angle, double largeRadius, double pixelDiagonal) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double skipUntil = Double.NEGATIVE_INFINITY;
+		for (double delta=radius; delta<= largeRadius; delta+= this.getPixelheight()*(testScalar/20.0)) {
+			if (delta < skipUntil)
+				continue;
+			double checkX = x+ delta* cos;
+			double checkY = y+ delta* sin;
+			double clearance = this.getClearance(checkX, checkY);
+			double margin = 1e-5 + clearance * 1e-6;
+			if (clearance > radius + margin) {
+				// every sample closer than this has a pixel at least radius + margin away from impassable terrain
+				skipUntil = delta + clearance - radius - margin - pixelDiagonal;
+				continue;
+			}
+			if (isImpassablePosition(checkX, checkY, radius) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the distance from the pixel of the given position to the nearest impassable pixel
+	 * @param 	x
+	 * 			the x-coordinate of the position (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the position (in meters)
+	 * @return	| if (the pixel of (x,y) lies in the terrain map)
+	 * 			|	this.getDistanceField().getDistance(xInPixels, this.getTerrainMap().getHeight()- yInPixels -1)
+	 * @return	| else
+	 * 			|	-1
+	 */
+	protected double getClearance(double x, double y) {
+		if (x < 0 || y < 0)
+			return -1;
+		int xInPixels =  (int)((x )/this.pixelwidth);
+		int yInPixels =  (int)((y )/this.pixelheight);
+		if (xInPixels >= this.terrain.getWidth() || yInPixels >= this.terrain.getHeight())
+			return -1;
+		return this.getDistanceField().getDistance(xInPixels, this.terrain.getHeight()- yInPixels -1);
+	}
+	
+	/**
+	 * Returns how far an object can go straight down from the given position before its pixel comes within the given
+	 * distance of an impassable pixel (distances are measured between pixels, as in the distance field).
+	 * Only the columns within that distance are looked at, each with a binary search in the surface index.
+	 * @param 	x
+	 * 			the x-coordinate of the position (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the position (in meters)
+	 * @param 	distance
+	 * 			the distance to impassable terrain (in meters)
+	 * @return	| if (no pixel straight below the pixel of (x,y), that pixel included, lies within distance of an impassable pixel)
+	 * 			|	Double.NEGATIVE_INFINITY
+	 * @return	| else if (the pixel of (x,y) lies within distance of an impassable pixel)
+	 * 			|	Double.POSITIVE_INFINITY
+	 * @return	| else the top of the highest pixel below (x,y) that lies within distance of an impassable pixel:
+	 * 			|	for each y' in [result, y]: this.getClearance(x, y') > distance
+	 */
+	protected double getTerrainBelow(double x, double y, double distance) {
+		if (x < 0 || y < 0)
+			return Double.NEGATIVE_INFINITY;
+		int column = (int) (x / this.pixelwidth);
+		int terrainHeight = this.terrain.getHeight();
+		int startRow = Math.max(0, terrainHeight - (int) (y / this.pixelheight) - 1);
+		if (column >= this.terrain.getWidth())
+			return Double.NEGATIVE_INFINITY;
+		SurfaceIndex index = this.getSurfaceIndex();
+		
+		// the first row, from startRow down, whose pixel in this column lies within distance of an impassable pixel
+		int nearRow = terrainHeight;
+		int reach = (int) (distance / this.pixelwidth + 1e-9);
+		for (int other = Math.max(0, column - reach); other <= Math.min(this.terrain.getWidth() - 1, column + reach); other++) {
+			double dx = (other - column) * this.pixelwidth;
+			int rows = (int) (Math.sqrt(Math.max(0, distance * distance - dx * dx)) / this.pixelheight + 1e-9);
+			int solidRow = index.getFirstSolidRow(other, Math.max(0, startRow - rows));
+			if (solidRow < terrainHeight)
+				nearRow = Math.min(nearRow, Math.max(startRow, solidRow - rows));
+		}
+		if (nearRow == terrainHeight)
+			return Double.NEGATIVE_INFINITY;
+		if (nearRow == startRow)
+			return Double.POSITIVE_INFINITY;
+		return (terrainHeight - nearRow) * this.pixelheight;
+	}
+	
+	/**
+	 * Checks adjacency by sampling the whole ring (radius, 1.1*radius) with isImpassablePosition().
+	 * This gives the same results as isAdjacentPosition(), at a much higher cost.
+	 * @param 	x
+	 * 			the x position of the object to be checked (center point, in meters) (double)
+	 * @param 	y
+	 * 			the y position of the object to be checked (center point, in meters) (double)
+	 * @param	radius
+	 * 			the radius of the object to be checked (double)
+	 * @return	| isAdjacentPosition(x, y, radius)
+	 */
+	boolean sweepAdjacentPosition(double x, double y, double radius) {
+		if (!isFullyInWorld(x, y, radius)) {
 //			System.out.println("not fully in world, not adjacent");
 			return false;
 		}
@@ -533,31 +1020,62 @@ public class World {
 		return false;
 	}
 
+	/**
+	 * Variable caches the sampler of free positions for the terrain map, built on first use
+	 */
+	private FreePositionSampler freePositionSampler;
+	
+	/**
+	 * Returns the sampler of free positions for the terrain map of this world
+	 */
+	FreePositionSampler getFreePositionSampler() {
+		if (this.freePositionSampler == null)
+			this.freePositionSampler = new FreePositionSampler(this);
+		return this.freePositionSampler;
+	}
+	
 	/**
 	 * This method returns the x and y position of a random free location in the world where a new object can be placed.
-	 * @return	| if this.isAdjacentPosition(freePos[0], freePos[1], radius)
-	 * 			|	this.freepos
+	 * The position is chosen with the random generator of this world.
+	 * @param 	radius
+	 * 			the radius of the object to be placed
+	 * @return	| this.getFreePositions(radius, 1)[0]
 	 * @throws	IllegalArgumentException
-	 * 			| if nbTries > 100
+	 * 			| if there is no adjacent position for the given radius
 	 */
 	private double[] getFreePosition(double radius) throws IllegalArgumentException {
-		int nbTries= 0;
-		int nbTriesLimit= 1000;
-		double[] freePos= new double[2];
-		freePos[0] = (radius+1) + (this.width - 2*radius)* Math.random();
-		freePos[1] = ((radius+1) + (this.height - 2*radius)* Math.random());
-		
-		// if not fully in the world, or if not adjacent, or if not passable for this object, 
-		//		then generate a new position
-		while ( (!isFullyInWorld(freePos[0], freePos[1], radius)) || (!this.isAdjacentPosition(freePos[0], freePos[1], radius)) ) {  
-			if (nbTries> nbTriesLimit){
-				throw new IllegalArgumentException("no adjacent position found");
-			}
-			freePos[0] = (radius+1) + (this.width - 2*radius)* Math.random(); 
-			freePos[1] = ((radius+1) + (this.height - 2*radius)* Math.random());
-			nbTries++;
-		}
-		return freePos;
+		return this.getFreePositions(radius, 1)[0];
+	}
+	
+	/**
+	 * This method returns the given number of random free locations in the world where new objects can be placed.
+	 * The positions are chosen with the random generator of this world, and lie in different pixels.
+	 * @param 	radius
+	 * 			the radius of the objects to be placed
+	 * @param 	count
+	 * 			the number of positions to be returned
+	 * @return	| result.length == count
+	 * @return	| for each i: this.isAdjacentPosition(result[i][0], result[i][1], radius)
+	 * @throws	IllegalArgumentException
+	 * 			| if there are less than count adjacent positions for the given radius
+	 */
+	public double[][] getFreePositions(double radius, int count) throws IllegalArgumentException {
+		return this.getFreePositionSampler().getFreePositions(radius, count, this.getRandom());
+	}
+	
+	/**
+	 * This method returns the x and y position of a random free location in the world where a new object can be placed
+	 * without overlapping any worm or food of this world.
+	 * @param 	radius
+	 * 			the radius of the object to be placed
+	 * @return	| this.isAdjacentPosition(result[0], result[1], radius)
+	 * 			|	&& this.getOverlappingWorm(result, radius) == null && this.getOverlappingFood(result, radius) == null
+	 * @throws	IllegalArgumentException
+	 * 			| if no such position is found
+	 */
+	private double[] getUnoccupiedPosition(double radius) throws IllegalArgumentException {
+		return this.getFreePositionSampler().getFreePositions(radius, 1, this.getRandom(),
+				position -> this.getOverlappingWorm(position, radius) == null && this.getOverlappingFood(position, radius) == null)[0];
 	}
 	
 	/**
@@ -597,7 +1115,10 @@ public class World {
 	 */
 	Food createFood(double x, double y) throws IllegalPositionException {  
 		Food food = new Food(this, x, y);
+		food.setAdditionNumber(this.nbObjectsAdded++);
 		this.foodList.add(food);
+		this.foodGrid.add(food);
+		this.nbObjectListChanges++;
 		return food;
 	}
 	
@@ -611,6 +1132,25 @@ public class World {
 		this.createFood(freePosition[0], freePosition[1]);
 	}
 	
+	/**
+	 * Create and add the given number of new food rations to this world.
+	 * The food rations are placed at random adjacent locations, where they do not overlap any worm or food.
+	 * @param 	count
+	 * 			the number of food rations to be added
+	 * @return	| result.size() == count
+	 * @effect  | for each food in result: new.foodList.contains(food)
+	 * @throws	IllegalArgumentException
+	 * 			| if no free position is found for one of the food rations (the ones placed before stay in this world)
+	 */
+	public List<Food> addNewFood(int count) throws IllegalArgumentException {
+		List<Food> result = new ArrayList<Food>(count);
+		for (int i = 0; i < count; i++) {
+			double[] freePosition= this.getUnoccupiedPosition(0.2);
+			result.add(this.createFood(freePosition[0], freePosition[1]));
+		}
+		return result;
+	}
+	
 	/**
 	 * Returns a copy of the list of all food objects in this World
 	 */
@@ -638,6 +1178,8 @@ public class World {
 		int index= this.getAllFood().indexOf(food);
 		if (index >=0 ) {
 			this.foodList.remove(index);
+			this.foodGrid.remove(food);
+			this.nbObjectListChanges++;
 		}
 		else {
 			throw new IllegalArgumentException("no such food in this world");
@@ -686,7 +1228,11 @@ public class World {
 	 * @effect	new.getWormList.contains(worm)
 	 */
 	public void addWorm(Worm worm) {
+		worm.setAdditionNumber(this.nbObjectsAdded++);
 		this.wormList.add(worm);
+		this.wormGrid.add(worm);
+		this.nbChanges++;
+		this.nbObjectListChanges++;
 	}
 		
 	/**
@@ -704,6 +1250,35 @@ public class World {
 		}
 	}
 	
+	/**
+	 * Create and add the given number of new worms to this world, each with its own copy of the given program.
+	 * The worms are placed at random adjacent locations, where they do not overlap any worm or food.
+	 * If this world has teams, the worms join the last team.
+	 * @param 	count
+	 * 			the number of worms to be added
+	 * @param 	program
+	 * 			the program of the new worms (null for worms controlled by the player)
+	 * @return	| result.size() == count
+	 * @effect	| for each worm in result: new.getWormList.contains(worm)
+	 * @throws	IllegalArgumentException
+	 * 			| if no free position is found for one of the worms (the ones placed before stay in this world)
+	 */
+	public List<Worm> addNewWorms(int count, Program program) throws IllegalArgumentException {
+		double radius = 0.6;
+		Team team = this.getAllTeams().isEmpty() ? null : this.getAllTeams().getLast();
+		List<Worm> result = new ArrayList<Worm>(count);
+		for (int i = 0; i < count; i++) {
+			double[] freePosition= this.getUnoccupiedPosition(radius);
+			Worm worm = this.createWorm(freePosition[0], freePosition[1], 0, radius,"RandomWorm"+ this.getAllWormsProtected().size(),
+					program == null ? null : program.copy());
+			if (team != null) {
+				worm.addToTeam(team);
+			}
+			result.add(worm);
+		}
+		return result;
+	}
+	
 	/**
 	 * Returns a copy of the list of all worm objects in this World
 	 */
@@ -732,6 +1307,9 @@ public class World {
 		int index= this.getAllWormsProtected().indexOf(worm);
 		if (index >=0 ) {
 			this.wormList.remove(index);
+			this.wormGrid.remove(worm);
+			this.nbChanges++;
+			this.nbObjectListChanges++;
 		}
 		else {
 			throw new IllegalArgumentException("no such worm in this world");
@@ -871,4 +1449,275 @@ public class World {
 		return null;
 	}
 	
+	
+	/**
+	 * Returns the first worm of this world (in the order of getAllWorms()) that overlaps with the given circle
+	 * @param 	XYPos
+	 * 			the center of the circle (x on 0 and y on 1)
+	 * @param 	radius
+	 * 			the radius of the circle
+	 * @return	| this.overlapsWith(XYPos, radius, this.getAllWorldObjects("worm"))
+	 */
+	public Worm getOverlappingWorm(double[] XYPos, double radius) {
+		return this.wormGrid.getOverlapping(XYPos[0], XYPos[1], radius);
+	}
+	
+	/**
+	 * Returns the first food ration of this world (in the order of getAllFood()) that overlaps with the given circle
+	 * @param 	XYPos
+	 * 			the center of the circle (x on 0 and y on 1)
+	 * @param 	radius
+	 * 			the radius of the circle
+	 * @return	| this.overlapsWith(XYPos, radius, this.getAllWorldObjects("food"))
+	 */
+	public Food getOverlappingFood(double[] XYPos, double radius) {
+		return this.foodGrid.getOverlapping(XYPos[0], XYPos[1], radius);
+	}
+	
+	/**
+	 * Searches the first worm in the given direction from the given position.
+	 * Circles with the given radius are placed along the ray, one every given step, for as long as their centers lie in this world;
+	 * the result is the first worm (in the order of getAllWorms()) that overlaps with the nearest circle that overlaps any worm.
+	 * This query does not create any objects.
+	 * @param 	x
+	 * 			the x-coordinate of the start of the ray (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the start of the ray (in meters)
+	 * @param 	direction
+	 * 			the direction of the ray (in radians)
+	 * @param 	step
+	 * 			the distance between two circles (in meters)
+	 * @param 	radius
+	 * 			the radius of the circles (in meters)
+	 * @return	| getOverlappingWorm({x + k*step*cos(direction), y + k*step*sin(direction)}, radius) for the smallest k >= 1 
+	 * 			|	for which that is not null, with all circles up to k centered in this world
+	 * @return	| null if there is no such k
+	 */
+	public Worm searchWorm(double x, double y, double direction, double step, double radius) {
+		double dirX = Math.cos(direction);
+		double dirY = Math.sin(direction);
+		// the number of circles whose centers lie in this world
+		double exit = Double.POSITIVE_INFINITY;
+		if (dirX > 0)
+			exit = Math.min(exit, (this.getWidth() - x) / dirX);
+		else if (dirX < 0)
+			exit = Math.min(exit, - x / dirX);
+		if (dirY > 0)
+			exit = Math.min(exit, (this.getHeight() - y) / dirY);
+		else if (dirY < 0)
+			exit = Math.min(exit, - y / dirY);
+		int nbSamples = (int) Math.min(Integer.MAX_VALUE - 1, Math.max(0, Math.floor(exit / step)));
+		while (nbSamples > 0 && ! isSampleInWorld(x, y, dirX, dirY, step, nbSamples))
+			nbSamples--;
+		while (nbSamples < Integer.MAX_VALUE - 1 && isSampleInWorld(x, y, dirX, dirY, step, nbSamples + 1))
+			nbSamples++;
+		return this.wormGrid.getFirstAlongRay(x, y, dirX, dirY, step, nbSamples, radius);
+	}
+	
+	/**
+	 * Checks whether the center of the given circle along a ray lies in this world
+	 * @return	| isValidPosition(x + k*step*dirX, y + k*step*dirY)
+	 */
+	private boolean isSampleInWorld(double x, double y, double dirX, double dirY, double step, int k) {
+		double sampleX = x + k*step*dirX;
+		double sampleY = y + k*step*dirY;
+		return sampleX >= 0 && sampleX <= this.getWidth() && sampleY >= 0 && sampleY <= this.getHeight();
+	}
+	
+	/**
+	 * Returns the distance from the given position to the edge of the nearest worm of this world (other than the given object)
+	 * @param 	x
+	 * 			the x-coordinate of the position (in meters)
+	 * @param 	y
+	 * 			the y-coordinate of the position (in meters)
+	 * @param 	maxDistance
+	 * 			the largest distance of interest; worms further away are not looked for
+	 * @param 	exclude
+	 * 			the object to be ignored (may be null)
+	 * @return	| min(maxDistance, min { distance((x,y), worm.getPosition()) - worm.getRadius() | worm != exclude })
+	 */
+	protected double getWormClearance(double x, double y, double maxDistance, GameObject exclude) {
+		return this.wormGrid.getClearance(x, y, maxDistance, exclude);
+	}
+	
+	/**
+	 * Updates the place of the given game object in the spatial grids of this world,
+	 * after its position or radius has changed
+	 * @param 	object
+	 * 			the game object that has moved or changed its radius
+	 */
+	protected void updateObjectPosition(GameObject object) {
+		this.nbChanges++;
+		if (object instanceof Worm)
+			this.wormGrid.update(object);
+		else if (object instanceof Food)
+			this.foodGrid.update(object);
+	}
+	
+	/**
+	 * Returns the number of changes to the terrain and to the game objects of this world so far.
+	 * Results computed from the state of this world stay valid as long as this number does not change.
+	 */
+	protected long getNbChanges() {
+		return this.nbChanges;
+	}
+	
+	/**
+	 * Variable counting the changes to the terrain and the game objects of this world
+	 */
+	private long nbChanges = 0;
+	
+	/**
+	 * The spatial grids holding the worms and the food of this world
+	 */
+	private final SpatialGrid<Worm> wormGrid;
+	private final SpatialGrid<Food> foodGrid;
+	
+	// --------------------------------- TRACE  -------------------------------------------
+	/**
+	 * Variable holds the trace of this world
+	 */
+	private final Trace trace = new Trace();
+	
+	/**
+	 * Returns the trace of this world, in which the programs of its worms record what they do
+	 * (nothing is recorded until a level is switched on)
+	 */
+	public Trace getTrace() {
+		return this.trace;
+	}
+	
+	// --------------------------------- LIVE ITERATION  -------------------------------------------
+	/**
+	 * Returns a live view of the worms and/or the food of this world, worms first.
+	 * The view copies nothing: it walks the lists of this world itself, so objects that are added while it is used
+	 * are still returned if they come after its position, and objects that are removed or terminated are skipped.
+	 * It can be kept for as long as needed (e.g. by a for each loop of a program that continues in the next turn).
+	 * @param 	includeWorms
+	 * 			whether the worms of this world are returned
+	 * @param 	includeFood
+	 * 			whether the food of this world is returned
+	 * @return	an iterator returning each object of this world of the given kinds that is not terminated
+	 * 			when it is reached, at most once
+	 */
+	public Iterator<GameObject> getLiveObjects(boolean includeWorms, boolean includeFood) {
+		return new LiveObjectCursor(includeWorms, includeFood);
+	}
+	
+	/**
+	 * Variable counting the additions and removals of worms and food in this world
+	 */
+	private long nbObjectListChanges = 0;
+	
+	/**
+	 * Variable counting the worms and food added to this world, which numbers them in the order of their addition
+	 */
+	private long nbObjectsAdded = 0;
+	
+	/**
+	 * A cursor over the lists of worms and food of this world.
+	 * It walks a list with a list iterator; if a list has been changed since the last step, the list iterator
+	 * is made again, just after the objects that were added before the object the cursor passed last.
+	 * Objects are only added at the end of the lists, so the objects of a list are in the order of their addition
+	 * numbers, and removals only move objects towards the front: the new position lies at or before the old one,
+	 * by at most the number of objects that were removed before it.
+	 */
+	private class LiveObjectCursor implements Iterator<GameObject> {
+		
+		private LiveObjectCursor(boolean includeWorms, boolean includeFood) {
+			if (includeWorms)
+				this.lists.add(wormList);
+			if (includeFood)
+				this.lists.add(foodList);
+		}
+		
+		/**
+		 * The lists walked by this cursor, in order
+		 */
+		private final List<List<? extends GameObject>> lists = new ArrayList<List<? extends GameObject>>(2);
+		
+		/**
+		 * The index in lists of the list that is being walked
+		 */
+		private int listIndex = 0;
+		
+		/**
+		 * The position in the list that is being walked (null if the walk of that list has not started)
+		 */
+		private ListIterator<? extends GameObject> position;
+		
+		/**
+		 * The number of changes to the lists of the world when position was last used
+		 */
+		private long nbObjectListChanges;
+		
+		/**
+		 * The addition number of the last object passed in the list that is being walked, and its index in that list
+		 * (-1 if no object of that list has been passed)
+		 */
+		private long lastAdditionNumber;
+		private int lastIndex = -1;
+		
+		/**
+		 * The object that will be returned next, if it is still alive then (null if it has not been looked up)
+		 */
+		private GameObject next;
+		
+		@Override
+		public boolean hasNext() {
+			if (this.next == null || this.next.isTerminated())
+				this.next = this.advance();
+			return this.next != null;
+		}
+		
+		@Override
+		public GameObject next() {
+			if (! this.hasNext())
+				throw new NoSuchElementException();
+			GameObject result = this.next;
+			this.next = null;
+			return result;
+		}
+		
+		/**
+		 * Returns the next object after the position of this cursor that is not terminated, or null if there is none
+		 */
+		private GameObject advance() {
+			while (this.listIndex < this.lists.size()) {
+				List<? extends GameObject> list = this.lists.get(this.listIndex);
+				if (this.position == null)
+					this.position = list.listIterator();
+				else if (this.nbObjectListChanges != World.this.nbObjectListChanges)
+					this.position = this.resume(list);
+				this.nbObjectListChanges = World.this.nbObjectListChanges;
+				while (this.position.hasNext()) {
+					GameObject object = this.position.next();
+					this.lastAdditionNumber = object.getAdditionNumber();
+					this.lastIndex = this.position.previousIndex();
+					if (! object.isTerminated())
+						return object;
+				}
+				this.listIndex++;
+				this.position = null;
+				this.lastIndex = -1;
+			}
+			return null;
+		}
+		
+		/**
+		 * Returns a list iterator over the given (changed) list, just after the objects that were added to it
+		 * no later than the last object passed
+		 */
+		private ListIterator<? extends GameObject> resume(List<? extends GameObject> list) {
+			ListIterator<? extends GameObject> result = list.listIterator(Math.min(this.lastIndex + 1, list.size()));
+			while (result.hasPrevious()) {
+				if (result.previous().getAdditionNumber() <= this.lastAdditionNumber) {
+					result.next();
+					break;
+				}
+			}
+			return result;
+		}
+	}
+	
 }
@@ -24,7 +24,7 @@
  * SET ALL STEP VALUES (in Worm, World, Movable) TO THEIR APPROPRIATE VALUES
  * 							|		|		|
  * 				     step (line 72) | 	timeMultiplier (line 21)
- * 								testScalar (line 25)
+ * 								testScalar (line 30, per world)
  * see in their doc-comment for proper values
  * 
  * We added 4 lines in ProgramParser to be able to acces globals during compilation of the worms-program 
@@ -36,7 +36,6 @@ package worms.model;
 import be.kuleuven.cs.som.annotate.*;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.LinkedList;
 
 import worms.model.exceptions.IllegalActionPointException;
@@ -110,11 +109,13 @@ public class Worm extends Movable{
 			throws IllegalPositionException, IllegalRadiusException, IllegalNameException 
 		{
 		this(world, xPosition, yPosition, direction, radius, name);
+		// a program that already runs for another worm is shared through a copy with its own variables
+		if (program != null && program.getWorm() != null)
+			program = program.copy();
 		this.program = program;
 		//Connection worms: master
-		this.getProgram().setWorm(this);
-		// here, you set in the structure of program all objects to the right worm/handler
-		this.getProgram().setAppropriateValues();
+		if (program != null)
+			this.getProgram().setWorm(this);
 		}
 	
 
@@ -183,7 +184,7 @@ public class Worm extends Movable{
 	/**
 	 *  A variable that stores the minimum radius of any Worm object. Could be changed in later versions
 	 */
-	private static double minRadius = 0.25;
+	private static final double minRadius = 0.25;
 	
 	/**
 	 * Return the minimum radius of this worm
@@ -220,10 +221,13 @@ public class Worm extends Movable{
 	 * @post	if the given action points are equal to 0, the next worm's turn is started
 	 * 			| if (newRemaingActionPoints == 0)
 				|		new.getWorld().getActiveWorm() != this;
+	 * @effect	the jump trajectory is computed again with the new action points
+	 * 			| this.invalidateJumpTrajectory()
 	 */			
 	@Raw
 	public void setRemainingActionPoints(int newRemainingActionPoints){
 		int maxActionPoints = this.getMaxActionPoints();
+		this.invalidateJumpTrajectory();
 		if (newRemainingActionPoints > maxActionPoints)
 			newRemainingActionPoints = maxActionPoints;
 		if (newRemainingActionPoints > 0)
@@ -346,7 +350,7 @@ public class Worm extends Movable{
 	/**
 	 * A static variable that stores the allowed characters for the name of any Worm object. Could be changed in later versions.
 	 */
-	public static String allowedCharacters = "[A-Za-z0-9\'\" ]+";
+	public static final String allowedCharacters = "[A-Za-z0-9\'\" ]+";
 	
 	
 	// --------------------- Mass/Density --------------------------------
@@ -422,12 +426,8 @@ public class Worm extends Movable{
 		public void eat() {
 			double radiusMultiplier = 1.1;
 			
-			LinkedList<GameObject> allFoodObjects = new LinkedList<>();  // cast all food to GameObjects to use the general method overlapsWith
-			for (Food food: this.getWorld().getAllFoodProtected()) {
-				allFoodObjects.add((GameObject)food);
-			}
 			double[] pos =  {this.getXPosition(), this.getYPosition()};
-			GameObject food = this.getWorld().overlapsWith(pos, this.getRadius(), allFoodObjects);
+			Food food = this.getWorld().getOverlappingFood(pos, this.getRadius());
 			
 			// if this worm overlaps with food and still fits in the world
 			if( (food != null) && (! food.isTerminated())){
@@ -459,7 +459,7 @@ public class Worm extends Movable{
 	 * 			if the computed x or y position is invalid
 	 * 			| ! isValidXPosition(newXPosition) || ! isValidYPosition(newYPosition)
 	 * @throws 	SecurityException || NoSuchMethodException || InvocationTargetException || IllegalAccessException
-	 * 			are never thrown except if you delete isAdjacent or isImpassable from World.java
+	 * 			are never thrown (the world is no longer queried through reflection), they are still declared for the callers of this method
 	 * 			| if false
 	 * @throws 	IllegalActionPointException 
 	 * 			if this worm is not able to move
@@ -470,21 +470,53 @@ public class Worm extends Movable{
 		if (! this.isAbleToMove()) {
 			throw new IllegalActionPointException(this.getRemainingActionPoints()); //Not enough action points
 		}
+		double[] target = this.getMoveTarget();
+		if (target[0] != this.getXPosition() || target[1] != this.getYPosition()) {
+			this.setXPosition(target[0]); //go to the found position
+			this.setYPosition(target[1]);
+		}
+		// eat() and set the remaining action points
+		this.eat();
+		double preferredS = target[2];
+		this.setRemainingActionPoints((int) (this.getRemainingActionPoints() - (Math.abs(Math.cos(preferredS)) + 4 *Math.abs(Math.sin(preferredS)) )) );
+	}
+	
+	/**
+	 * Returns the position this worm moves to, and the direction in which it moves, without moving it.
+	 * The farthest position in every direction is searched for with solveFarthestPosition().
+	 * @return	| {x, y, s} where (x, y) is the best adjacent position in any direction s that diverges at most 0.7875 from the direction of this worm
+	 * 			| (the position with the highest getScoreThisS()), or the farthest passable position in the direction of this worm if there is none,
+	 * 			| or the position of this worm if that lies closer than 0.1 as well
+	 */
+	double[] getMoveTarget() {
+		return this.getMoveTarget(false);
+	}
+	
+	/**
+	 * Returns the position this worm moves to, and the direction in which it moves, by walking every direction step by step.
+	 * This gives the same results as getMoveTarget() (up to rounding), at a much higher cost.
+	 * @return	| getMoveTarget()
+	 */
+	double[] scanMoveTarget() {
+		return this.getMoveTarget(true);
+	}
+	
+	/**
+	 * Returns the position this worm moves to, and the direction in which it moves
+	 * @param	scan
+	 * 			whether every direction is walked step by step (scanFarthestPosition()) instead of searched (solveFarthestPosition())
+	 */
+	private double[] getMoveTarget(boolean scan) {
 		double radius= this.getRadius();
 		double x = this.getXPosition();
 		double y = this.getYPosition();  // removed the -radius, otherwise our isAdjacent() in the while loop would not work
 		double[] oldPosition = {x, y};
-		double[] preferredPosition = {x, y};
-		double distanceStep = step;
-		double preferredDistanceToStart = 0.001;  // not zero, otherwise division by zero in if().
 		
 		double direction = this.getDirection();
-		double preferredS= (direction + 0.7875) % (2.0*Math.PI);  // the old preferred direction, initialize to the maximum divergence value
 		double upper = (direction + 0.7875) % (2.0*Math.PI); 
 		double lower = direction - 0.7875;
 		double angleStep = 0.0175;
 		
-		
 		//get the right upper and lower bounds of the angles to check (s'es)
 		if (lower >= 3/2.0*Math.PI)
 			upper += 2.0*Math.PI;
@@ -495,95 +527,42 @@ public class Worm extends Movable{
 		}
 		
 		// search for the best adjacent position in all s-directions between lower and upper.
-		double[] saveResult= getPreferredPositionAllS(radius, x, y, oldPosition, preferredPosition,
-				distanceStep, preferredDistanceToStart, direction, preferredS,
-				angleStep, upper, lower);
-		preferredPosition[0]= saveResult[0]; //save the results in the proper variables
-		preferredPosition[1]= saveResult[1];
-		preferredS= saveResult[2];
-		preferredDistanceToStart= World.pythagorianDistance(oldPosition, preferredPosition) ;
+		double[] result= getPreferredPositionAllS(radius, oldPosition, direction, angleStep, upper, lower, scan);
+		double preferredDistanceToStart= World.pythagorianDistance(oldPosition[0], oldPosition[1], result[0], result[1]);
 		
 		//if an adjacent position was found that is in the direction of one of the s'es that is not farther than radius and farther than 0.1
 		if ( (preferredDistanceToStart >= 0.1) && (preferredDistanceToStart <= radius) ){ 
-			this.setXPosition(preferredPosition[0]); //go to the found adjacent position
-			this.setYPosition(preferredPosition[1]);
+			return result;
 		}
 		
 		// if no adjacent position in any s-direction could be found, search for a passable position in this worm's direction.
-		else { 
-			preferredPosition= getPreferredPositionThisDirection(radius, x, y, oldPosition,
-					distanceStep, direction);
-			preferredDistanceToStart= World.pythagorianDistance(oldPosition, preferredPosition) ;
-			preferredS= direction;
-			
-			//if a passable position was found that is in this worm's direction and not farther than radius and farther than 0.1
-			if ( (preferredDistanceToStart >= 0.1) && (preferredDistanceToStart <= radius) ){ 
-				this.setXPosition(preferredPosition[0]); 
-				this.setYPosition(preferredPosition[1]);
-			}
-		}
-		// eat() and set the remaining action points
-		this.eat();
-		this.setRemainingActionPoints((int) (this.getRemainingActionPoints() - (Math.abs(Math.cos(preferredS)) + 4 *Math.abs(Math.sin(preferredS)) )) );
-	}
-
-	/**
-	 * This method searches for the farthest passable position in the given direction within this worm's radius. returns the given position if no better position can be found.
-	 */
-	private double[] getPreferredPositionThisDirection(double radius, double x,
-			double y, double[] oldPosition, double distanceStep,
-			double direction) throws IllegalAccessException,
-			InvocationTargetException, NoSuchMethodException {
-		
-		double[] nextPositionThisS;
-		double[] currentBestPositionThisS;
-		
-		currentBestPositionThisS = oldPosition; //start at the old position
-		nextPositionThisS = checkNextPosition(radius, x, y, currentBestPositionThisS, distanceStep, direction, "isImpassablePosition"); //look if the next position in this s-direction is passable
-		double newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
-		double currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
+		double[] preferredPosition= getFarthestPosition(radius, oldPosition, direction, false, scan);
+		preferredDistanceToStart= World.pythagorianDistance(oldPosition, preferredPosition) ;
 		
-		//while currentBestDistance < nextCheckDistance <= radius, look for a better position. 
-		while ( (newCheckDistance <= radius) && (newCheckDistance > currentBestDistance) )  { 
-			currentBestPositionThisS = nextPositionThisS ;
-			nextPositionThisS = checkNextPosition(radius, x, y, currentBestPositionThisS, distanceStep, direction, "isImpassablePosition");
-			newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
-			currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
+		//if a passable position was found that is in this worm's direction and not farther than radius and farther than 0.1
+		if ( (preferredDistanceToStart >= 0.1) && (preferredDistanceToStart <= radius) ){ 
+			return new double[] {preferredPosition[0], preferredPosition[1], direction};
 		}
-		return currentBestPositionThisS;
+		return new double[] {x, y, direction};
 	}
 
 	/**
 	 * This method returns the best(farthest) adjacent position and its direction, in any s- direction between lower and upper, while minimizing the divergence. 
 	 * returns the given position if no better position can be found.
 	 */
-	private double[] getPreferredPositionAllS(double radius, double x, double y,
-			double[] oldPosition, double[] preferredPosition,
-			double distanceStep, double preferredDistanceToStart,
-			double direction, double preferredS, double step, double upper,
-			double lower) throws IllegalAccessException,
-			InvocationTargetException, NoSuchMethodException {
+	private double[] getPreferredPositionAllS(double radius, double[] oldPosition, double direction, double step, 
+			double upper, double lower, boolean scan) {
 		
-		double[] nextPositionThisS;
-		double[] currentBestPositionThisS;
+		double[] preferredPosition = {oldPosition[0], oldPosition[1]};
+		double preferredS= (direction + 0.7875) % (2.0*Math.PI);  // the old preferred direction, initialize to the maximum divergence value
 		double preferredScore = 0.0;  //the ratio (deltaL/ divergence); larger= better. start at 0.
 		
 		// for all directions s, look for an adjacent position within the radius. Maximize the distance and minimize the divergence(=abs(direction -s))
 		for (double s= lower- step; s<= upper+ step; s += step ){  
 			s = roundToCircleQuarters(s); //if very close to 0, Pi/2, Pi, 3*Pi/2, set s to that angle (to cover rounding errors)
-			currentBestPositionThisS = oldPosition; //start at the old position
-			nextPositionThisS = checkNextPosition(radius, x, y, currentBestPositionThisS, distanceStep, s, "isAdjacentPosition"); //look if the next position in this s-direction is passable
-			double newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
+			double[] currentBestPositionThisS = getFarthestPosition(radius, oldPosition, s, true, scan);
 			double currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
 			
-			//while currentBestDistance < nextCheckDistance <= radius, look for a better position.
-			while ( (newCheckDistance <= radius) && (newCheckDistance > currentBestDistance) )  { // within radius and farther than previous
-				currentBestPositionThisS = nextPositionThisS ;
-				nextPositionThisS = checkNextPosition(radius, x, y, currentBestPositionThisS, distanceStep, s, "isAdjacentPosition");
-				newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
-				currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
-			}
-			
 			// save the best position of this s if it's better than the current best position of all s'es
 			double scoreThisS= getScoreThisS(direction, s, currentBestDistance);
 			if ( scoreThisS > preferredScore && (currentBestDistance <= radius)) 
@@ -597,6 +576,126 @@ public class Worm extends Movable{
 		double[] result= {preferredPosition[0], preferredPosition[1],preferredS};
 		return result;
 	}
+	
+	/**
+	 * This method returns the farthest position within this worm's radius in the direction s that can be reached in steps of this.step,
+	 * such that every step lands on an adjacent position (or a passable one). returns the given position if the first step does not.
+	 * @param	adjacent
+	 * 			whether every step has to land on an adjacent position (if false, on a passable position)
+	 * @param	scan
+	 * 			whether every step is checked (scanFarthestPosition()) instead of searched for (solveFarthestPosition())
+	 */
+	private double[] getFarthestPosition(double radius, double[] oldPosition, double s, boolean adjacent, boolean scan) {
+		if (scan)
+			return scanFarthestPosition(radius, oldPosition, s, adjacent);
+		return solveFarthestPosition(radius, oldPosition, s, adjacent);
+	}
+	
+	/**
+	 * This method walks in the direction s from the given position, one step at a time, as long as every step lands on an adjacent
+	 * (or passable) position within this worm's radius, and returns the last position reached.
+	 */
+	private double[] scanFarthestPosition(double radius, double[] oldPosition, double s, boolean adjacent) {
+		double[] nextPositionThisS;
+		double[] currentBestPositionThisS;
+		
+		currentBestPositionThisS = oldPosition; //start at the old position
+		nextPositionThisS = checkNextPosition(radius, currentBestPositionThisS, step, s, adjacent); //look if the next position in this s-direction is adjacent (or passable)
+		double newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
+		double currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
+		
+		//while currentBestDistance < nextCheckDistance <= radius, look for a better position.
+		while ( (newCheckDistance <= radius) && (newCheckDistance > currentBestDistance) )  { // within radius and farther than previous
+			currentBestPositionThisS = nextPositionThisS ;
+			nextPositionThisS = checkNextPosition(radius, currentBestPositionThisS, step, s, adjacent);
+			newCheckDistance = World.pythagorianDistance(oldPosition, nextPositionThisS) ;
+			currentBestDistance = World.pythagorianDistance(oldPosition, currentBestPositionThisS);
+		}
+		return currentBestPositionThisS;
+	}
+	
+	/**
+	 * This method finds the position scanFarthestPosition() walks to, without checking every step.
+	 * 
+	 * The k-th step lands on first + (k-1)*delta (rounded to 5 digits, as every step is), so any step can be checked directly.
+	 * The steps are checked coarse to fine: a stride of a quarter pixel at a time, and a binary search between the last good 
+	 * and the first bad stride. When looking for passable positions, the clearance of a position tells how far all 
+	 * following steps are passable as well, and the stride is stretched to that distance.
+	 * A run of bad steps that is shorter than the stride can be missed, which only happens at features smaller than a pixel.
+	 */
+	private double[] solveFarthestPosition(double radius, double[] oldPosition, double s, boolean adjacent) {
+		World world = this.getWorld();
+		double x = oldPosition[0];
+		double y = oldPosition[1];
+		double firstX = roundToFiveDigits(x + step* Math.cos(s));
+		double firstY = roundToFiveDigits(y + step* Math.sin(s));
+		double deltaX = roundToFiveDigits(step* Math.cos(s));
+		double deltaY = roundToFiveDigits(step* Math.sin(s));
+		double deltaLength = Math.sqrt(deltaX*deltaX + deltaY*deltaY);
+		
+		// the last step that lands within the radius
+		int last = (int) (radius / deltaLength) + 2;
+		while (last > 0 && World.pythagorianDistance(x, y, firstX + (last-1)* deltaX, firstY + (last-1)* deltaY) > radius)
+			last--;
+		if (last == 0 || ! isMovePosition(firstX, firstY, radius, adjacent))
+			return oldPosition;
+		
+		double pixelDiagonal = Math.sqrt(Math.pow(world.getPixelwidth(), 2) + Math.pow(world.getPixelheight(), 2));
+		int stride = Math.max(1, (int) (Math.min(world.getPixelwidth(), world.getPixelheight()) / (4 * deltaLength)));
+		int good = 1;
+		while (good < last) {
+			int next = good + stride;
+			if (! adjacent) {
+				// every position closer than this lies fully in the world and at least radius away from impassable terrain
+				double goodX = roundToFiveDigits(firstX + (good-1)* deltaX);
+				double goodY = roundToFiveDigits(firstY + (good-1)* deltaY);
+				double clearance = world.getClearance(goodX, goodY);
+				double safeDistance = clearance - radius - pixelDiagonal - 1e-5 - clearance * 1e-6;
+				safeDistance = Math.min(safeDistance, Math.min(goodX, world.getWidth() - goodX) - radius);
+				safeDistance = Math.min(safeDistance, Math.min(goodY, world.getHeight() - goodY) - radius);
+				next = Math.max(next, good + (int) (safeDistance / deltaLength));
+			}
+			next = Math.min(next, last);
+			if (isMovePosition(roundToFiveDigits(firstX + (next-1)* deltaX), roundToFiveDigits(firstY + (next-1)* deltaY), radius, adjacent)) {
+				good = next;
+				continue;
+			}
+			// the last good step lies between good and next
+			int bad = next;
+			while (bad - good > 1) {
+				int middle = (good + bad) >>> 1;
+				if (isMovePosition(roundToFiveDigits(firstX + (middle-1)* deltaX), roundToFiveDigits(firstY + (middle-1)* deltaY), radius, adjacent))
+					good = middle;
+				else
+					bad = middle;
+			}
+			break;
+		}
+		double[] result = {roundToFiveDigits(firstX + (good-1)* deltaX), roundToFiveDigits(firstY + (good-1)* deltaY)};
+		return result;
+	}
+	
+	/**
+	 * This method checks whether a step of a move can land on the given position
+	 * @param	adjacent
+	 * 			whether the position has to be adjacent (if false, passable)
+	 * @return	| isValidXPosition(x) && isValidYPosition(y) 
+	 * 			|	&& (adjacent ? this.getWorld().isAdjacentPosition(x, y, radius) : ! this.getWorld().isImpassablePosition(x, y, radius))
+	 */
+	private boolean isMovePosition(double x, double y, double radius, boolean adjacent) {
+		if ( (! this.isValidXPosition(x)) || (! this.isValidYPosition(y)) )
+			return false;
+		if (adjacent)
+			return this.getWorld().isAdjacentPosition(x, y, radius);
+		return ! this.getWorld().isImpassablePosition(x, y, radius);
+	}
+	
+	/**
+	 * This method rounds the given number to 5 digits
+	 */
+	private static double roundToFiveDigits(double value) {
+		return (double)Math.round(value * 100000) / 100000.0;
+	}
 
 	/**
 	 * This method is used to minimize rounding errors
@@ -642,31 +741,16 @@ public class Worm extends Movable{
 	}
 	
 	/**
-	 * This method returns the next position in the direction s if that position isAdjacent or Passable  (the method to be used is given as an argument) 
+	 * This method returns the next position in the direction s if that position isAdjacent or Passable  (as asked for by the given flag) 
 	 */
-	private double[] checkNextPosition(double radius, double x, double y, double[] bestPositionThisS, double distanceStep, double s, String methodName) 
-			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException { 
-		Class<?>[] cArg = {double.class, double.class, double.class};
-		Method method = (World.class).getMethod(methodName, cArg);
-		
+	private double[] checkNextPosition(double radius, double[] bestPositionThisS, double distanceStep, double s, boolean adjacent) { 
 		double[] newPosition = {bestPositionThisS[0] + distanceStep* Math.cos(s) , bestPositionThisS[1] + distanceStep* Math.sin(s)};
-		newPosition[0]= (double)Math.round(newPosition[0] * 100000) / 100000.0; //round to 5 digits
-		newPosition[1]= (double)Math.round(newPosition[1] * 100000) / 100000.0;
+		newPosition[0]= roundToFiveDigits(newPosition[0]); //round to 5 digits
+		newPosition[1]= roundToFiveDigits(newPosition[1]);
 		
-		// if you're looking out of the world, stop the function
-		if ( (! this.isValidXPosition(newPosition[0])) || (! this.isValidYPosition(newPosition[1])) ){
-//			System.out.println("invalid positions, breaking...");
-			return bestPositionThisS; 
-		}
-		if (methodName == "isAdjacentPosition") { //return the new position if it's adjacent
-			if ( (boolean)method.invoke(this.getWorld(), newPosition[0], newPosition[1], radius)) {
-				return newPosition;
-			}
-		}
-		else if (methodName == "isImpassablePosition"){//return the new position if it's passable
-			if ( !(boolean)method.invoke(this.getWorld(), newPosition[0], newPosition[1], radius)) {
-				return newPosition;
-			}
+		// return the new position if it's in the world and adjacent (or passable)
+		if (isMovePosition(newPosition[0], newPosition[1], radius, adjacent)) {
+			return newPosition;
 		}
 		return bestPositionThisS; //if not, return the old position
 	}
@@ -760,23 +844,105 @@ public class Worm extends Movable{
 	public void fall() throws IllegalAccessError {
 		if (! this.isAbleToFall())
 			throw new IllegalAccessError("This Worm is not able to fall");
+		int nbSteps = this.getFallSteps();
+		if (nbSteps < 0) { //if the worm left the world 
+			this.terminate();
+			return;
+		}
+		// the landing position and the distance are summed step by step, as the worm falls
 		double step = this.step;
 		double fallenMeters = 0;
-		double[] fallEndPosition = {this.getXPosition(), this.getYPosition()} ; 
+		double fallEndPosition = this.getYPosition();
+		for (int i = 0; i < nbSteps; i++) {
+			fallEndPosition -= step;
+			fallenMeters += step;
+		}
+		this.setYPosition(fallEndPosition);	
+		this.eat();
+		this.setRemainingHitPoints(this.getRemainingHitPoints() - (int)fallenMeters* fallDamageModifier);   //it's possible you die here, so put this last.
+	}
+	
+	/**
+	 * Returns the number of steps this worm falls before it lands on an adjacent position, or -1 if it falls out of the world first.
+	 * 
+	 * Steps at which the pixel of this worm lies too far from impassable terrain to be adjacent are skipped at once, with the 
+	 * surface index of the world (see World.getTerrainBelow()). Near terrain, every quarter pixel is checked, and the first 
+	 * adjacent step is found with a binary search. An adjacent stretch shorter than a quarter pixel can be missed.
+	 * @return	| scanFallSteps()
+	 */
+	int getFallSteps() {
+		double x = this.getXPosition();
+		double y = this.getYPosition();
 		double radius = this.getRadius();
 		World world = this.getWorld();
+		double pixelDiagonal = Math.sqrt(Math.pow(world.getPixelwidth(), 2) + Math.pow(world.getPixelheight(), 2));
+		// isAdjacentPosition() is false for every position whose clearance is larger than this
+		double reach = (2.1 * radius + pixelDiagonal) * (1 + 1e-5) + 1e-4;
+		double margin = world.getPixelheight() * 1e-6;
 		
-		while ( (!world.isAdjacentPosition(fallEndPosition[0], fallEndPosition[1], radius)) ) {													
-				fallEndPosition[1] -= step;
-				fallenMeters += step;
-				if (!world.isFullyInWorld(fallEndPosition[0],fallEndPosition[1],radius)){ //if the worm left the world 
-					this.terminate();
-					return;
-				}
+		// the first step that lies outside the world
+		int outside = 1;
+		if (world.isFullyInWorld(x, y - step, radius)) {
+			outside = (int) ((y - radius) / step);
+			while (outside > 1 && ! world.isFullyInWorld(x, y - (outside-1)* step, radius))
+				outside--;
+			while (world.isFullyInWorld(x, y - outside* step, radius))
+				outside++;
 		}
-		this.setYPosition(fallEndPosition[1]);	
-		this.eat();
-		this.setRemainingHitPoints(this.getRemainingHitPoints() - (int)fallenMeters* fallDamageModifier);   //it's possible you die here, so put this last.
+		
+		int stride = Math.max(1, (int) (Math.min(world.getPixelwidth(), world.getPixelheight()) / (4 * step)));
+		int clear = 0; // no step up to this one is adjacent
+		while (clear + 1 < outside) {
+			double next = y - (clear + 1)* step;
+			double terrainBelow = world.getTerrainBelow(x, next, reach);
+			if (terrainBelow == Double.NEGATIVE_INFINITY)
+				return -1;
+			if (next >= terrainBelow + margin) {
+				// skip the steps that lie above the terrain
+				int skip = (int) ((y - terrainBelow - margin) / step);
+				while (y - skip* step < terrainBelow + margin)
+					skip--;
+				while (y - (skip+1)* step >= terrainBelow + margin)
+					skip++;
+				clear = Math.min(skip, outside - 1);
+				continue;
+			}
+			int probe = Math.min(clear + stride, outside - 1);
+			if (! world.isAdjacentPosition(x, y - probe* step, radius)) {
+				clear = probe;
+				continue;
+			}
+			// the first adjacent step lies after clear and at or before probe
+			int adjacent = probe;
+			while (adjacent - clear > 1) {
+				int middle = (clear + adjacent) >>> 1;
+				if (world.isAdjacentPosition(x, y - middle* step, radius))
+					adjacent = middle;
+				else
+					clear = middle;
+			}
+			return adjacent;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the number of steps this worm falls before it lands, or -1 if it falls out of the world first, by checking every step.
+	 * This gives the same results as getFallSteps(), at a much higher cost.
+	 * @return	| getFallSteps()
+	 */
+	int scanFallSteps() {
+		double x = this.getXPosition();
+		double y = this.getYPosition();
+		double radius = this.getRadius();
+		World world = this.getWorld();
+		int nbSteps = 0;
+		while ( (!world.isAdjacentPosition(x, y - nbSteps* step, radius)) ) {
+			nbSteps++;
+			if (!world.isFullyInWorld(x, y - nbSteps* step, radius)) //if the worm left the world 
+				return -1;
+		}
+		return nbSteps;
 	}
 	
 	/**
@@ -905,9 +1071,11 @@ public class Worm extends Movable{
 	 * 			weapon to be set as current for this worm
 	 * @effect 	the current weapon of this worm is set to the given weapon
 	 * 			| new.getCurrentWeapon() == weapon
+	 * @effect	| this.invalidateJumpTrajectory()
 	 */
 	public void setCurrentWeapon(Guns weapon) {
 		this.currentWeapon = weapon;
+		this.invalidateJumpTrajectory();
 	}
 	
 	/** Gets the current weapon of this worm
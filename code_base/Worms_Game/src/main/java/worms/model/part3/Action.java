@@ -1,7 +1,9 @@
 package worms.model.part3;
 
-import worms.model.Worm;
-import worms.gui.game.IActionHandler;
+import java.util.List;
+
+import worms.model.Program;
+import worms.model.Trace;
 
 public class Action extends Statement {
 	
@@ -13,22 +15,8 @@ public class Action extends Statement {
 	}
 	
 	@Override
-	public void function(int line){}
-	
-	@Override
-	public void setAppropriateValues(Worm worm, IActionHandler handler){
-		this.worm = worm;
-		this.handler = handler;
-	}
+	public void execute(Program program){}
 	
-	private Worm worm;
-	public Worm getWorm(){
-		return this.worm;
-	}
-	private IActionHandler handler;
-	public IActionHandler getHandler(){
-		return this.handler;
-	}
 	private int line;
 	@Override
 	public int getLine(){
@@ -42,13 +30,11 @@ public class Action extends Statement {
 	
 	@Override
 	public boolean checkForLoop(){
-		System.out.println("checking Action...");
 		return true; // forloop checks ok?
 	}
 	
 	@Override
 	public boolean hasAction(){
-		System.out.println("this is an action!");
 		return true;
 	}
 
@@ -65,26 +51,14 @@ public class Action extends Statement {
 		private Expression<Double> argument;
 		
 		@Override
-		public void function(int line){	
-			if( line == this.getLine() ){
-				System.out.println("The worm turned--------------------------------------");
-				this.getHandler().turn(getWorm(), argument.function(line).getValue());
-				this.getWorm().getProgram().programCounterIncrement(); 
-				//System.out.println("New Direction: "+this.getWorm().getDirection());
-			}
-			this.getWorm().getProgram().programLineIncrement(); 
+		public void execute(Program program){
+			program.getTrace().log(Trace.Category.ACTION, Trace.Level.DEBUG, "executing", this);
+			program.getActionHandler().turn(program.getWorm(), argument.evalDouble(program));
 		}
 		
 		@Override
 		public String toString(){
-			return "turn( "+this.getWorm()+" "+argument.toString()+" )";
-		}
-		
-		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){	
-			super.setAppropriateValues(worm, handler);
-			argument.setAppropriateValues(worm, handler);
-			System.out.println("Turn is set");
+			return "turn( "+argument.toString()+" )";
 		}
 	}
 	
@@ -96,17 +70,13 @@ public class Action extends Statement {
 		}
 		
 		@Override
-		public void function(int line){
-			if( line == this.getLine() ){
-				this.getHandler().move(this.getWorm());
-				this.getWorm().getProgram().programCounterIncrement(); 
-			}
-			this.getWorm().getProgram().programLineIncrement();
+		public void execute(Program program){
+			program.getActionHandler().move(program.getWorm());
 		}
 		
 		@Override
 		public String toString(){
-			return "move( "+this.getWorm()+" )";
+			return "move( )";
 		}
 	}
 	
@@ -118,17 +88,13 @@ public class Action extends Statement {
 		}
 		
 		@Override
-		public void function(int line){
-			if( line == this.getLine() ){
-				this.getHandler().jump(this.getWorm());
-				this.getWorm().getProgram().programCounterIncrement(); 
-			}
-			this.getWorm().getProgram().programLineIncrement();
+		public void execute(Program program){
+			program.getActionHandler().jump(program.getWorm());
 		}
 		
 		@Override
 		public String toString(){
-			return "jump( "+this.getWorm()+" )";
+			return "jump( )";
 		}
 	}
 	
@@ -143,25 +109,14 @@ public class Action extends Statement {
 		public Expression<Double> argument;
 		
 		@Override
-		public void function(int line){
-			if( line == this.getLine() ){
-				int i = argument.function(line).intValue();
-				this.getHandler().fire(this.getWorm(), i);
-				this.getWorm().getProgram().programCounterIncrement(); 
-			}
-			this.getWorm().getProgram().programLineIncrement();
+		public void execute(Program program){
+			int i = (int) argument.evalDouble(program);
+			program.getActionHandler().fire(program.getWorm(), i);
 		}
 		
 		@Override
 		public String toString(){
-			return "fire( "+this.getWorm()+" "+argument.toString()+" )";
-		}
-		
-		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){
-			super.setAppropriateValues(worm, handler);
-			argument.setAppropriateValues(worm, handler);
-			System.out.println("Fire is set.");
+			return "fire( "+argument.toString()+" )";
 		}
 	}
 	
@@ -173,17 +128,13 @@ public class Action extends Statement {
 		}
 		
 		@Override
-		public void function(int line){
-			if( line == this.getLine() ){
-				this.getHandler().toggleWeapon(this.getWorm());
-				this.getWorm().getProgram().programCounterIncrement(); 
-			}
-			this.getWorm().getProgram().programLineIncrement(); 
+		public void execute(Program program){
+			program.getActionHandler().toggleWeapon(program.getWorm());
 		}
 		
 		@Override
 		public String toString(){
-			return "toggleWeap( "+this.getWorm()+" )";
+			return "toggleWeap( )";
 		}
 	}
 	
@@ -195,11 +146,12 @@ public class Action extends Statement {
 		}
 		
 		@Override
-		public void function(int line){
-			if( line == this.getLine() ){
-				this.getWorm().getProgram().programCounterIncrement(); 
-			}
-			this.getWorm().getProgram().programLineIncrement(); 
+		public void execute(Program program){
+		}
+		
+		@Override
+		public void compile(List<Instruction> code){
+			// a skip does nothing, so it is not compiled at all (chains of skips disappear from the code)
 		}
 		
 		@Override
@@ -1,26 +1,18 @@
 package worms.model.part3;
 
-import worms.gui.game.IActionHandler;
-import worms.model.Worm;
+import worms.model.Program;
+import worms.model.Trace;
 
 public class Assignment extends Statement {
 	
 	private String argumentLeft;
+	private int slot;
 	private Expression<Type> argumentRight;
-	private Worm worm;
-	public Worm getWorm(){
-		return this.worm;
-	}
 	
-	public Assignment(String argumentLeft, Expression<Type> argumentRight, int line, Type t){
-		System.out.print("-------------- AS CONSTRUCT -----------------------");
-//		System.out.println(line);
-		System.out.print(t.getClass()); System.out.print(" ");
-		System.out.println(argumentRight.getReturnType());
-		if(t.getClass() != null && argumentRight.getReturnType() != null && t.getClass() != argumentRight.getReturnType()){
-			throw new IllegalArgumentException();
-		}
+	public Assignment(String argumentLeft, int slot, Expression<Type> argumentRight, int line, Type t){
+		// the declared type of the variable is checked against the right hand side by ProgramFactoryImplementation
 		this.argumentLeft = argumentLeft;
+		this.slot = slot;
 		this.argumentRight = argumentRight;
 		this.line = line;
 	}
@@ -35,31 +27,47 @@ public class Assignment extends Statement {
 		return argumentRight;
 	}
 	
-	public void setAssignmentPartner(Expression<Type> a){
-		this.argumentRight = a;
+	/**
+	 * Variable registering whether the right hand side of this assignment has been verified to have the declared type of the variable
+	 */
+	private boolean verified;
+	
+	/**
+	 * Returns whether the right hand side of this assignment has been verified to have the declared type of the variable
+	 * when the program was parsed, so that the current value of the variable does not have to be checked on every execution.
+	 */
+	public boolean isVerified(){
+		return this.verified;
+	}
+	
+	/**
+	 * Registers that the right hand side of this assignment has the declared type of the variable
+	 * @post	| new.isVerified()
+	 */
+	void verify(){
+		this.verified = true;
 	}
 	
 	@Override
-	public void function(int line) {
-		if ( line == this.getLine()){
-//			System.out.print("before assignment: ");System.out.print(argumentLeft);System.out.print(", "); System.out.println(argumentRight);
-//			System.out.print(argumentRight); System.out.println(argumentRight.function(line));
-			
-			Class<?> arguRClass= argumentRight.getReturnType();
-			Type arguL = this.getWorm().getProgram().getGlobals().get(argumentLeft);
-			if (arguL == null)
-				this.getWorm().getProgram().getGlobals().put(argumentLeft, argumentRight.function(line));
-			else {
-				if (arguRClass == null || okToAssign(arguRClass, arguL))
-					this.getWorm().getProgram().getGlobals().put(argumentLeft, argumentRight.function(line));
-				else{
-					throw new IllegalArgumentException();
-				}	
-			}
-			System.out.print("after assignment done: ");System.out.print(argumentLeft);System.out.print(", "); System.out.println(argumentRight);
-			this.getWorm().getProgram().programCounterIncrement(); 
+	public void execute(Program program) {
+		VariableFrame frame = program.getFrame();
+		if (this.verified){
+			frame.set(slot, argumentRight.function(program));
+			program.getTrace().log(Trace.Category.STATEMENT, Trace.Level.DEBUG, "assigned", this);
+			return;
 		}
-		this.getWorm().getProgram().programLineIncrement(); 
+		Class<?> arguRClass= argumentRight.getReturnType();
+		Type arguL = frame.get(slot);
+		if (arguL == null)
+			frame.set(slot, argumentRight.function(program));
+		else {
+			if (arguRClass == null || okToAssign(arguRClass, arguL))
+				frame.set(slot, argumentRight.function(program));
+			else{
+				throw new IllegalArgumentException();
+			}	
+		}
+		program.getTrace().log(Trace.Category.STATEMENT, Trace.Level.DEBUG, "assigned", this);
 	}
 	
 	private boolean okToAssign(Class<?> arguRClass, Type arguL){
@@ -74,13 +82,6 @@ public class Assignment extends Statement {
 		return result;
 	}
 
-	@Override
-	public void setAppropriateValues(Worm worm, IActionHandler handler) {
-		this.worm=worm;
-		System.out.println("SAP assignment");
-		argumentRight.setAppropriateValues(worm, handler);
-	}
-	
 	@Override
 	public String toString(){
 		return argumentLeft+" := "+argumentRight.toString();
@@ -2,6 +2,19 @@ package worms.model.part3;
 
 public class Boolean extends Type {
 	
+	/**
+	 * The shared Boolean values, so evaluating a condition does not allocate
+	 */
+	public static final Boolean TRUE = new Boolean(true);
+	public static final Boolean FALSE = new Boolean(false);
+	
+	/**
+	 * Returns the shared Boolean with the given value
+	 */
+	public static Boolean valueOf(boolean b){
+		return b ? TRUE : FALSE;
+	}
+	
 	private boolean b;
 	
 	public Boolean(boolean b){
@@ -15,5 +28,10 @@ public class Boolean extends Type {
 	public boolean equals(Boolean first, Boolean second){
 		return first.getValue() == second.getValue();
 	}
+	
+	@Override
+	public String toString(){
+		return String.valueOf(this.b);
+	}
 
 }
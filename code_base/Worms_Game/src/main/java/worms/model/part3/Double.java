@@ -19,5 +19,10 @@ public class Double extends Type {
 	public boolean equals(Double first, Double second){
 		return first.getValue() == second.getValue();
 	}
+	
+	@Override
+	public String toString(){
+		return java.lang.Double.toString(this.d);
+	}
 
 }
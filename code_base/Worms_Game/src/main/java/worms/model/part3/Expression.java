@@ -1,27 +1,101 @@
 package worms.model.part3;
 
-import worms.gui.game.IActionHandler;
-import worms.model.Worm;
+import worms.model.Program;
 
 public abstract class Expression<T> {
 	/**
-	 * This method returns the result of the evaluation of this expression. The result is of type T.
+	 * This method returns the result of the evaluation of this expression for the given program
+	 * (which holds the worm, the action handler and the variables). The result is of type T.
+	 * Expressions do not store any of these themselves, so one expression can be shared by many programs.
 	 */
-	public T function(int line){
+	public T function(Program program){
 		System.out.println("This top-level function() should be overridden... ");
 		return null;
 	}
 	
+	/**
+	 * This method returns the result of the evaluation of this Double expression as a primitive double.
+	 * Numeric expressions override this, so that they evaluate without allocating a Double.
+	 */
+	public double evalDouble(Program program){
+		return ((Double) this.function(program)).getValue();
+	}
+	
+	/**
+	 * This method returns the result of the evaluation of this Boolean expression as a primitive boolean.
+	 * Boolean expressions override this, so that they evaluate without allocating a Boolean.
+	 */
+	public boolean evalBoolean(Program program){
+		return ((Boolean) this.function(program)).getValue();
+	}
+	
 	public Class<?> getReturnType(){
 		return null;
 	}
 	
-	public void setAppropriateValues(Worm worm, IActionHandler handler){
-		this.worm = worm;
-		this.handler= handler;
+	/**
+	 * This method returns whether this expression has the same value every time it is evaluated, for every program.
+	 */
+	public boolean isConstant(){
+		return false;
+	}
+	
+	/**
+	 * This method returns whether all arguments of this expression are constant (see isConstant()).
+	 * An expression without arguments has no constant arguments.
+	 */
+	public boolean hasConstantArguments(){
+		return false;
+	}
+	
+	/**
+	 * This method returns a description of the type error in the arguments of this expression, or null if there is none.
+	 * Arguments of which the type is not known before the program runs (their return type is null) are accepted.
+	 */
+	public String getTypeError(){
+		return null;
+	}
+	
+	/**
+	 * This method returns whether the return types of all arguments of this expression are known before the program runs.
+	 */
+	public boolean hasKnownArgumentTypes(){
+		return true;
+	}
+	
+	/**
+	 * Variable registering whether the types of the arguments of this expression have been verified when the program was parsed
+	 */
+	private boolean verified;
+	
+	/**
+	 * Returns whether the types of the arguments of this expression have been verified when the program was parsed
+	 * (see ProgramFactoryImplementation), so that they do not have to be checked each time it is evaluated.
+	 */
+	public boolean isVerified(){
+		return this.verified;
+	}
+	
+	/**
+	 * Registers that the types of the arguments of this expression have been verified
+	 * @post	| new.isVerified()
+	 */
+	void verify(){
+		this.verified = true;
+	}
+	
+	/**
+	 * Checks the types of the arguments of this expression, unless they have been verified already
+	 * @throws	IllegalArgumentException
+	 * 			| ! this.isVerified() && this.getTypeError() != null
+	 */
+	protected void checkTypes() throws IllegalArgumentException {
+		if (! this.verified){
+			String error = this.getTypeError();
+			if (error != null)
+				throw new IllegalArgumentException(error);
+		}
 	}
-	protected Worm worm;
-	protected IActionHandler handler;
 	
 	@Override
 	public abstract String toString();
@@ -0,0 +1,246 @@
+package worms.model.part3;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import worms.model.GameObject;
+import worms.model.Program;
+
+/**
+ * One instruction of a compiled program.
+ *
+ * A program is compiled once to a flat array of instructions (see compile()). Executing an instruction
+ * returns the index of the next instruction, so the interpreter only has to keep an index into this array:
+ * control statements become conditional jumps instead of being searched for by their line number.
+ * Instructions keep no state of their own (state such as the iteration of a loop is kept by the program),
+ * so the same code can be executed by many programs.
+ */
+public abstract class Instruction {
+
+	/**
+	 * Constructor for an instruction
+	 * @param 	statement
+	 * 			the statement this instruction was compiled from
+	 * @post	| new.getStatement() == statement
+	 */
+	protected Instruction(Statement statement) {
+		this.statement = statement;
+	}
+
+	/**
+	 * Variable holds the statement this instruction was compiled from
+	 */
+	private final Statement statement;
+
+	/**
+	 * Returns the statement this instruction was compiled from
+	 */
+	public Statement getStatement() {
+		return this.statement;
+	}
+
+	/**
+	 * Returns the line of the statement this instruction was compiled from
+	 * @return	| this.getStatement().getLine()
+	 */
+	public int getLine() {
+		return this.statement.getLine();
+	}
+
+	/**
+	 * Executes this instruction
+	 * @param 	program
+	 * 			the program that executes this instruction
+	 * @param 	index
+	 * 			the index of this instruction in the code of the program
+	 * @return	the index of the instruction to be executed next
+	 */
+	public abstract int execute(Program program, int index);
+
+	/**
+	 * Compiles the given statement to a flat array of instructions
+	 * @param 	statement
+	 * 			the statement to be compiled
+	 * @return	the instructions of the statement, the program starts at index 0 and ends at index result.length
+	 */
+	public static Instruction[] compile(Statement statement) {
+		List<Instruction> code = new ArrayList<Instruction>();
+		statement.compile(code);
+		return code.toArray(new Instruction[code.size()]);
+	}
+
+	// ------------------- nested classes ----------------------------
+
+	//---------------  Execute ----------------------------
+	/**
+	 * Executes a simple statement (an action, assignment or print) and counts it.
+	 */
+	public static class Execute extends Instruction {
+
+		public Execute(Statement statement) {
+			super(statement);
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			this.getStatement().execute(program);
+			program.programCounterIncrement();
+			return index + 1;
+		}
+
+		@Override
+		public String toString() {
+			return "execute " + this.getStatement();
+		}
+	}
+
+	//---------------  Count ----------------------------
+	/**
+	 * Counts a control statement when it is finished (or an iteration of a loop without statements).
+	 */
+	public static class Count extends Instruction {
+
+		public Count(Statement statement) {
+			super(statement);
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			program.programCounterIncrement();
+			return index + 1;
+		}
+
+		@Override
+		public String toString() {
+			return "count";
+		}
+	}
+
+	//---------------  Jump ----------------------------
+	/**
+	 * Jumps to a fixed instruction.
+	 */
+	public static class Jump extends Instruction {
+
+		public Jump(Statement statement, int target) {
+			super(statement);
+			this.target = target;
+		}
+
+		private int target;
+
+		public int getTarget() {
+			return this.target;
+		}
+
+		void setTarget(int target) {
+			this.target = target;
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			return this.target;
+		}
+
+		@Override
+		public String toString() {
+			return "jump " + this.target;
+		}
+	}
+
+	//---------------  JumpIfFalse ----------------------------
+	/**
+	 * Evaluates a condition and jumps to a fixed instruction if it is false.
+	 */
+	public static class JumpIfFalse extends Instruction {
+
+		public JumpIfFalse(Statement statement, Expression<Boolean> condition) {
+			super(statement);
+			this.condition = condition;
+		}
+
+		private final Expression<Boolean> condition;
+
+		private int target;
+
+		public int getTarget() {
+			return this.target;
+		}
+
+		void setTarget(int target) {
+			this.target = target;
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			if (this.condition.evalBoolean(program))
+				return index + 1;
+			return this.target;
+		}
+
+		@Override
+		public String toString() {
+			return "jumpIfFalse " + this.condition + " " + this.target;
+		}
+	}
+
+	//---------------  ForEachStart ----------------------------
+	/**
+	 * Starts the iteration of a for each loop.
+	 */
+	public static class ForEachStart extends Instruction {
+
+		public ForEachStart(Control.ForEach statement) {
+			super(statement);
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			// the iteration is state of the program, kept for the ForEachNext instruction that follows
+			program.setInstructionState(index + 1, ((Control.ForEach) this.getStatement()).iterator(program));
+			return index + 1;
+		}
+
+		@Override
+		public String toString() {
+			return "forEachStart";
+		}
+	}
+
+	//---------------  ForEachNext ----------------------------
+	/**
+	 * Assigns the next object to the variable of a for each loop, or jumps to a fixed instruction if there is none.
+	 */
+	public static class ForEachNext extends Instruction {
+
+		public ForEachNext(Control.ForEach statement) {
+			super(statement);
+		}
+
+		private int target;
+
+		public int getTarget() {
+			return this.target;
+		}
+
+		void setTarget(int target) {
+			this.target = target;
+		}
+
+		@Override
+		public int execute(Program program, int index) {
+			@SuppressWarnings("unchecked")
+			Iterator<GameObject> remaining = (Iterator<GameObject>) program.getInstructionState(index);
+			if (! remaining.hasNext())
+				return this.target;
+			program.getFrame().set(((Control.ForEach) this.getStatement()).getSlot(), remaining.next());
+			return index + 1;
+		}
+
+		@Override
+		public String toString() {
+			return "forEachNext " + this.target;
+		}
+	}
+}
@@ -1,14 +1,11 @@
 package worms.model.part3;
 
-import java.util.LinkedList;
 
-import worms.model.Facade;
+import worms.model.Program;
 import worms.model.Worm;
 import worms.model.Food;
 import worms.model.GameObject;
-import worms.model.exceptions.IllegalPositionException;
 import worms.model.part3.Type;
-import worms.gui.game.IActionHandler;
 
 
 public class OneArgument extends Expression<Type> {
@@ -30,18 +27,29 @@ public class OneArgument extends Expression<Type> {
 		return this.line;
 	}
 	
-	private Facade facade= new Facade();
+	/**
+	 * Returns the given message if the argument of this expression has a known return type other than the given type
+	 */
+	protected String expectArgument(Class<?> type, String message){
+		Class<?> argumentType = getArgument().getReturnType();
+		if (argumentType != null && argumentType != type)
+			return message;
+		return null;
+	}
 	
 	@Override
-	public String toString(){
-		return "Superclass OneArgument "+argument.toString();
+	public boolean hasKnownArgumentTypes(){
+		return getArgument().getReturnType() != null;
+	}
+	
+	@Override
+	public boolean hasConstantArguments(){
+		return getArgument().isConstant();
 	}
 	
 	@Override
-	public void setAppropriateValues(Worm worm, IActionHandler handler){
-		super.setAppropriateValues(worm, handler);
-		System.out.println("Set values, OneArg");
-		this.argument.setAppropriateValues(worm, handler);
+	public String toString(){
+		return "Superclass OneArgument "+argument.toString();
 	}
 	
 	// ------------------------------------ nested classes ---------------------------------------
@@ -52,31 +60,17 @@ public class OneArgument extends Expression<Type> {
 			super(argument, line);
 		}
 		
-		private Worm worm;
+		@Override
+		public Type function(Program program) {
+			Worm worm = program.getWorm();
+			double dir = worm.getDirection() + this.getArgument().evalDouble(program);
+			// circles of 0.2 meter, one every meter, until the edge of the world
+			return worm.getWorld().searchWorm(worm.getXPosition(), worm.getYPosition(), dir, 1, 0.2);
+		}
 		
 		@Override
-		public Type function(int line) {
-			double dir = worm.getDirection() + ((Double) this.getArgument().function(line)).getValue();
-			LinkedList<GameObject> ListOfObjectsToCheck = new LinkedList<>();
-			for(Worm w: worm.getWorld().getAllWorms()){
-				ListOfObjectsToCheck.add((GameObject) w);
-			}
-			try{
-				int i = 1;
-				while (true){
-					double[] pos = {worm.getXPosition() + i*Math.cos(dir),  worm.getYPosition() + i*Math.sin(dir)};
-					GameObject g = worm.getWorld().overlapsWith(pos, 0.2, ListOfObjectsToCheck);
-					if (g != null){
-						return g;
-					}
-					else {
-						i++;
-					}
-				}
-			}
-			catch (IllegalPositionException e){
-				return null;
-			}
+		public String getTypeError() {
+			return expectArgument(Double.class, "You tried to searchobj some non-Double");
 		}
 		
 		@Override
@@ -88,15 +82,6 @@ public class OneArgument extends Expression<Type> {
 		public String toString(){
 			return "SearchObj( "+getArgument().toString()+" )";
 		}
-		
-		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){
-			System.out.print("SearchObj is now set: ");
-System.out.print("SearchObj is now set: ");
-			this.worm = worm;
-			super.setAppropriateValues(worm, handler);
-			System.out.println(this.worm);
-		}
 	}
 	
 	public class Not extends OneArgument {
@@ -106,17 +91,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Boolean function(int line) throws IllegalArgumentException {
-			Class<?> type = getArgument().getReturnType();
-			if (type == Boolean.class){
-				if (((Boolean) getArgument().function(line)).getValue())
-					return new Boolean(false);
-				else
-					return new Boolean(true);
-			}
-			else throw new IllegalArgumentException("You tried to not some not-Booleans");
+		public Boolean function(Program program) throws IllegalArgumentException {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) throws IllegalArgumentException {
+			this.checkTypes();
+			return ! getArgument().evalBoolean(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Boolean.class, "You tried to not some not-Booleans");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Boolean.class;
@@ -134,30 +123,27 @@ System.out.print("SearchObj is now set: ");
 			super(argument, line);
 		}
 		
-		private Worm worm;
+		@Override
+		public Boolean function(Program program) throws IllegalArgumentException {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
 		
 		@Override
-		public Boolean function(int line) throws IllegalArgumentException {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Entity.class  && type != null){
-				throw new IllegalArgumentException("You tried to sameteam some non-Entity");
-			}	
-			if ( getArgument().function(line) == null || ((Worm) getArgument().function(line)).getTeam() == null || worm.getTeam() == null)
-				return new Boolean(false);
-			else if ( ((Worm) getArgument().function(line)).getTeam() == worm.getTeam() ){
-					return new Boolean(true);
+		public boolean evalBoolean(Program program) throws IllegalArgumentException {
+			this.checkTypes();
+			if ( getArgument().function(program) == null || ((Worm) getArgument().function(program)).getTeam() == null || program.getWorm().getTeam() == null)
+				return false;
+			else if ( ((Worm) getArgument().function(program)).getTeam() == program.getWorm().getTeam() ){
+					return true;
 				}
-			return new Boolean(false);
+			return false;
 		}
 		
 		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){
-			this.worm = worm;
-			super.setAppropriateValues(worm, handler);
-			System.out.println("SameTeam. Worm is set to: ");
-			System.out.println(this.worm);
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to sameteam some non-Entity");
 		}
-
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Boolean.class;
@@ -176,17 +162,24 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Entity.class && type != null){ // because you can have a null value
-				throw new IllegalArgumentException("You tried to isWorm some non-Entity");
-			}
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
 			if (getArgument().equals(Worm.class))
-				return new Boolean(true);
+				return true;
 			else
-				return new Boolean(false);
+				return false;
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to isWorm some non-Entity");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Boolean.class;
@@ -205,17 +198,24 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Entity.class && type != null){ // you can hava a null value
-				throw new IllegalArgumentException("You tried to isFood some non-entity");
-			}	
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
 			if (getArgument().getClass().equals(Food.class))
-				return new Boolean(true);
+				return true;
 			else
-				return new Boolean(false);
+				return false;
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to isFood some non-entity");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Boolean.class;
@@ -234,14 +234,19 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Type function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Double.class){
-				throw new IllegalArgumentException("You tried to sqrt some non-double");
-			}
-			double a = ((Double) getArgument().function(line)).getValue();
-			double s = Math.sqrt(a);
-			return new Double(s);
+		public Type function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return Math.sqrt(getArgument().evalDouble(program));
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Double.class, "You tried to sqrt some non-double");
 		}
 		
 		public Class<?> getReturnType(){
@@ -261,15 +266,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Double.class){
-				throw new IllegalArgumentException("You tried to sin some non-Double");
-			}
-			double a = ((Double) getArgument().function(line)).getValue();
-			return new Double(Math.sin(a));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return Math.sin(getArgument().evalDouble(program));
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Double.class, "You tried to sin some non-Double");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Double.class;
@@ -288,15 +299,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (type != Double.class){
-				throw new IllegalArgumentException("You tried to cos some non-Double");
-			}
-			double a = ((Double) getArgument().function(line)).getValue();
-			return new Double(Math.cos(a));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return Math.cos(getArgument().evalDouble(program));
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Double.class, "You tried to cos some non-Double");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Double.class;
@@ -315,22 +332,29 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){ //check if not an Entity or subclass of Entity 
-				throw new IllegalArgumentException("You tried to getx some non-entity");
-			}
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
 			
-			GameObject e = (GameObject)(getArgument().function(line));  //removed the getValue because it caused nullPointers
+			GameObject e = (GameObject)(getArgument().function(program));  //removed the getValue because it caused nullPointers
 			if (e instanceof Food){
-				return new Double(facade.getX((Food)e)); 
+				return ((Food)e).getXPosition(); 
 			}
 			else if (e instanceof Worm){
-				return new Double(facade.getX((Worm)e));
+				return ((Worm)e).getXPosition();
 			}
 			throw new IllegalArgumentException("getX is not available on the given Type.");
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getx some non-entity");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Double.class;
@@ -349,21 +373,28 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to gety some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			if (e instanceof Food){
-				return new Double(facade.getY((Food)e));
+				return ((Food)e).getYPosition();
 			}
 			else if (e instanceof Worm){
-				return new Double(facade.getY((Worm)e));
+				return ((Worm)e).getYPosition();
 			}
 			throw new IllegalArgumentException("getY is not available on the given Type.");
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to gety some non-entity");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Double.class;
@@ -382,21 +413,28 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to getradius some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			if (e instanceof Food){
-				return new Double(facade.getRadius((Food)e));
+				return ((Food)e).getRadius();
 			}
 			else if (e instanceof Worm){
-				return new Double(facade.getRadius((Worm)e));
+				return ((Worm)e).getRadius();
 			}
 			throw new IllegalArgumentException("getRadius is not available on the given Type.");
 		}
 		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getradius some non-entity");
+		}
+		
 		@Override
 		public Class<?> getReturnType() {
 			return Double.class;
@@ -415,14 +453,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to getdirection some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			Worm w = (Worm) e;
-			return new Double(facade.getOrientation(w));
+			return w.getDirection();
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getdirection some non-entity");
 		}
 		
 		@Override
@@ -443,14 +488,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to getap some non-entity");
-			}
-			GameObject e = (GameObject) getArgument().function(line);
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = (GameObject) getArgument().function(program);
 			Worm w = (Worm) e;
-			return new Double(facade.getActionPoints(w));
+			return w.getRemainingActionPoints();
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getap some non-entity");
 		}
 		
 		@Override
@@ -471,14 +523,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to getmaxap some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			Worm w = (Worm) e;
-			return new Double(facade.getMaxActionPoints(w));
+			return w.getMaxActionPoints();
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getmaxap some non-entity");
 		}
 		
 		@Override
@@ -499,14 +558,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to gethp some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			Worm w = (Worm) e;
-			return new Double(facade.getHitPoints(w));
+			return w.getRemainingHitPoints();
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to gethp some non-entity");
 		}
 		
 		@Override
@@ -527,14 +593,21 @@ System.out.print("SearchObj is now set: ");
 		}
 		
 		@Override
-		public Double function(int line) {
-			Class<?> type = getArgument().getReturnType();
-			if (! ((Entity.class).isAssignableFrom(type)) ){
-				throw new IllegalArgumentException("You tried to getmaxhp some non-entity");
-			}
-			GameObject e = ((GameObject) getArgument().function(line));
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			GameObject e = ((GameObject) getArgument().function(program));
 			Worm w = (Worm) e;
-			return new Double(facade.getMaxHitPoints(w));
+			return w.getMaxHitPoints();
+		}
+		
+		@Override
+		public String getTypeError() {
+			return expectArgument(Entity.class, "You tried to getmaxhp some non-entity");
 		}
 		
 		@Override
@@ -1,18 +1,14 @@
 package worms.model.part3;
 
-import worms.gui.game.IActionHandler;
-import worms.model.Worm;
+import worms.model.Program;
+import worms.model.Trace;
 
 /*
- * this class prints the result of the statements it contains
+ * this class prints the result of the expression it contains, through the action handler of the program
  */
 public class Print extends Statement {
 	
 	private Expression<Type> s;
-	private Worm worm;
-	public Worm getWorm() {
-		return this.worm;
-	}
 	
 	public Print(Expression<Type> statement, int line){
 		this.s = statement;
@@ -26,21 +22,12 @@ public class Print extends Statement {
 	}
 	
 	@Override
-	public void function(int line){
-		if ( line == this.line){
-			System.out.println(s.toString());
-			this.getWorm().getProgram().programCounterIncrement(); 
-		}
-		this.getWorm().getProgram().programLineIncrement(); 
-		
+	public void execute(Program program){
+		String message = String.valueOf(s.function(program));
+		program.getTrace().log(Trace.Category.STATEMENT, Trace.Level.INFO, "printing", message);
+		program.getActionHandler().print(message);
 	}
 
-	@Override
-	public void setAppropriateValues(Worm worm, IActionHandler handler) {
-		s.setAppropriateValues(worm, handler);
-		this.worm=worm;
-	}
-	
 	@Override
 	public String toString(){
 		return "print( "+s.toString()+" )";
@@ -0,0 +1,126 @@
+package worms.model.part3;
+
+import worms.model.Profile;
+import worms.model.Program;
+
+/**
+ * An expression that times the evaluation of another expression, as a node of a profile.
+ *
+ * ProgramFactoryImplementation wraps every expression in one of these when it parses a program in profiling mode,
+ * so programs parsed without profiling do not pay for it. An expression is only timed when it is evaluated by a
+ * program with a profile; when it is evaluated while the program is parsed (to fold a constant) it is not.
+ */
+public class ProfiledExpression<T> extends Expression<T> {
+
+	/**
+	 * Constructor for a profiled expression
+	 * @param 	expression
+	 * 			the expression that is timed
+	 * @param 	node
+	 * 			the node of the profile in which the expression is timed
+	 */
+	public ProfiledExpression(Expression<T> expression, Profile.Node node) {
+		this.expression = expression;
+		this.node = node;
+	}
+
+	private final Expression<T> expression;
+
+	/**
+	 * Returns the expression that is timed
+	 */
+	public Expression<T> getExpression() {
+		return this.expression;
+	}
+
+	private final Profile.Node node;
+
+	/**
+	 * Returns the node of the profile in which the expression is timed
+	 */
+	public Profile.Node getNode() {
+		return this.node;
+	}
+
+	@Override
+	public T function(Program program) {
+		Profile profile = (program == null) ? null : program.getProfile();
+		if (profile == null)
+			return this.expression.function(program);
+		profile.enter(this.node);
+		try {
+			return this.expression.function(program);
+		}
+		finally {
+			profile.exit();
+		}
+	}
+
+	@Override
+	public double evalDouble(Program program) {
+		Profile profile = (program == null) ? null : program.getProfile();
+		if (profile == null)
+			return this.expression.evalDouble(program);
+		profile.enter(this.node);
+		try {
+			return this.expression.evalDouble(program);
+		}
+		finally {
+			profile.exit();
+		}
+	}
+
+	@Override
+	public boolean evalBoolean(Program program) {
+		Profile profile = (program == null) ? null : program.getProfile();
+		if (profile == null)
+			return this.expression.evalBoolean(program);
+		profile.enter(this.node);
+		try {
+			return this.expression.evalBoolean(program);
+		}
+		finally {
+			profile.exit();
+		}
+	}
+
+	@Override
+	public Class<?> getReturnType() {
+		return this.expression.getReturnType();
+	}
+
+	@Override
+	public boolean isConstant() {
+		return this.expression.isConstant();
+	}
+
+	@Override
+	public boolean hasConstantArguments() {
+		return this.expression.hasConstantArguments();
+	}
+
+	@Override
+	public String getTypeError() {
+		return this.expression.getTypeError();
+	}
+
+	@Override
+	public boolean hasKnownArgumentTypes() {
+		return this.expression.hasKnownArgumentTypes();
+	}
+
+	@Override
+	public boolean isVerified() {
+		return this.expression.isVerified();
+	}
+
+	@Override
+	void verify() {
+		this.expression.verify();
+	}
+
+	@Override
+	public String toString() {
+		return this.expression.toString();
+	}
+}
@@ -1,7 +1,11 @@
 package worms.model.part3;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import worms.model.Profile;
 import worms.model.programs.ProgramFactory;
 import worms.model.programs.ProgramParser;
 
@@ -9,117 +13,282 @@ import worms.model.programs.ProgramParser;
 public class ProgramFactoryImplementation
   implements ProgramFactory<Expression<Type>, Statement, Type>{
 	
-	private static ZeroArguments Z = new ZeroArguments<Type>();
-	private static OneArgument O = new OneArgument();
-	private static TwoArguments T = new TwoArguments();
-	private static Control C = new Control();
-	private static Action A = new Action();
+	/**
+	 * The enclosing instances of the statements and expressions made by this factory (they keep no state).
+	 * Every factory has its own, so factories can be used by different threads at the same time.
+	 */
+	private final ZeroArguments Z = new ZeroArguments<Type>();
+	private final OneArgument O = new OneArgument();
+	private final TwoArguments T = new TwoArguments();
+	private final Control C = new Control();
+	private final Action A = new Action();
 	private ProgramParser<Expression<Type>,Statement,Type> parser;
 	
 public void setParser(ProgramParser<Expression<Type>,Statement,Type> parser){
 	this.parser = parser;
 }
 
+	/**
+	 * The slots of the variables used in the parsed program, by name
+	 */
+	private final Map<String, Integer> slots = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * Returns the slot of the variable with the given name, giving it the next free slot if it has none yet
+	 */
+	public int getSlot(String name) {
+		Integer slot = this.slots.get(name);
+		if (slot == null) {
+			slot = this.slots.size();
+			this.slots.put(name, slot);
+		}
+		return slot;
+	}
+
+	/**
+	 * Forgets the slots and type errors of the previously parsed program, so that this factory can be used for the next one
+	 */
+	public void reset() {
+		this.slots.clear();
+		this.typeErrors.clear();
+		this.profile = this.isProfiling ? new Profile() : null;
+	}
+
+	/**
+	 * Returns the names of the variables used in the parsed program, by slot
+	 */
+	public String[] getSlotNames() {
+		return this.slots.keySet().toArray(new String[this.slots.size()]);
+	}
+
+	// ------------------------- profiling -----------------------------
+
+	/**
+	 * Variable registering whether this factory makes programs that can be profiled
+	 */
+	private boolean isProfiling;
+
+	/**
+	 * Returns whether this factory makes programs that can be profiled
+	 */
+	public boolean isProfiling() {
+		return this.isProfiling;
+	}
+
+	/**
+	 * Sets whether this factory makes programs that can be profiled, from the next reset on
+	 * @post	| new.isProfiling() == flag
+	 */
+	public void setProfiling(boolean flag) {
+		this.isProfiling = flag;
+	}
+
+	/**
+	 * The profile of the parsed program, null if this factory is not profiling
+	 */
+	private Profile profile;
+
+	/**
+	 * Returns the profile of the parsed program, in which its statements and expressions are nodes
+	 * (null if the program is parsed without profiling)
+	 */
+	public Profile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * Returns the given expression, created at the given position, wrapped in a profiled expression if this factory
+	 * is profiling. It is wrapped after it has been checked and folded, so a folded constant is a single node.
+	 */
+	private Expression<Type> profiled(int line, int column, Expression<Type> expression) {
+		if (this.profile == null)
+			return expression;
+		return new ProfiledExpression<Type>(expression,
+				this.profile.addNode(expression.getClass().getSimpleName(), line, column));
+	}
+
+	/**
+	 * Returns the given statement, created at the given position, after adding it to the profile of the program
+	 * if this factory is profiling
+	 */
+	private Statement profiled(int line, int column, Statement statement) {
+		if (this.profile != null)
+			this.profile.addNode(statement, statement.getClass().getSimpleName(), line, column);
+		return statement;
+	}
+
+	// ------------------------- type checking -----------------------------
+
+	/**
+	 * The type errors found in the parsed program, in the order in which they were found
+	 */
+	private final List<String> typeErrors = new ArrayList<String>();
+
+	/**
+	 * Returns the type errors found in the parsed program, each as "line:column type error: description"
+	 */
+	public List<String> getTypeErrors() {
+		return new ArrayList<String>(this.typeErrors);
+	}
+
+	/**
+	 * Registers a type error at the given position in the parsed program
+	 */
+	private void addTypeError(int line, int column, String description) {
+		this.typeErrors.add(line + ":" + column + " type error: " + description);
+	}
+
+	/**
+	 * Checks the types of the arguments of the given expression, which has just been created at the given position.
+	 * Expressions are created bottom up, so the types of their arguments are known when they are checked and every
+	 * expression of the program is checked exactly once.
+	 * The expression is verified if the types of all its arguments are known and correct, so it does not check them
+	 * again when it is evaluated; if one of them is not known before the program runs it keeps checking them.
+	 * @return	| result == expression
+	 */
+	private Expression<Type> check(int line, int column, Expression<Type> expression) {
+		String error = expression.getTypeError();
+		if (error != null)
+			this.addTypeError(line, column, error);
+		else if (expression.hasKnownArgumentTypes())
+			expression.verify();
+		return expression;
+	}
+
+	/**
+	 * Folds the given expression, which has just been checked, to a constant if its arguments are constant.
+	 * Constant subexpressions (e.g. sqrt(2) * 3.14 or cos(0)) are thus evaluated once, when the program is parsed,
+	 * instead of every time they are used. Only verified expressions of type Double or Boolean are folded; the
+	 * expressions that need a worm (getters, searchobj, sameteam ...) have no constant arguments.
+	 * @return	| if (expression.isVerified() && expression.hasConstantArguments()
+	 * 			|	&& expression.getReturnType() == Double.class)
+	 * 			|	result.isConstant() && result.evalDouble(null) == expression.evalDouble(null)
+	 * 			| else if (expression.isVerified() && expression.hasConstantArguments()
+	 * 			|	&& expression.getReturnType() == Boolean.class)
+	 * 			|	result.isConstant() && result.evalBoolean(null) == expression.evalBoolean(null)
+	 * 			| else
+	 * 			|	result == expression
+	 */
+	private Expression<Type> fold(int line, Expression<Type> expression) {
+		if (! expression.isVerified() || ! expression.hasConstantArguments())
+			return expression;
+		if (expression.getReturnType() == Double.class)
+			return Z.new Constant(expression.evalDouble(null), line);
+		if (expression.getReturnType() == Boolean.class)
+			return expression.evalBoolean(null) ? Z.new True(line) : Z.new False(line);
+		return expression;
+	}
+
+	/**
+	 * Checks that the given expression, used at the given position by a statement, has the given type
+	 * (or a type that is not known before the program runs)
+	 */
+	private void expect(int line, int column, Expression<?> expression, Class<?> type, String description) {
+		Class<?> actual = expression.getReturnType();
+		if (actual != null && actual != type)
+			this.addTypeError(line, column, description);
+	}
+
   @Override
   public Expression<Type> createDoubleLiteral(int line, int column, double d) {
-    return Z.new Constant(d, line);
+    return profiled(line, column, Z.new Constant(d, line));
   }
 
   @Override
   public Expression<Type> createBooleanLiteral(int line, int column, boolean b) {
 	  if (b){
-		  return Z.new True(line);
+		  return profiled(line, column, Z.new True(line));
 	  }
 		  
 	  else
-		  return Z.new False(line);
+		  return profiled(line, column, Z.new False(line));
   }
 
   @Override
   public Expression<Type> createAnd(int line, int column, Expression e1,
     Expression e2) {
-    return T.new And(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new And(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createOr(int line, int column, Expression e1,
     Expression e2) {
-    return T.new Or(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Or(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createNot(int line, int column, Expression e) {
-    return O.new Not(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Not(e,line))));
   }
 
   @Override
   public Expression<Type> createNull(int line, int column) {
-    return Z.new Null(line);
+    return profiled(line, column, Z.new Null(line));
   }
 
   @Override
   public Expression<Type> createSelf(int line, int column) {
-    return Z.new Self(line);
+    return profiled(line, column, Z.new Self(line));
   }
 
   @Override
   public Expression<Type> createGetX(int line, int column, Expression e) {
-    return O.new Getx(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getx(e,line))));
   }
 
   @Override
   public Expression<Type> createGetY(int line, int column, Expression e) {
-    return O.new Gety(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Gety(e,line))));
   }
 
   @Override
   public Expression<Type> createGetRadius(int line, int column, Expression e) {
-    return O.new Getradius(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getradius(e,line))));
   }
 
   @Override
   public Expression<Type> createGetDir(int line, int column, Expression e) {
-    return O.new Getdirection(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getdirection(e,line))));
   }
 
   @Override
   public Expression<Type> createGetAP(int line, int column, Expression e) {
-    return O.new Getap(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getap(e,line))));
   }
 
   @Override
   public Expression<Type> createGetMaxAP(int line, int column, Expression e) {
-    return O.new Getmaxap(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getmaxap(e,line))));
   }
 
   @Override
   public Expression<Type> createGetHP(int line, int column, Expression e) {
-    return O.new Gethp(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Gethp(e,line))));
   }
 
   @Override
   public Expression<Type> createGetMaxHP(int line, int column, Expression e) {
-    return O.new Getmaxhp(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Getmaxhp(e,line))));
   }
 
   @Override
   public Expression<Type> createSameTeam(int line, int column, Expression e) {
-    return O.new SameTeam(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new SameTeam(e,line))));
   }
 
   @Override
   public Expression<Type> createSearchObj(int line, int column, Expression e) {
-    return O.new SearchObj(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new SearchObj(e,line))));
   }
 
   @Override
   public Expression<Type> createIsWorm(int line, int column, Expression e) {
-    return O.new IsWorm(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new IsWorm(e,line))));
   }
 
   @Override
   public Expression<Type> createIsFood(int line, int column, Expression e) {
-    return O.new IsFood(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new IsFood(e,line))));
   }
 
 //  public E IsTerrain(int line, int column, E e);
@@ -131,138 +300,147 @@ public void setParser(ProgramParser<Expression<Type>,Statement,Type> parser){
   
   @Override
   public Expression<Type> createVariableAccess(int line, int column, String name, Type type) {
-	  return Z.new Variable(name, type, line);
+	  return profiled(line, column, Z.new Variable(name, getSlot(name), type, line));
   }
 
   @Override
   public Expression<Type> createLessThan(int line, int column, Expression e1, Expression e2) {
-    return T.new SmallerThan(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new SmallerThan(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createGreaterThan(int line, int column, Expression e1, Expression e2) {
-    return T.new BiggerThan(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new BiggerThan(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createLessThanOrEqualTo(int line, int column, Expression e1, Expression e2) {
-    return T.new SmallerOrEquals(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new SmallerOrEquals(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createGreaterThanOrEqualTo(int line, int column, Expression e1, Expression e2) {
-    return T.new BiggerOrEquals(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new BiggerOrEquals(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createEquality(int line, int column, Expression e1, Expression e2) {
-    return T.new Equals(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Equals(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createInequality(int line, int column, Expression e1, Expression e2) {
-    return T.new NotEquals(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new NotEquals(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createAdd(int line, int column, Expression e1, Expression e2) {
-	  System.out.print("PROG Implementation add:");System.out.print(e1+ " "); ; System.out.println(e2+ " ");
-    return T.new Add(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Add(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createSubtraction(int line, int column, Expression e1, Expression e2) {
-	  System.out.print("PROG Implementation substraction:");System.out.print(e1 +" "); System.out.println(e2+ " ");
-    return T.new Substract(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Substract(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createMul(int line, int column, Expression e1, Expression e2) {
-	  System.out.print("PROG Implementation multiply:"); System.out.println(e1+ " ");  
-    return T.new Multiply(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Multiply(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createDivision(int line, int column, Expression e1, Expression e2) {
-    return T.new Divide(e1,e2,line);
+    return profiled(line, column, fold(line, check(line, column, T.new Divide(e1,e2,line))));
   }
 
   @Override
   public Expression<Type> createSqrt(int line, int column, Expression e) {
-    return O.new Sqrt(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Sqrt(e,line))));
   }
 
   @Override
   public Expression<Type> createSin(int line, int column, Expression e) {
-    return O.new Sin(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Sin(e,line))));
   }
 
   @Override
   public Expression<Type> createCos(int line, int column, Expression e) {
-    return O.new Cos(e,line);
+    return profiled(line, column, fold(line, check(line, column, O.new Cos(e,line))));
   }
 
   @Override
   public Statement createTurn(int line, int column, Expression angle) {
-    return A.new Turn(angle,line);
+    expect(line, column, angle, Double.class, "you tried to turn by some not-Double");
+    return profiled(line, column, A.new Turn(angle,line));
   }
 
   @Override
   public Statement createMove(int line, int column) {
-    return A.new Move(line);
+    return profiled(line, column, A.new Move(line));
   }
   
   @Override
   public Statement createJump(int line, int column) {
-    return A.new Jump(line);
+    return profiled(line, column, A.new Jump(line));
   }
 
   @Override
   public Statement createToggleWeap(int line, int column) {
-    return A.new ToggleWeapon(line);
+    return profiled(line, column, A.new ToggleWeapon(line));
   }
 
   @Override
   public Statement createFire(int line, int column, Expression yield) {
-    return A.new Fire(yield,line);
+    expect(line, column, yield, Double.class, "you tried to fire with some not-Double");
+    return profiled(line, column, A.new Fire(yield,line));
   }
   
   @Override
   public Statement createAssignment(int line, int column, String variable, Expression rhs) {
-//	  System.out.println(this.parser.getListener().getGlobals().get(variable));
 	  Type t = (Type) this.parser.getListener().getGlobals().get(variable);
-	  return new Assignment(variable, rhs,line, t);
+	  Assignment assignment = new Assignment(variable, getSlot(variable), rhs,line, t);
+	  Class<?> rhsType = rhs.getReturnType();
+	  if (t == null)
+		  addTypeError(line, column, "you tried to assign to the undeclared variable " + variable);
+	  else if (rhsType != null && rhsType != t.getClass())
+		  addTypeError(line, column, "you tried to assign some " + rhsType.getSimpleName() + " to the "
+				  + t.getClass().getSimpleName() + " variable " + variable);
+	  else if (rhsType != null)
+		  assignment.verify();
+	  return profiled(line, column, assignment);
   }
 
   @Override
   public Statement createIf(int line, int column, Expression condition, Statement then, Statement otherwise) {
-    return C.new If(condition, then, otherwise,line);
+    expect(line, column, condition, Boolean.class, "the condition of an if is not a Boolean");
+    return profiled(line, column, C.new If(condition, then, otherwise,line));
   }
 
   @Override
   public Statement createWhile(int line, int column, Expression condition, Statement body) {
-    return C.new While(condition,body,line);
+    expect(line, column, condition, Boolean.class, "the condition of a while is not a Boolean");
+    return profiled(line, column, C.new While(condition,body,line));
   }
 
   @Override
   public Statement createForeach(int line, int column, ForeachType type, String variableName, Statement body) {
-	  return C.new ForEach(type, variableName, body,line);
+	  return profiled(line, column, C.new ForEach(type, variableName, getSlot(variableName), body,line));
     
   }
 
   @Override
   public Statement createSkip(int line, int column) {
-    return A.new Skip(line);
+    return profiled(line, column, A.new Skip(line));
   }
 
   @Override
   public Statement createSequence(int line, int column, List<Statement> statements) {
-    return new SequenceOfStatements(statements,line);
+    return profiled(line, column, new SequenceOfStatements(statements,line));
   }
 
   @Override
   public Statement createPrint(int line, int column, Expression e) {
-    return new Print(e,line);
+    return profiled(line, column, new Print(e,line));
   }
 
   @Override
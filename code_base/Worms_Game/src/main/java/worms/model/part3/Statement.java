@@ -1,23 +1,33 @@
 package worms.model.part3;
 
-import worms.model.Worm;
-import worms.gui.game.IActionHandler;
+import java.util.List;
+
+import worms.model.Program;
 
 
 public abstract class Statement{
 	
-	public void function(int line){
+	/**
+	 * Executes this statement for the given program, if it is compiled to a single Instruction.Execute
+	 * (actions, assignments and prints). Statements do not store the worm, the action handler or the variables
+	 * themselves, so one statement can be shared by many programs.
+	 */
+	public void execute(Program program){
 	}
 	
-	public abstract void setAppropriateValues(Worm worm, IActionHandler handler);
+	/**
+	 * Appends the instructions of this statement to the given code.
+	 * A simple statement is compiled to one instruction that executes it.
+	 * @param 	code
+	 * 			the instructions compiled so far, the index of an instruction is its position in this list
+	 */
+	public void compile(List<Instruction> code){
+		code.add(new Instruction.Execute(this));
+	}
 	
 	@Override
 	public abstract String toString();
 	
-	public int getLength(){
-		return 1;
-	}
-	
 	public abstract int getLine();
 	
 	public boolean checkForLoop(){
@@ -25,7 +35,6 @@ public abstract class Statement{
 	}
 	
 	public boolean hasAction(){
-		System.out.println("no overridden found");
 		return false;
 	}	
 	
@@ -36,4 +45,4 @@ public abstract class Statement{
 	public int size(){
 		return 1;
 	}
-}
\ No newline at end of file
+}
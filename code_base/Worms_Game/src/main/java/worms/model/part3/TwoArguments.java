@@ -1,7 +1,6 @@
 package worms.model.part3;
 
-import worms.gui.game.IActionHandler;
-import worms.model.Worm;
+import worms.model.Program;
 import worms.model.part3.Expression;
 
 public class TwoArguments extends Expression<Type> {
@@ -12,15 +11,12 @@ public class TwoArguments extends Expression<Type> {
 	public TwoArguments(Expression<? extends Type> argumentOne, Expression<? extends Type> argumentTwo) {
 		this.argumentOne = argumentOne;
 		this.argumentTwo = argumentTwo;
-		System.out.println("construction TWO ARGS-------");
 	}
 	
 	public TwoArguments(Expression<? extends Type> argumentOne, Expression<? extends Type> argumentTwo, int line) {
 		this.argumentOne = argumentOne;
 		this.argumentTwo = argumentTwo;
 		this.line= line;
-		System.out.println("construction TWO ARGS-------");
-		System.out.print(argumentOne + " " + argumentTwo);
 	}
 	
 	private int line;
@@ -37,20 +33,45 @@ public class TwoArguments extends Expression<Type> {
 	} 
 
 	@Override
-	public Type function(int line) {
+	public Type function(Program program) {
 		return null;
 	}	
 	
+	/**
+	 * Returns the given message if one of the arguments of this expression has a known return type other than the given type
+	 */
+	protected String expectArguments(Class<?> type, String message){
+		Class<?> typeOne = getArgumentOne().getReturnType();
+		Class<?> typeTwo = getArgumentTwo().getReturnType();
+		if ((typeOne != null && typeOne != type) || (typeTwo != null && typeTwo != type))
+			return message;
+		return null;
+	}
+	
+	/**
+	 * Returns the given message if both arguments of this expression have a known return type, and these types differ
+	 */
+	protected String expectSameArguments(String message){
+		Class<?> typeOne = getArgumentOne().getReturnType();
+		Class<?> typeTwo = getArgumentTwo().getReturnType();
+		if (typeOne != null && typeTwo != null && typeOne != typeTwo)
+			return message;
+		return null;
+	}
+	
 	@Override
-	public String toString(){
-		return "Superclass TwoArguments";
+	public boolean hasKnownArgumentTypes(){
+		return getArgumentOne().getReturnType() != null && getArgumentTwo().getReturnType() != null;
+	}
+	
+	@Override
+	public boolean hasConstantArguments(){
+		return getArgumentOne().isConstant() && getArgumentTwo().isConstant();
 	}
 	
 	@Override
-	public void setAppropriateValues(Worm worm, IActionHandler handler){
-		this.argumentOne.setAppropriateValues(worm, handler);
-		this.argumentTwo.setAppropriateValues(worm, handler);
-		System.out.println("values are set, 2Arg");
+	public String toString(){
+		return "Superclass TwoArguments";
 	}
 	
 	// ------------------- nested classes --------------------------
@@ -64,12 +85,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Boolean.class)) || (! getArgumentTwo().getReturnType().equals(Boolean.class)) )
-				throw new IllegalArgumentException("you tried to And some not-Booleans");
-			return new Boolean(((Boolean)getArgumentOne().function(line)).getValue() && ((Boolean)getArgumentTwo().function(line)).getValue()); 
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalBoolean(program) && getArgumentTwo().evalBoolean(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Boolean.class, "you tried to And some not-Booleans");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -89,12 +119,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Boolean.class)) || (! getArgumentTwo().getReturnType().equals(Boolean.class)) )
-				throw new IllegalArgumentException("you tried to Or some not-Booleans");
-			return new Boolean(((Boolean)getArgumentOne().function(line)).getValue() || ((Boolean)getArgumentTwo().function(line)).getValue());
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalBoolean(program) || getArgumentTwo().evalBoolean(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Boolean.class, "you tried to Or some not-Booleans");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -114,22 +153,32 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
 			if ( (getArgumentOne().getReturnType() == null) || (getArgumentTwo().getReturnType() == null)){
-				return new Boolean ( getArgumentOne().function(line) == getArgumentTwo().function(line) );
+				return ( getArgumentOne().function(program) == getArgumentTwo().function(program) );
 			}
 			else if ( ( getArgumentOne().getReturnType().equals(Double.class)) && (getArgumentTwo().getReturnType().equals(Double.class)) ){
-				return new Boolean( ((Double)getArgumentOne().function(line)).equals(((Double)getArgumentTwo().function(line))) );
+				return getArgumentOne().evalDouble(program) == getArgumentTwo().evalDouble(program);
 			}
 			else if ( ( getArgumentOne().getReturnType().equals(Boolean.class)) && (getArgumentTwo().getReturnType().equals(Boolean.class)) ){
-				return new Boolean( ((Boolean)getArgumentOne().function(line)).equals((Boolean)getArgumentTwo().function(line)) ); 
+				return getArgumentOne().evalBoolean(program) == getArgumentTwo().evalBoolean(program);
 			}
 			else if ( ( getArgumentOne().getReturnType().equals(getArgumentTwo().getReturnType())) ){
-				return new Boolean( ((Integer)(getArgumentOne().function(line).hashCode())).equals((Integer)getArgumentTwo().function(line).hashCode()) );
+				return ( ((Integer)(getArgumentOne().function(program).hashCode())).equals((Integer)getArgumentTwo().function(program).hashCode()) );
 			}
 			else throw new IllegalArgumentException ("you tried to Equals two Expressions of different classes");
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectSameArguments("you tried to Equals two Expressions of different classes");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -149,26 +198,36 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
 			// if one of the arguments in null
 			if ( (getArgumentOne().getReturnType() == null) || (getArgumentTwo().getReturnType() == null)){
-				return new Boolean ( getArgumentOne().function(line) == getArgumentTwo().function(line) );
+				return ( getArgumentOne().function(program) == getArgumentTwo().function(program) );
 			}
 			// Doubles
 			else if ( ( getArgumentOne().getReturnType().equals(Double.class)) && (getArgumentTwo().getReturnType().equals(Double.class)) ){
-				return new Boolean(! ((Double)getArgumentOne().function(line)).equals((Double)getArgumentTwo().function(line)));
+				return getArgumentOne().evalDouble(program) != getArgumentTwo().evalDouble(program);
 			}
 			// Booleans
 			else if ( ( getArgumentOne().getReturnType().equals(Boolean.class)) && (getArgumentTwo().getReturnType().equals(Boolean.class)) ){
-				return new Boolean(! ((Boolean)getArgumentOne().function(line)).equals((Boolean)getArgumentTwo().function(line)) );
+				return getArgumentOne().evalBoolean(program) != getArgumentTwo().evalBoolean(program);
 			}
 			// others
 			else if ( ( getArgumentOne().getReturnType().equals(getArgumentTwo().getReturnType())) ){
-				return new Boolean(! ((Integer)getArgumentOne().function(line).hashCode()).equals((Integer)getArgumentTwo().function(line).hashCode()));
+				return (! ((Integer)getArgumentOne().function(program).hashCode()).equals((Integer)getArgumentTwo().function(program).hashCode()));
 			}
 			else throw new IllegalArgumentException ("you tried to Not Equals two Expressions of different classes");
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectSameArguments("you tried to Not Equals two Expressions of different classes");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -188,12 +247,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to BiggerThan some not-Doubles");
-			return new Boolean( ((Double)getArgumentOne().function(line)).getValue() > ((Double)getArgumentTwo().function(line)).getValue() );
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) > getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to BiggerThan some not-Doubles");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -213,13 +281,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to BiggerOrEqual some not-Doubles");
-			return new Boolean( ((Double)getArgumentOne().function(line)).getValue() >= ((Double)getArgumentTwo().function(line)).getValue() );
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) >= getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to BiggerOrEqual some not-Doubles");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -239,12 +315,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to SmallerThan some not-Doubles");
-			return new Boolean( ((Double)getArgumentOne().function(line)).getValue() < ((Double)getArgumentTwo().function(line)).getValue() );
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) < getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to SmallerThan some not-Doubles");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -264,12 +349,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Boolean function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to SmallerOrEqual some not-Doubles");
-			return new Boolean( ((Double)getArgumentOne().function(line)).getValue() <= ((Double)getArgumentTwo().function(line)).getValue() );
+		public Boolean function(Program program) {
+			return Boolean.valueOf(this.evalBoolean(program));
+		}
+		
+		@Override
+		public boolean evalBoolean(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) <= getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to SmallerOrEqual some not-Doubles");
+		}
+		
 		@Override
 		public Class<Boolean> getReturnType() {
 			return Boolean.class;
@@ -289,12 +383,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Double function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to Add some not-Doubles");
-			return new Double( ((Double)getArgumentOne().function(line)).getValue() + ((Double)getArgumentTwo().function(line)).getValue() );
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) + getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to Add some not-Doubles");
+		}
+		
 		@Override
 		public Class<Double> getReturnType() {
 			return Double.class;
@@ -311,17 +414,24 @@ public class TwoArguments extends Expression<Type> {
 		
 		public Substract(Expression<Double> argumentOne, Expression<Double> argumentTwo, int line){
 			super(argumentOne, argumentTwo, line);
-			System.out.println("construction SUBSTRACT");
 		}
 		
 		@Override
-		public Double function(int line) {
-			
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to Substract some not-Doubles");
-			return new Double( ((Double)getArgumentOne().function(line)).getValue() - ((Double)getArgumentTwo().function(line)).getValue() );
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) - getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to Substract some not-Doubles");
+		}
+		
 		@Override
 		public Class<Double> getReturnType() {
 			return Double.class;
@@ -338,16 +448,24 @@ public class TwoArguments extends Expression<Type> {
 		
 		public Multiply(Expression<Double> argumentOne, Expression<Double> argumentTwo, int line){
 			super(argumentOne, argumentTwo, line);
-			System.out.println("construction MULTIPLY");
 		}
 		
 		@Override
-		public Double function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to Multiply some not-Doubles");
-			return new Double( ((Double)getArgumentOne().function(line)).getValue() * ((Double)getArgumentTwo().function(line)).getValue() );
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) * getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to Multiply some not-Doubles");
+		}
+		
 		@Override
 		public Class<Double> getReturnType() {
 			return Double.class;
@@ -367,12 +485,21 @@ public class TwoArguments extends Expression<Type> {
 		}
 		
 		@Override
-		public Double function(int line) {
-			if ( (! getArgumentOne().getReturnType().equals(Double.class)) || (! getArgumentTwo().getReturnType().equals(Double.class)) )
-				throw new IllegalArgumentException("you tried to Divide some not-Doubles");
-			return new Double( ((Double)getArgumentOne().function(line)).getValue() / ((Double)getArgumentTwo().function(line)).getValue() );
+		public Double function(Program program) {
+			return new Double(this.evalDouble(program));
+		}
+		
+		@Override
+		public double evalDouble(Program program) {
+			this.checkTypes();
+			return getArgumentOne().evalDouble(program) / getArgumentTwo().evalDouble(program);
 		}
 
+		@Override
+		public String getTypeError() {
+			return expectArguments(Double.class, "you tried to Divide some not-Doubles");
+		}
+		
 		@Override
 		public Class<Double> getReturnType() {
 			return Double.class;
@@ -0,0 +1,89 @@
+package worms.model.part3;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values of the global variables of one running program.
+ *
+ * Every variable has a slot (an index) that is resolved once, when the program is parsed
+ * (see ProgramFactoryImplementation.getSlot()). Reading or writing a variable is then an array access
+ * instead of a lookup of its name in a map.
+ */
+public class VariableFrame {
+
+	/**
+	 * Create a frame for the variables with the given names
+	 * @param 	names
+	 * 			the names of the variables, the variable with name names[i] gets slot i
+	 * @param 	initialValues
+	 * 			the initial values of the variables, by name (variables that are not in this map start as null)
+	 * @post	| for each slot i: new.getName(i) == names[i] && new.get(i) == initialValues.get(names[i])
+	 */
+	public VariableFrame(String[] names, Map<String, ? extends Type> initialValues) {
+		this.names = names.clone();
+		this.values = new Type[names.length];
+		for (int slot = 0; slot < names.length; slot++)
+			this.values[slot] = initialValues.get(names[slot]);
+	}
+
+	/**
+	 * The names of the variables, by slot
+	 */
+	private final String[] names;
+
+	/**
+	 * The values of the variables, by slot
+	 */
+	private final Type[] values;
+
+	/**
+	 * Returns the number of slots of this frame
+	 */
+	public int size() {
+		return this.values.length;
+	}
+
+	/**
+	 * Returns the name of the variable in the given slot
+	 */
+	public String getName(int slot) {
+		return this.names[slot];
+	}
+
+	/**
+	 * Returns the slot of the variable with the given name, or -1 if there is no such variable
+	 */
+	public int getSlot(String name) {
+		for (int slot = 0; slot < this.names.length; slot++)
+			if (this.names[slot].equals(name))
+				return slot;
+		return -1;
+	}
+
+	/**
+	 * Returns the value of the variable in the given slot
+	 */
+	public Type get(int slot) {
+		return this.values[slot];
+	}
+
+	/**
+	 * Sets the value of the variable in the given slot
+	 * @post	| new.get(slot) == value
+	 */
+	public void set(int slot, Type value) {
+		this.values[slot] = value;
+	}
+
+	/**
+	 * Returns the variables of this frame as a map from names to values.
+	 * This is a copy, meant for debugging: changing it does not change this frame.
+	 */
+	public Map<String, Type> asMap() {
+		Map<String, Type> result = new LinkedHashMap<String, Type>();
+		for (int slot = 0; slot < this.names.length; slot++)
+			result.put(this.names[slot], this.values[slot]);
+		return result;
+	}
+}
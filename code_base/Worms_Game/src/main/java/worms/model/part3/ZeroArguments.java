@@ -1,6 +1,6 @@
 package worms.model.part3;
 
-import worms.gui.game.IActionHandler;
+import worms.model.Program;
 import worms.model.Worm;
 
 public class ZeroArguments<T> extends Expression<T> {
@@ -26,29 +26,30 @@ public class ZeroArguments<T> extends Expression<T> {
 		
 		private String name;
 		
+		private int slot;
+		
 		private Type type;
 		
-		public Variable(String name, Type type, int line) {
+		public Variable(String name, int slot, Type type, int line) {
 			super(line);
 			this.name = name;
+			this.slot = slot;
 			this.type = type;
 		}
 		
-		private Worm worm;
+		@Override
+		public Type function(Program program){
+			return program.getFrame().get(this.slot);
+		}
 		
 		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){
-			this.worm = worm;
-//			System.out.println("Variable,");
-//			System.out.println(this.worm.getProgram().getGlobals());
-//			System.out.println(this.name);
-//			System.out.println(this.function());
+		public double evalDouble(Program program){
+			return ((Double) program.getFrame().get(this.slot)).getValue();
 		}
 		
 		@Override
-		public Type function(int line){
-			Type result = this.worm.getProgram().getGlobals().get(this.name);
-			return result;
+		public boolean evalBoolean(Program program){
+			return ((Boolean) program.getFrame().get(this.slot)).getValue();
 		}
 		
 		public Class<?> getReturnType() {
@@ -72,10 +73,7 @@ public class ZeroArguments<T> extends Expression<T> {
 		
 		@Override
 		public String toString(){
-			if (this.worm == null)
-				return "Variable " + this.name;
-			else
-				return "Variable " + this.name + " = " +this.worm.getProgram().getGlobals().get(this.name);
+			return "Variable " + this.name;
 		}
 	}
 	 
@@ -87,7 +85,7 @@ public class ZeroArguments<T> extends Expression<T> {
 		}
 		
 		@Override
-		public T function(int line) {
+		public T function(Program program) {
 			return null;
 		}
 
@@ -109,11 +107,9 @@ public class ZeroArguments<T> extends Expression<T> {
 			super(line);
 		}
 		
-		private Worm w;
-		
 		@Override
-		public Worm function(int line) {
-			return this.w;
+		public Worm function(Program program) {
+			return program.getWorm();
 		}
 
 		@Override
@@ -121,33 +117,26 @@ public class ZeroArguments<T> extends Expression<T> {
 			return Entity.class;
 		}
 		
-		@Override
-		public void setAppropriateValues(Worm worm, IActionHandler handler){
-			this.w = worm;
-			System.out.print("Self: SetappVal worm is set to:");
-			System.out.println(this.w);
-		}
-		
 		@Override
 		public String toString(){
-			return "Self:"+ this.w;
+			return "Self";
 		}
-		
-		
 	}
 	
 	 public  class True extends ZeroArguments<Boolean> {
 		
 		public True(int line){
 			super(line);
-			this.t = new Boolean(true);
 		}
 		
-		private Boolean t;
+		@Override
+		public Boolean function(Program program) {
+			return Boolean.TRUE;
+		}
 		
 		@Override
-		public Boolean function(int line) {
-			return this.t;
+		public boolean evalBoolean(Program program) {
+			return true;
 		}
 
 		@Override
@@ -155,6 +144,11 @@ public class ZeroArguments<T> extends Expression<T> {
 			return Boolean.class;
 		}
 		
+		@Override
+		public boolean isConstant() {
+			return true;
+		}
+		
 		@Override
 		public String toString(){
 			return "True";
@@ -166,14 +160,16 @@ public class ZeroArguments<T> extends Expression<T> {
 		
 		public False(int line) {
 			super(line);
-			this.t = new Boolean(false);
 		}
 		
-		private Boolean t;
+		@Override
+		public Boolean function(Program program) {
+			return Boolean.FALSE;
+		}
 		
 		@Override
-		public Boolean function(int line) {
-			return this.t;
+		public boolean evalBoolean(Program program) {
+			return false;
 		}
 
 		@Override
@@ -181,6 +177,11 @@ public class ZeroArguments<T> extends Expression<T> {
 			return Boolean.class;
 		}
 		
+		@Override
+		public boolean isConstant() {
+			return true;
+		}
+		
 		@Override
 		public String toString(){
 			return "False";
@@ -197,14 +198,24 @@ public class ZeroArguments<T> extends Expression<T> {
 		private Double c;
 		
 		@Override
-		public Double function(int line) {
+		public Double function(Program program) {
 			return this.c;
 		}
 		
+		@Override
+		public double evalDouble(Program program) {
+			return this.c.getValue();
+		}
+		
 		public Class<?> getReturnType(){
 			return Double.class;
 		}
 		
+		@Override
+		public boolean isConstant() {
+			return true;
+		}
+		
 		@Override
 		public String toString(){
 			return c.toString();
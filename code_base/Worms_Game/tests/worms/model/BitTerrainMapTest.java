@@ -0,0 +1,126 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BitTerrainMapTest {
+
+	private BitTerrainMap testMap;
+
+	//testMap
+	// X X X X
+	// . . . .
+	// . . . .
+	// . X X X
+	private final boolean[][] passableMap  = new boolean[][]
+			{ 	{ false, false, false, false },
+				{ true, true, true, true },
+				{ true, true, true, true },
+				{ true, false, false, false }
+			};
+
+	@Before
+	public void setUp() throws Exception {
+		testMap = BitTerrainMap.fromPassableMap(passableMap);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void dimensionsTest(){
+		assertEquals(4, testMap.getWidth());
+		assertEquals(4, testMap.getHeight());
+	}
+
+	@Test
+	public final void roundTripTest(){
+		boolean[][] result = BitTerrainMap.toPassableMap(testMap);
+		for (int row = 0; row < passableMap.length; row++)
+			for (int col = 0; col < passableMap[row].length; col++){
+				assertEquals(passableMap[row][col], testMap.isPassable(col, row));
+				assertEquals(passableMap[row][col], result[row][col]);
+			}
+	}
+
+	@Test
+	public final void wideRoundTripTest(){
+		// rows wider than one word, with a width that is not a multiple of 64
+		Random random = new Random(42);
+		boolean[][] wideMap = new boolean[7][201];
+		for (int row = 0; row < wideMap.length; row++)
+			for (int col = 0; col < wideMap[row].length; col++)
+				wideMap[row][col] = random.nextBoolean();
+		BitTerrainMap map = BitTerrainMap.fromPassableMap(wideMap);
+		for (int row = 0; row < wideMap.length; row++)
+			for (int col = 0; col < wideMap[row].length; col++)
+				assertEquals(wideMap[row][col], map.isPassable(col, row));
+	}
+
+	@Test
+	public final void setPassableTest(){
+		testMap.setPassable(2, 1, false);
+		assertFalse(testMap.isPassable(2, 1));
+		testMap.setPassable(2, 1, true);
+		assertTrue(testMap.isPassable(2, 1));
+		testMap.setPassable(0, 0, true);
+		assertTrue(testMap.isPassable(0, 0));
+		assertFalse(testMap.isPassable(1, 0));
+	}
+
+	@Test
+	public final void nextColumnTest(){
+		assertEquals(1, testMap.nextImpassableColumn(3, 0));
+		assertEquals(-1, testMap.nextImpassableColumn(1, 0));
+		assertEquals(0, testMap.nextPassableColumn(3, 0));
+		assertEquals(-1, testMap.nextPassableColumn(3, 1));
+		assertEquals(-1, testMap.nextPassableColumn(0, 0));
+
+		BitTerrainMap wide = new BitTerrainMap(130, 1);
+		wide.setPassable(129, 0, false);
+		assertEquals(129, wide.nextImpassableColumn(0, 3));
+		assertEquals(-1, wide.nextImpassableColumn(0, 130));
+		assertEquals(129, wide.nextImpassableColumn(0, 129));
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public final void outOfMapTest(){
+		testMap.isPassable(4, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void illegalDimensionsTest(){
+		new BitTerrainMap(0, 4);
+	}
+
+	@Test
+	public final void worldCompatibilityViewTest(){
+		World world = new World(4, 4, testMap, null);
+		boolean[][] view = world.getImpassablePositions();
+		for (int row = 0; row < passableMap.length; row++)
+			for (int col = 0; col < passableMap[row].length; col++)
+				assertEquals(passableMap[row][col], view[row][col]);
+		assertTrue(view == world.getImpassablePositions());
+		assertTrue(world.isImpassablePosition(3, 3, 0.99));
+		assertFalse(world.isImpassablePosition(2, 2, 0.99));
+	}
+
+	@Test
+	public final void worldCopiesPassableMapTest(){
+		boolean[][] map = new boolean[][] { passableMap[0].clone(), passableMap[1].clone(),
+				passableMap[2].clone(), passableMap[3].clone() };
+		World world = new World(4, 4, map, null);
+		map[1][1] = false;
+		assertTrue(world.getImpassablePositions()[1][1]);
+		assertTrue(world.getImpassablePositions() != map);
+		world.setImpassablePositions(map);
+		map[2][2] = false;
+		assertFalse(world.getImpassablePositions()[1][1]);
+		assertTrue(world.getImpassablePositions()[2][2]);
+		assertTrue(world.getTerrainMap().isPassable(2, 2));
+	}
+
+}
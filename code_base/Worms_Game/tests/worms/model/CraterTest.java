@@ -0,0 +1,159 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CraterTest {
+
+	private boolean[][] map;
+
+	private World world;
+
+	private Random random;
+
+	@Before
+	public void setUp() throws Exception {
+		// a ground layer with some floating blocks, 20 pixels/meter
+		random = new Random(5);
+		map = TestWorlds.addBlocks(TestWorlds.flatMap(150), random, 15, 140);
+		world = new World(15, 10, map, new Random(3));
+	}
+
+	/**
+	 * Builds the derived structures of the world, carves some craters in the ground, and returns them as {x, y, radius}
+	 */
+	private List<double[]> carveCraters() {
+		world.getFreePositions(0.3, 1);
+		world.getSurfaceIndex();
+		List<double[]> craters = new ArrayList<double[]>();
+		for (int i = 0; i < 8; i++) {
+			double[] crater = {random.nextDouble() * 15, 1 + random.nextDouble() * 2.5, 0.2 + random.nextDouble()};
+			world.carveCrater(crater[0], crater[1], crater[2]);
+			craters.add(crater);
+		}
+		return craters;
+	}
+
+	/**
+	 * Returns a new world on the terrain of the test world as it is now
+	 */
+	private World rebuiltWorld() {
+		return new World(15, 10, BitTerrainMap.toPassableMap(world.getTerrainMap()), new Random(3));
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void craterClearsPixelsWithinItsRadiusTest(){
+		TerrainRegion region = world.carveCrater(7.5, 1.5, 0.5);
+		TerrainMap terrain = world.getTerrainMap();
+		for (int row = 0; row < 200; row++)
+			for (int col = 0; col < 300; col++) {
+				double dx = (col + 0.5) * 0.05 - 7.5;
+				double dy = (200 - row - 0.5) * 0.05 - 1.5;
+				boolean inCrater = dx * dx + dy * dy <= 0.25;
+				assertEquals(map[row][col] || inCrater, terrain.isPassable(col, row));
+				if (! map[row][col] && inCrater)
+					assertTrue(region.contains(col, row));
+			}
+		// the region is as small as possible, and the matrix of impassable positions is the terrain map
+		assertEquals(new TerrainRegion(140, 160, 159, 179), region);
+		assertTrue(world.getImpassablePositions()[170][150]);
+		// nothing is left to carve
+		assertNull(world.carveCrater(7.5, 1.5, 0.5));
+		assertNull(world.carveCrater(7.5, 9, 0.5));
+	}
+
+	@Test
+	public final void surfaceIndexIsUpdatedTest(){
+		carveCraters();
+		SurfaceIndex expected = new SurfaceIndex(world.getTerrainMap());
+		SurfaceIndex index = world.getSurfaceIndex();
+		for (int col = 0; col < 300; col++) {
+			assertEquals(expected.getNbRuns(col), index.getNbRuns(col));
+			for (int row = 0; row < 200; row++)
+				assertEquals(expected.getFirstSolidRow(col, row), index.getFirstSolidRow(col, row));
+		}
+	}
+
+	@Test
+	public final void distanceFieldIsALowerBoundExactBelowItsLimitTest(){
+		carveCraters();
+		DistanceField expected = new DistanceField(world.getTerrainMap(), 0.05, 0.05);
+		DistanceField field = world.getDistanceField();
+		assertEquals(World.EXACT_CLEARANCE, field.getExactLimit(), 0);
+		for (int row = 0; row < 200; row++)
+			for (int col = 0; col < 300; col++) {
+				double distance = field.getDistance(col, row);
+				assertTrue(distance <= expected.getDistance(col, row));
+				if (distance < field.getExactLimit())
+					assertEquals(expected.getDistance(col, row), distance, 1e-5);
+			}
+	}
+
+	@Test
+	public final void positionsMatchRebuiltWorldTest(){
+		carveCraters();
+		World rebuilt = rebuiltWorld();
+		for (double radius : new double[] {0.25, 0.6, 2.5}) {
+			for (int i = 0; i < 300; i++) {
+				double x = random.nextDouble() * 15;
+				double y = random.nextDouble() * 5;
+				assertEquals(rebuilt.isImpassablePosition(x, y, radius), world.isImpassablePosition(x, y, radius));
+				assertEquals(rebuilt.isAdjacentPosition(x, y, radius), world.isAdjacentPosition(x, y, radius));
+			}
+		}
+	}
+
+	@Test
+	public final void freePositionCandidatesAreUpdatedTest(){
+		carveCraters();
+		int[] expected = rebuiltWorld().getFreePositionSampler().getCandidatePixels(0.3);
+		int[] candidates = world.getFreePositionSampler().getCandidatePixels(0.3);
+		Arrays.sort(candidates);
+		for (int pixel : expected)
+			assertTrue(Arrays.binarySearch(candidates, pixel) >= 0);
+		for (double[] position : world.getFreePositions(0.3, 20))
+			assertTrue(world.isAdjacentPosition(position[0], position[1], 0.3));
+	}
+
+	@Test
+	public final void listenersGetTheChangedRegionTest(){
+		final List<TerrainRegion> regions = new ArrayList<TerrainRegion>();
+		TerrainListener listener = new TerrainListener() {
+			@Override
+			public void terrainChanged(World changed, TerrainRegion region) {
+				assertSame(world, changed);
+				regions.add(region);
+			}
+		};
+		world.addTerrainListener(listener);
+		TerrainRegion region = world.carveCrater(3, 2, 0.4);
+		world.carveCrater(3, 8, 0.4); // in the air
+		world.removeTerrainListener(listener);
+		world.carveCrater(10, 2, 0.4);
+		assertEquals(Arrays.asList(region), regions);
+	}
+
+	@Test
+	public final void bazookaCarvesACraterTest(){
+		double[] position = world.getFreePositions(0.3, 1)[0];
+		Projectile projectile = new Projectile(world, position[0], position[1] + 2, 1.5 * Math.PI, 100, Guns.Bazooka);
+		projectile.jump(1e-4);
+		assertFalse(projectile.isTerminated());
+		double x = projectile.getXPosition(), y = projectile.getYPosition();
+		assertFalse(world.isImpassablePosition(x, y - 0.4, 0.05));
+		// a rifle bullet does not
+		boolean[][] passable = BitTerrainMap.toPassableMap(world.getTerrainMap());
+		projectile = new Projectile(world, x + 1, 4, 1.5 * Math.PI, 100, Guns.Rifle);
+		projectile.jump(1e-4);
+		assertTrue(Arrays.deepEquals(passable, BitTerrainMap.toPassableMap(world.getTerrainMap())));
+	}
+}
@@ -0,0 +1,103 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DistanceFieldTest {
+
+	/**
+	 * Returns a random terrain map in which about the given fraction of the pixels is impassable
+	 */
+	private static BitTerrainMap randomMap(Random random, int width, int height, double impassableFraction) {
+		BitTerrainMap map = new BitTerrainMap(width, height);
+		for (int row = 0; row < height; row++)
+			for (int col = 0; col < width; col++)
+				if (random.nextDouble() < impassableFraction)
+					map.setPassable(col, row, false);
+		return map;
+	}
+
+	/**
+	 * Returns the distance from the given pixel to the nearest impassable pixel, by checking every pixel
+	 */
+	private static double bruteForceDistance(TerrainMap map, int column, int row, double pixelWidth, double pixelHeight) {
+		double result = Double.POSITIVE_INFINITY;
+		for (int r = 0; r < map.getHeight(); r++)
+			for (int c = 0; c < map.getWidth(); c++)
+				if (! map.isPassable(c, r)) {
+					double dx = (c - column) * pixelWidth;
+					double dy = (r - row) * pixelHeight;
+					result = Math.min(result, Math.sqrt(dx * dx + dy * dy));
+				}
+		return result;
+	}
+
+	private static void assertFieldMatchesBruteForce(TerrainMap map, double pixelWidth, double pixelHeight) {
+		DistanceField field = new DistanceField(map, pixelWidth, pixelHeight);
+		for (int row = 0; row < map.getHeight(); row++)
+			for (int col = 0; col < map.getWidth(); col++)
+				assertEquals(bruteForceDistance(map, col, row, pixelWidth, pixelHeight), field.getDistance(col, row), 1e-5);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void squarePixelsTest(){
+		Random random = new Random(1);
+		for (double fraction : new double[] {0.002, 0.02, 0.3})
+			assertFieldMatchesBruteForce(randomMap(random, 70, 45, fraction), 0.05, 0.05);
+	}
+
+	@Test
+	public final void nonSquarePixelsTest(){
+		Random random = new Random(2);
+		assertFieldMatchesBruteForce(randomMap(random, 40, 60, 0.01), 0.03, 0.07);
+		assertFieldMatchesBruteForce(randomMap(random, 60, 40, 0.01), 0.1, 0.02);
+	}
+
+	@Test
+	public final void noImpassablePixelsTest(){
+		DistanceField field = new DistanceField(new BitTerrainMap(5, 3), 1, 1);
+		for (int row = 0; row < 3; row++)
+			for (int col = 0; col < 5; col++)
+				assertEquals(Double.POSITIVE_INFINITY, field.getDistance(col, row), 0);
+	}
+
+	@Test
+	public final void singleImpassablePixelTest(){
+		BitTerrainMap map = new BitTerrainMap(5, 5);
+		map.setPassable(4, 0, false);
+		DistanceField field = new DistanceField(map, 1, 2);
+		assertEquals(0, field.getDistance(4, 0), 0);
+		assertEquals(Math.sqrt(16 + 64), field.getDistance(0, 4), 1e-6);
+		assertEquals(2, field.getDistance(4, 1), 1e-6);
+	}
+
+	@Test
+	public final void isImpassablePositionMatchesScanTest(){
+		Random random = new Random(3);
+		for (int m = 0; m < 4; m++) {
+			double pixelSize = 0.05;
+			BitTerrainMap map = randomMap(random, 80, 60, 0.01 + 0.02 * m);
+			World world = new World(80 * pixelSize, 60 * pixelSize, map, null);
+			for (int k = 0; k < 2000; k++) {
+				double radius = 0.05 + random.nextDouble() * 0.6;
+				double x = radius + random.nextDouble() * (world.getWidth() - 2 * radius);
+				double y = radius + random.nextDouble() * (world.getHeight() - 2 * radius);
+				if (k % 2 == 0) {
+					// radius equal to the distance between pixels, the boundary case of the distance field
+					radius = pixelSize * (1 + random.nextInt(12));
+					x = Math.max(radius, Math.min(world.getWidth() - radius, Math.floor(x / pixelSize) * pixelSize + 0.01));
+					y = Math.max(radius, Math.min(world.getHeight() - radius, Math.floor(y / pixelSize) * pixelSize + 0.01));
+				}
+				boolean expected = world.scanImpassablePosition(x, y, radius)
+						|| ! map.isPassable((int) (x / pixelSize), map.getHeight() - (int) (y / pixelSize) - 1);
+				assertEquals(expected, world.isImpassablePosition(x, y, radius));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.util.Util;
+
+public class FallTest {
+
+	private World testWorld;
+
+	private Random random;
+
+	@Before
+	public void setUp() throws Exception {
+		// a ground layer with a wide hole and some floating blocks, 20 pixels/meter
+		random = new Random(5);
+		boolean[][] map = TestWorlds.flatMap();
+		for (int row = 180; row < 200; row++)
+			for (int col = 60; col < 240; col++)
+				map[row][col] = true;
+		TestWorlds.addBlocks(map, random, 15);
+		testWorld = new World(15, 10, map, new Random(3));
+	}
+
+	/**
+	 * Returns a new worm at a random position of the test world from which it can fall
+	 */
+	private Worm createFallingWorm() {
+		double radius = 0.25 + random.nextDouble() * 0.3;
+		while (true) {
+			double x = radius + random.nextDouble() * (testWorld.getWidth() - 2 * radius);
+			double y = radius + random.nextDouble() * (testWorld.getHeight() - 2 * radius);
+			if (! testWorld.isImpassablePosition(x, y, radius) && ! testWorld.isAdjacentPosition(x, y, radius))
+				return new Worm(testWorld, x, y, 0, radius, "Faller");
+		}
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void fallStepsMatchScanTest(){
+		for (int i = 0; i < 60; i++) {
+			Worm worm = createFallingWorm();
+			assertEquals(worm.scanFallSteps(), worm.getFallSteps());
+			worm.terminate();
+		}
+	}
+
+	@Test
+	public final void fallLandsOnAdjacentPositionTest(){
+		for (int i = 0; i < 20; i++) {
+			Worm worm = createFallingWorm();
+			double y = worm.getYPosition();
+			int nbSteps = worm.getFallSteps();
+			int hitPoints = worm.getRemainingHitPoints();
+			worm.fall();
+			if (nbSteps < 0) {
+				assertTrue(worm.isTerminated());
+				continue;
+			}
+			assertEquals(y - nbSteps * Util.DEFAULT_EPSILON, worm.getYPosition(), 1e-9);
+			assertTrue(testWorld.isAdjacentPosition(worm.getXPosition(), worm.getYPosition(), worm.getRadius()));
+			// the damage is the distance summed step by step, as before the landing position was searched
+			double fallenMeters = 0;
+			for (int step = 0; step < nbSteps; step++)
+				fallenMeters += Util.DEFAULT_EPSILON;
+			if (! worm.isTerminated())
+				assertEquals(hitPoints - (int) fallenMeters, worm.getRemainingHitPoints());
+			worm.terminate();
+		}
+	}
+
+}
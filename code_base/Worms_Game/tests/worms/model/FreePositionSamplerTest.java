@@ -0,0 +1,122 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FreePositionSamplerTest {
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void positionsAreAdjacentTest(){
+		World world = new World(15, 10, TestWorlds.flatMapWithBlocks(new Random(1), 10), new Random(2));
+		for (double radius : new double[] {0.2, 0.6}) {
+			double[][] positions = world.getFreePositions(radius, 25);
+			assertEquals(25, positions.length);
+			HashSet<String> pixels = new HashSet<>();
+			for (double[] position : positions) {
+				assertTrue(world.isAdjacentPosition(position[0], position[1], radius));
+				assertTrue(world.isFullyInWorld(position[0], position[1], radius));
+				pixels.add((int) (position[0] / world.getPixelwidth()) + "," + (int) (position[1] / world.getPixelheight()));
+			}
+			assertEquals(25, pixels.size());
+		}
+	}
+
+	@Test
+	public final void sameSeedSamePositionsTest(){
+		boolean[][] map = TestWorlds.flatMapWithBlocks(new Random(3), 10);
+		World first = new World(15, 10, map, new Random(42));
+		World second = new World(15, 10, map, new Random(42));
+		for (int i = 0; i < 5; i++) {
+			double[][] expected = first.getFreePositions(0.6, 4);
+			double[][] positions = second.getFreePositions(0.6, 4);
+			for (int j = 0; j < 4; j++)
+				assertArrayEquals(expected[j], positions[j], 0);
+		}
+	}
+
+	@Test
+	public final void noRandomGivenTest(){
+		World world = new World(15, 10, TestWorlds.flatMapWithBlocks(new Random(4), 10), null);
+		assertNotNull(world.getRandom());
+		double[] position = world.getFreePositions(0.2, 1)[0];
+		assertTrue(world.isAdjacentPosition(position[0], position[1], 0.2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void noAdjacentPositionTest(){
+		boolean[][] map = new boolean[50][50];
+		for (boolean[] row : map)
+			Arrays.fill(row, true);
+		new World(5, 5, map, new Random(5)).getFreePositions(0.2, 1);
+	}
+
+	@Test
+	public final void samplerForgetsTerrainTest(){
+		World world = new World(15, 10, TestWorlds.flatMapWithBlocks(new Random(6), 10), new Random(7));
+		world.getFreePositions(0.2, 3);
+		BitTerrainMap flat = BitTerrainMap.fromPassableMap(TestWorlds.flatMapWithBlocks(new Random(8), 10));
+		world.setTerrainMap(flat);
+		for (double[] position : world.getFreePositions(0.2, 10))
+			assertTrue(world.isAdjacentPosition(position[0], position[1], 0.2));
+	}
+
+	@Test
+	public final void candidatesOfFewRadiiAreKeptTest(){
+		World world = new World(15, 10, TestWorlds.flatMapWithBlocks(new Random(11), 10), new Random(12));
+		FreePositionSampler sampler = world.getFreePositionSampler();
+		for (int i = 0; i < 3 * FreePositionSampler.MAX_CACHED_RADII; i++) {
+			double radius = 0.2 + 0.01 * i;
+			double[] position = world.getFreePositions(radius, 1)[0];
+			assertTrue(world.isAdjacentPosition(position[0], position[1], radius));
+		}
+		assertEquals(FreePositionSampler.MAX_CACHED_RADII, sampler.getNbCachedRadii());
+	}
+
+	@Test
+	public final void bulkSpawnDoesNotOverlapTest(){
+		World world = new World(15, 10, TestWorlds.flatMapWithBlocks(new Random(9), 10), new Random(10));
+		world.addEmptyTeam("Bulk");
+		List<Worm> worms = world.addNewWorms(20, null);
+		List<Food> food = world.addNewFood(30);
+		assertEquals(20, worms.size());
+		assertEquals(30, food.size());
+		assertEquals(20, world.getAllWormsProtected().size());
+		assertEquals(30, world.getAllFoodProtected().size());
+		List<GameObject> objects = new ArrayList<GameObject>(worms);
+		objects.addAll(food);
+		for (int i = 0; i < objects.size(); i++) {
+			GameObject object = objects.get(i);
+			assertTrue(world.isAdjacentPosition(object.getXPosition(), object.getYPosition(), object.getRadius()));
+			for (int j = i + 1; j < objects.size(); j++) {
+				GameObject other = objects.get(j);
+				double distance = Math.hypot(object.getXPosition() - other.getXPosition(), object.getYPosition() - other.getYPosition());
+				assertTrue(distance >= object.getRadius() + other.getRadius() - 1e-4);
+			}
+		}
+		for (Worm worm : worms)
+			assertEquals("Bulk", worm.getTeam().getName());
+	}
+
+	@Test
+	public final void bulkSpawnSameSeedTest(){
+		boolean[][] map = TestWorlds.flatMapWithBlocks(new Random(11), 10);
+		World first = new World(15, 10, map, new Random(12));
+		World second = new World(15, 10, map, new Random(12));
+		List<Worm> expected = first.addNewWorms(10, null);
+		List<Worm> worms = second.addNewWorms(10, null);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(expected.get(i).getXPosition(), worms.get(i).getXPosition(), 0);
+			assertEquals(expected.get(i).getYPosition(), worms.get(i).getYPosition(), 0);
+		}
+	}
+
+}
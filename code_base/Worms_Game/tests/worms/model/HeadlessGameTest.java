@@ -0,0 +1,81 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.programs.ParseOutcome.Success;
+
+public class HeadlessGameTest {
+
+	private Facade facade;
+
+	private World world;
+
+	private HeadlessActionHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		facade = new Facade();
+		world = facade.createWorld(15, 10, map, new Random(3));
+		handler = new HeadlessActionHandler(facade, world);
+	}
+
+	/**
+	 * Returns the program with the given text, parsed with the headless action handler
+	 */
+	private Program parse(String text) {
+		return ((Success) facade.parseProgram(text, handler)).getResult();
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void programTurnsAreReportedTest(){
+		Worm first = facade.createWorm(world, 4, 1.51, 0, 0.5, "First", parse("turn 0.5;\n"));
+		Worm second = facade.createWorm(world, 10, 1.51, 0, 0.5, "Second", null);
+		HeadlessGame game = new HeadlessGame(world, handler);
+		List<HeadlessGame.TurnResult> results = game.play(2);
+		assertEquals(2, results.size());
+		HeadlessGame.TurnResult turn = results.get(0);
+		assertEquals(1, turn.getTurn());
+		assertEquals("First", turn.getWormName());
+		assertTrue(turn.getNbActions() >= 1);
+		assertEquals(0, turn.getNbFailedActions());
+		assertTrue(turn.isWormAlive());
+		assertEquals("Second", results.get(1).getWormName());
+		assertEquals(0, results.get(1).getNbActions());
+		assertTrue(facade.getOrientation(first) != 0);
+		assertEquals(0, facade.getOrientation(second), 0);
+		assertEquals(2, game.getNbTurns());
+	}
+
+	@Test
+	public final void gameRunsToTheEndTest(){
+		String program = "while (true) do {\n  fire 100;\n}\n";
+		for (int i = 0; i < 4; i++)
+			facade.createWorm(world, 1 + 3.5 * i, 1.51, i % 2 == 0 ? 0 : Math.PI, 0.5, "Worm" + i, parse(program));
+		HeadlessGame game = new HeadlessGame(world, handler);
+		List<HeadlessGame.TurnResult> results = game.play(100);
+		assertTrue(game.isFinished());
+		assertTrue(results.get(results.size() - 1).isGameFinished());
+		assertEquals(1, world.getAllWormsProtected().size());
+		assertEquals(world.getAllWormsProtected().getFirst().getName(), game.getWinner());
+		assertTrue(handler.getSimulatedTime() > 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public final void finishedGameTest(){
+		facade.createWorm(world, 4, 1.51, 0, 0.5, "Alone", null);
+		HeadlessGame game = new HeadlessGame(world, handler);
+		game.start();
+		assertTrue(game.isFinished());
+		game.playTurn();
+	}
+
+}
@@ -0,0 +1,63 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JumpTimeTest {
+
+	private World testWorld;
+
+	private Random random;
+
+	@Before
+	public void setUp() throws Exception {
+		// a ground layer with some floating blocks, 20 pixels/meter
+		random = new Random(5);
+		boolean[][] map = TestWorlds.flatMapWithBlocks(random, 15);
+		testWorld = new World(15, 10, map, null);
+	}
+
+	/**
+	 * Returns a new worm at a random passable position of the test world
+	 */
+	private Worm createWorm(String name) {
+		double radius = 0.25 + random.nextDouble() * 0.3;
+		while (true) {
+			double x = radius + random.nextDouble() * (testWorld.getWidth() - 2 * radius);
+			double y = radius + random.nextDouble() * (testWorld.getHeight() - 2 * radius);
+			if (! testWorld.isImpassablePosition(x, y, radius))
+				return new Worm(testWorld, x, y, random.nextDouble() * Math.PI, radius, name);
+		}
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void wormJumpTimeMatchesScanTest(){
+		for (int i = 0; i < 10; i++)
+			createWorm("Other" + i);
+		for (int i = 0; i < 60; i++) {
+			Worm worm = createWorm("Jumper");
+			assertEquals(worm.scanJumpTime(1e-4), worm.getJumpTime(1e-4), 1e-12);
+			worm.terminate();
+		}
+	}
+
+	@Test
+	public final void projectileJumpTimeMatchesScanTest(){
+		for (int i = 0; i < 10; i++)
+			createWorm("Target" + i);
+		for (int i = 0; i < 60; i++) {
+			double x = 0.5 + random.nextDouble() * (testWorld.getWidth() - 1);
+			double y = 1 + random.nextDouble() * (testWorld.getHeight() - 1.5);
+			Guns weapon = random.nextBoolean() ? Guns.Bazooka : Guns.Rifle;
+			Projectile projectile = new Projectile(testWorld, x, y, random.nextDouble() * 2 * Math.PI, random.nextInt(101), weapon);
+			assertEquals(projectile.scanJumpTime(1e-4), projectile.getJumpTime(1e-4), 1e-12);
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JumpTrajectoryTest {
+
+	private static double timeStep = 1e-4;
+
+	private World testWorld;
+
+	private Worm testWorm;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		testWorld = new World(15, 10, map, null);
+		testWorm = new Worm(testWorld, 3, 1.6, Math.PI / 3, 0.5, "Jumper");
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void positionsOnParabolaTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		assertEquals(testWorm.getJumpTime(timeStep), trajectory.getDuration(), 0);
+		assertTrue(trajectory.getNbSamples() > 1);
+		for (int i = 0; i <= 50; i++) {
+			double time = i * trajectory.getDuration() / 50;
+			double[] expected = testWorm.getJumpStep(time);
+			double[] position = trajectory.getPosition(time);
+			assertEquals(expected[0], position[0], 1e-3);
+			assertEquals(expected[1], position[1], 1e-3);
+		}
+		int last = trajectory.getNbSamples() - 1;
+		assertEquals(testWorm.getJumpStep(trajectory.getDuration())[1], trajectory.getY(last), 1e-9);
+	}
+
+	@Test
+	public final void cachedTrajectoryTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		assertSame(trajectory, testWorm.getJumpTrajectory(timeStep));
+		assertNotSame(trajectory, testWorm.getJumpTrajectory(timeStep * 2));
+	}
+
+	@Test
+	public final void invalidatedByDirectionTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		testWorm.setDirection(Math.PI / 4);
+		assertNotSame(trajectory, testWorm.getJumpTrajectory(timeStep));
+	}
+
+	@Test
+	public final void invalidatedByPositionTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		testWorm.setXPosition(4);
+		JumpTrajectory newTrajectory = testWorm.getJumpTrajectory(timeStep);
+		assertNotSame(trajectory, newTrajectory);
+		assertEquals(4, newTrajectory.getX(0), 0);
+	}
+
+	@Test
+	public final void invalidatedByActionPointsAndWeaponTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		testWorm.setRemainingActionPoints(testWorm.getRemainingActionPoints() - 1);
+		JumpTrajectory newTrajectory = testWorm.getJumpTrajectory(timeStep);
+		assertNotSame(trajectory, newTrajectory);
+		testWorm.setCurrentWeapon(Guns.Bazooka);
+		assertNotSame(newTrajectory, testWorm.getJumpTrajectory(timeStep));
+	}
+
+	@Test
+	public final void invalidatedByOtherWormTest(){
+		JumpTrajectory trajectory = testWorm.getJumpTrajectory(timeStep);
+		double[] top = trajectory.getPosition(trajectory.getDuration() / 2);
+		new Worm(testWorld, top[0], top[1], 0, 0.5, "Obstacle");
+		JumpTrajectory newTrajectory = testWorm.getJumpTrajectory(timeStep);
+		assertNotSame(trajectory, newTrajectory);
+		assertTrue(newTrajectory.getDuration() < trajectory.getDuration());
+	}
+
+}
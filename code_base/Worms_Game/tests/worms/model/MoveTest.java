@@ -0,0 +1,72 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MoveTest {
+
+	private World testWorld;
+
+	private Random random;
+
+	@Before
+	public void setUp() throws Exception {
+		// a ground layer with some floating blocks, 20 pixels/meter
+		random = new Random(5);
+		boolean[][] map = TestWorlds.flatMapWithBlocks(random, 15);
+		testWorld = new World(15, 10, map, new Random(3));
+	}
+
+	/**
+	 * Checks that the move target of the given worm is the same with and without walking every step
+	 */
+	private void assertSameMoveTarget(Worm worm) {
+		double[] expected = worm.scanMoveTarget();
+		double[] actual = worm.getMoveTarget();
+		assertEquals(expected[0], actual[0], 1e-9);
+		assertEquals(expected[1], actual[1], 1e-9);
+		assertEquals(expected[2], actual[2], 1e-9);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void moveFromAdjacentPositionMatchesScanTest(){
+		for (int i = 0; i < 12; i++) {
+			double radius = 0.25 + random.nextDouble() * 0.3;
+			double[] position = testWorld.getFreePositions(radius, 1)[0];
+			Worm worm = new Worm(testWorld, position[0], position[1], random.nextDouble() * 2 * Math.PI, radius, "Mover");
+			assertSameMoveTarget(worm);
+			worm.terminate();
+		}
+	}
+
+	@Test
+	public final void moveThroughTheAirMatchesScanTest(){
+		for (int i = 0; i < 12; i++) {
+			double radius = 0.25 + random.nextDouble() * 0.3;
+			double x = radius + random.nextDouble() * (testWorld.getWidth() - 2 * radius);
+			double y = radius + random.nextDouble() * (testWorld.getHeight() - 2 * radius);
+			if (testWorld.isImpassablePosition(x, y, radius) || testWorld.isAdjacentPosition(x, y, radius))
+				continue;
+			Worm worm = new Worm(testWorld, x, y, random.nextDouble() * 2 * Math.PI, radius, "Mover");
+			assertSameMoveTarget(worm);
+			worm.terminate();
+		}
+	}
+
+	@Test
+	public final void moveMovesToTheTargetTest() throws Exception {
+		double[] position = testWorld.getFreePositions(0.3, 1)[0];
+		Worm worm = new Worm(testWorld, position[0], position[1], 0.0, 0.3, "Mover");
+		double[] target = worm.getMoveTarget();
+		worm.move();
+		assertEquals(target[0], worm.getXPosition(), 1e-12);
+		assertEquals(target[1], worm.getYPosition(), 1e-12);
+	}
+
+}
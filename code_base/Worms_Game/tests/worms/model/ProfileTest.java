@@ -0,0 +1,104 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.part3.Assignment;
+import worms.model.part3.ProfiledExpression;
+import worms.model.programs.ParseOutcome.Success;
+
+public class ProfileTest {
+
+	private Facade facade;
+
+	private World world;
+
+	private HeadlessActionHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		facade = new Facade();
+		world = facade.createWorld(15, 10, map, new Random(7));
+		handler = new HeadlessActionHandler(facade, world);
+	}
+
+	/**
+	 * Returns the node of the given profile with the given name and line
+	 */
+	private Profile.Node getNode(Profile profile, String name, int line) {
+		for (Profile.Node node : profile.getNodes())
+			if (node.getName().equals(name) && node.getLine() == line)
+				return node;
+		return null;
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void programsAreOnlyProfiledInProfilingModeTest(){
+		String text = "double x;\nx := 1 + 2;\n";
+		Program program = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		assertNull(program.getProfile());
+		facade.getProgramCache().setProfiling(true);
+		assertEquals(0, facade.getProgramCache().size());
+		program = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		assertNotNull(program.getProfile());
+		assertSame(program.getProfile(), program.getCompiledProgram().getProfile());
+	}
+
+	@Test
+	public final void statementsExpressionsAndActionsAreCountedTest(){
+		facade.getProgramCache().setProfiling(true);
+		String text = "double x;\nx := 0;\nwhile (x < 3) do {\n  x := x + 1;\n  turn 0.1;\n}\n";
+		Program program = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		Worm worm = facade.createWorm(world, 4, 1.51, 0, 0.5, "Profiled", program);
+		worm.getProgram().nextExec();
+		Profile profile = worm.getProgram().getProfile();
+		Profile.Node assignment = getNode(profile, "Assignment", 4);
+		assertEquals(3, assignment.getCount());
+		assertEquals(2, assignment.getColumn());
+		assertEquals(3, getNode(profile, "Add", 4).getCount());
+		assertEquals(4, getNode(profile, "SmallerThan", 3).getCount());
+		assertEquals(3, getNode(profile, "Turn", 5).getCount());
+		Profile.Node turn = getNode(profile, "IActionHandler.turn", 0);
+		assertEquals(3, turn.getCount());
+		assertEquals(3, handler.getNbActions());
+		// the time of an action is part of the time of its statement
+		assertTrue(getNode(profile, "Turn", 5).getTotalNanos() >= turn.getTotalNanos());
+		assertTrue(assignment.getTotalNanos() >= assignment.getSelfNanos());
+
+		List<String> report = profile.getFlatReport();
+		assertTrue(report.get(0).startsWith("line:col"));
+		boolean found = false;
+		for (String line : report)
+			found |= line.startsWith("4:2") && line.contains("Assignment");
+		assertTrue(found);
+		found = false;
+		for (String line : profile.getFoldedStacks())
+			found |= line.matches("Turn@5:2;IActionHandler\\.turn \\d+");
+		assertTrue(found);
+
+		profile.reset();
+		assertEquals(0, assignment.getCount());
+		assertTrue(profile.getFoldedStacks().isEmpty());
+	}
+
+	@Test
+	public final void constantsAreFoldedBeforeTheyAreProfiledTest(){
+		facade.getProgramCache().setProfiling(true);
+		Program program = (Program) ((Success) facade.parseProgram("double x;\nx := sqrt(4) * 3;\n", handler)).getResult();
+		assertEquals(1, program.getCode().length);
+		Profile profile = program.getProfile();
+		assertNotNull(getNode(profile, "Constant", 2));
+		assertNull(getNode(profile, "Multiply", 2));
+		assertTrue(((Assignment) program.getCode()[0].getStatement()).getAssignmentPartner()
+				instanceof ProfiledExpression);
+	}
+
+}
@@ -0,0 +1,114 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.programs.ParseOutcome;
+import worms.model.programs.ParseOutcome.Success;
+
+public class ProgramCacheTest {
+
+	private Facade facade;
+
+	private World world;
+
+	private HeadlessActionHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		facade = new Facade();
+		world = facade.createWorld(15, 10, map, new Random(7));
+		handler = new HeadlessActionHandler(facade, world);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void sameTextIsParsedOnceTest(){
+		ProgramCache cache = new ProgramCache(4);
+		Program first = ((Success) cache.parse("double x;\nx := 1;\n", handler)).getResult();
+		Program second = ((Success) cache.parse("double x;\nx := 1;\n", handler)).getResult();
+		assertEquals(1, cache.getNbParses());
+		assertEquals(1, cache.size());
+		assertSame(first.getCompiledProgram(), second.getCompiledProgram());
+	}
+
+	@Test
+	public final void leastRecentlyUsedTextIsForgottenTest(){
+		ProgramCache cache = new ProgramCache(2);
+		cache.parse("jump;", handler);
+		cache.parse("move;", handler);
+		cache.parse("jump;", handler); // move is now the least recently used text
+		cache.parse("skip;", handler);
+		assertEquals(2, cache.size());
+		assertEquals(3, cache.getNbParses());
+		cache.parse("jump;", handler);
+		assertEquals(3, cache.getNbParses());
+		cache.parse("move;", handler);
+		assertEquals(4, cache.getNbParses());
+	}
+
+	@Test
+	public final void failuresAreRememberedTest(){
+		ProgramCache cache = new ProgramCache(4);
+		ParseOutcome<?> outcome = cache.parse("jump", handler);
+		assertFalse(outcome.isSuccess());
+		List<?> errors = (List<?>) outcome.getResult();
+		assertFalse(errors.isEmpty());
+		ParseOutcome<?> again = cache.parse("jump", handler);
+		assertFalse(again.isSuccess());
+		assertEquals(errors, again.getResult());
+		assertEquals(1, cache.getNbParses());
+		// the reused parser starts without the errors of the previous parse
+		assertTrue(cache.parse("jump;", handler).isSuccess());
+	}
+
+	@Test
+	public final void reusedParserResolvesSlotsPerProgramTest(){
+		ProgramCache cache = new ProgramCache(4);
+		Program first = ((Success) cache.parse("double a;\na := 1;\n", handler)).getResult();
+		Program second = ((Success) cache.parse("double b;\nb := 2;\n", handler)).getResult();
+		assertEquals(1, first.getFrame().size());
+		assertEquals(1, second.getFrame().size());
+		assertEquals(0, second.getFrame().getSlot("b"));
+	}
+
+	@Test
+	public final void bulkSpawnParsesOnceTest(){
+		String text = "double x;\nx := getx self;\n";
+		for (int i = 0; i < 5; i++) {
+			Program program = ((Success) facade.parseProgram(text, handler)).getResult();
+			facade.addNewWorms(world, 1, program);
+		}
+		assertEquals(1, facade.getProgramCache().getNbParses());
+		assertEquals(5, world.getAllWormsProtected().size());
+	}
+
+	@Test
+	public final void bulkSpawnCopiesProgramTest(){
+		Program program = ((Success) facade.parseProgram("double x;\nx := getx self;\n", handler)).getResult();
+		List<Worm> worms = world.addNewWorms(3, program);
+		assertEquals(3, worms.size());
+		for (int i = 0; i < worms.size(); i++) {
+			Program own = worms.get(i).getProgram();
+			assertNotSame(program, own);
+			assertSame(worms.get(i), own.getWorm());
+			assertSame(program.getCompiledProgram(), own.getCompiledProgram());
+			for (int j = 0; j < i; j++)
+				assertNotSame(worms.get(j).getProgram(), own);
+		}
+		assertNull(program.getWorm());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void illegalCapacityTest(){
+		new ProgramCache(0);
+	}
+
+}
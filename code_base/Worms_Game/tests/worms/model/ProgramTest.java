@@ -0,0 +1,242 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.part3.Assignment;
+import worms.model.part3.Boolean;
+import worms.model.part3.Double;
+import worms.model.part3.Instruction;
+import worms.model.part3.TwoArguments;
+import worms.model.part3.Type;
+import worms.model.part3.VariableFrame;
+import worms.model.part3.ZeroArguments;
+import worms.model.programs.ParseOutcome;
+import worms.model.programs.ParseOutcome.Success;
+
+public class ProgramTest {
+
+	private Facade facade;
+
+	private World world;
+
+	private HeadlessActionHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		facade = new Facade();
+		world = facade.createWorld(15, 10, map, new Random(7));
+		handler = new HeadlessActionHandler(facade, world);
+	}
+
+	/**
+	 * Returns a worm with the program with the given text, parsed with the headless action handler
+	 */
+	private Worm createWorm(String text) {
+		Program program = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		return facade.createWorm(world, 4, 1.51, 0, 0.5, "Runner", program);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void variablesHaveSlotsTest(){
+		Worm worm = createWorm("double x;\ndouble y;\ndouble unused;\nx := 2;\ny := x * 3;\n");
+		VariableFrame frame = worm.getProgram().getFrame();
+		assertEquals(3, frame.size());
+		assertEquals(0, frame.getSlot("x"));
+		assertEquals(1, frame.getSlot("y"));
+		assertEquals(2, frame.getSlot("unused"));
+		assertEquals(-1, frame.getSlot("z"));
+		worm.getProgram().allExec();
+		assertEquals(2, ((Double) frame.get(0)).getValue(), 0);
+		assertEquals(6, ((Double) frame.get(1)).getValue(), 0);
+	}
+
+	@Test
+	public final void globalsAreADebuggingViewTest(){
+		Worm worm = createWorm("double x;\nx := x + 1;\n");
+		worm.getProgram().allExec();
+		Map<String, Type> globals = worm.getProgram().getGlobals();
+		double x = ((Double) globals.get("x")).getValue();
+		assertTrue(x > 1);
+		globals.put("x", new Double(-5));
+		assertEquals(x, ((Double) worm.getProgram().getGlobals().get("x")).getValue(), 0);
+	}
+
+	@Test
+	public final void forEachWritesItsVariableTest(){
+		facade.createWorm(world, 10, 1.51, 0, 0.5, "Other", null);
+		Worm worm = createWorm("entity w;\ndouble r;\nforeach(worm, w) do {\n  r := getradius w;\n}\n");
+		worm.getProgram().allExec();
+		assertEquals(0.5, ((Double) worm.getProgram().getGlobals().get("r")).getValue(), 0);
+		assertTrue(worm.getProgram().getGlobals().get("w") instanceof Worm);
+	}
+
+	@Test
+	public final void arithmeticAndComparisonTest(){
+		Worm worm = createWorm("double a;\ndouble b;\nbool c;\nbool d;\nbool e;\n"
+				+ "a := ((3 + 4) * 2) - (10 / 4);\nb := sqrt(16) + cos(0);\nc := (a > b) && !(b >= 6);\n"
+				+ "d := b == 5;\ne := (a != 11.5) || false;\n");
+		worm.getProgram().allExec();
+		Map<String, Type> globals = worm.getProgram().getGlobals();
+		assertEquals(11.5, ((Double) globals.get("a")).getValue(), 1e-12);
+		assertEquals(5, ((Double) globals.get("b")).getValue(), 1e-12);
+		assertSame(Boolean.TRUE, globals.get("c"));
+		assertSame(Boolean.TRUE, globals.get("d"));
+		assertSame(Boolean.FALSE, globals.get("e"));
+	}
+
+	@Test
+	public final void compiledCodeTest(){
+		Worm worm = createWorm("double a;\nif (a > 2) then {\n  a := 1;\n} else {\n  a := 2;\n}\n");
+		Instruction[] code = worm.getProgram().getCode();
+		assertEquals(5, code.length);
+		assertTrue(code[0] instanceof Instruction.JumpIfFalse);
+		assertEquals(3, ((Instruction.JumpIfFalse) code[0]).getTarget());
+		assertTrue(code[1] instanceof Instruction.Execute);
+		assertEquals(4, ((Instruction.Jump) code[2]).getTarget());
+		assertTrue(code[4] instanceof Instruction.Count);
+		assertEquals(2, worm.getProgram().getProgramLine());
+		worm.getProgram().nextExec();
+		assertEquals(2, ((Double) worm.getProgram().getGlobals().get("a")).getValue(), 0);
+		assertEquals(2, worm.getProgram().getProgramCounter());
+		assertEquals(0, worm.getProgram().getProgramIndex());
+	}
+
+	@Test
+	public final void executionResumesInLoopTest(){
+		Worm worm = createWorm("double n;\nn := 0;\nwhile (n < 5000) do {\n  n := n + 1;\n}\n");
+		worm.getProgram().allExec();
+		assertEquals(1000, worm.getProgram().getProgramCounter());
+		assertEquals(999, ((Double) worm.getProgram().getGlobals().get("n")).getValue(), 0);
+		assertEquals(3, worm.getProgram().getProgramLine());
+		worm.getProgram().allExec();
+		assertEquals(1999, ((Double) worm.getProgram().getGlobals().get("n")).getValue(), 0);
+	}
+
+	@Test
+	public final void parsedProgramsShareTheirCodeTest(){
+		String text = "double x;\nx := getx self;\n";
+		Program first = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		Program second = (Program) ((Success) facade.parseProgram(text, handler)).getResult();
+		assertNotSame(first, second);
+		assertSame(first.getCompiledProgram(), second.getCompiledProgram());
+		assertSame(first.getCode()[0], second.getCode()[0]);
+		assertEquals(1, facade.getProgramCache().getNbParses());
+	}
+
+	@Test
+	public final void wormsSharingAProgramHaveTheirOwnVariablesTest(){
+		Program program = (Program) ((Success) facade.parseProgram("double x;\nx := getx self;\n", handler)).getResult();
+		Worm left = facade.createWorm(world, 4, 1.51, 0, 0.5, "Left", program);
+		Worm right = facade.createWorm(world, 10, 1.51, 0, 0.5, "Right", program);
+		assertSame(program, left.getProgram());
+		assertNotSame(program, right.getProgram());
+		assertSame(right, right.getProgram().getWorm());
+		assertSame(program.getCompiledProgram(), right.getProgram().getCompiledProgram());
+		left.getProgram().allExec();
+		right.getProgram().allExec();
+		assertEquals(4, ((Double) left.getProgram().getGlobals().get("x")).getValue(), 1e-9);
+		assertEquals(10, ((Double) right.getProgram().getGlobals().get("x")).getValue(), 1e-9);
+	}
+
+	@Test
+	public final void booleanValueOfTest(){
+		assertSame(Boolean.TRUE, Boolean.valueOf(true));
+		assertSame(Boolean.FALSE, Boolean.valueOf(false));
+		assertTrue(Boolean.TRUE.getValue());
+		assertFalse(Boolean.FALSE.getValue());
+	}
+
+	@Test
+	public final void typeErrorsAreReportedWithTheirPositionTest(){
+		ParseOutcome<?> outcome = facade.parseProgram("double x;\nbool b;\nx := 1 + true;\nb := x;\nwhile x do { skip; }\n", handler);
+		assertFalse(outcome.isSuccess());
+		List<?> errors = (List<?>) outcome.getResult();
+		assertEquals(3, errors.size());
+		assertEquals("3:5 type error: you tried to Add some not-Doubles", errors.get(0));
+		assertEquals("4:0 type error: you tried to assign some Double to the Boolean variable b", errors.get(1));
+		assertEquals("5:0 type error: the condition of a while is not a Boolean", errors.get(2));
+	}
+
+	@Test
+	public final void illegalAssignmentIsAFailureTest(){
+		ParseOutcome<?> outcome = facade.parseProgram("bool b;\nb := 3;\n", handler);
+		assertFalse(outcome.isSuccess());
+		assertEquals(1, ((List<?>) outcome.getResult()).size());
+	}
+
+	@Test
+	public final void sampleProgramsAreWellFormedTest() throws IOException {
+		for (String name : new String[] {"program.txt", "program_example.txt", "program_simple.txt",
+				"program_very_simple.txt", "syntax_test.txt", "test.txt"}) {
+			String text = new String(Files.readAllBytes(Paths.get("programs", name)), "UTF-8");
+			ParseOutcome<?> outcome = facade.parseProgram(text, handler);
+			assertTrue(name + ": " + outcome.getResult(), outcome.isSuccess());
+		}
+	}
+
+	@Test
+	public final void parsedExpressionsAreVerifiedTest(){
+		Worm worm = createWorm("double x;\ndouble y;\nentity e;\nx := (getx self) + 1;\ne := null;\ny := x * 2;\n");
+		Instruction[] code = worm.getProgram().getCode();
+		Assignment known = (Assignment) code[0].getStatement();
+		assertTrue(known.isVerified());
+		assertTrue(known.getAssignmentPartner().isVerified());
+		// the type of null is only known when the program runs
+		assertFalse(((Assignment) code[1].getStatement()).isVerified());
+		worm.getProgram().allExec();
+		assertEquals(10, ((Double) worm.getProgram().getGlobals().get("y")).getValue(), 1e-9);
+	}
+
+	@Test
+	public final void constantExpressionsAreFoldedTest(){
+		Worm worm = createWorm("double x;\nbool b;\nx := (sqrt(4) * 3) + cos(0);\nb := (!(2 > 3)) && (x == 7);\n");
+		Instruction[] code = worm.getProgram().getCode();
+		assertTrue(((Assignment) code[0].getStatement()).getAssignmentPartner() instanceof ZeroArguments.Constant);
+		// x is a variable, so only !(2 > 3) is folded
+		assertFalse(((Assignment) code[1].getStatement()).getAssignmentPartner().isConstant());
+		assertTrue(((TwoArguments) ((Assignment) code[1].getStatement()).getAssignmentPartner()).getArgumentOne().isConstant());
+		worm.getProgram().allExec();
+		assertEquals(7, ((Double) worm.getProgram().getGlobals().get("x")).getValue(), 0);
+		assertSame(Boolean.TRUE, worm.getProgram().getGlobals().get("b"));
+	}
+
+	@Test
+	public final void constantIfsAndSkipsAreNotCompiledTest(){
+		Worm worm = createWorm("double a;\nskip;\nskip;\nif (true && (2 > 1)) then {\n  a := 1;\n  skip;\n} else {\n  a := 2;\n}\n");
+		Instruction[] code = worm.getProgram().getCode();
+		assertEquals(2, code.length);
+		assertTrue(code[0] instanceof Instruction.Execute);
+		assertTrue(code[1] instanceof Instruction.Count);
+		worm.getProgram().nextExec();
+		assertEquals(1, ((Double) worm.getProgram().getGlobals().get("a")).getValue(), 0);
+		assertEquals(2, worm.getProgram().getProgramCounter());
+		assertTrue(worm.getProgram().getCompiledProgram().dump().contains("0: execute a := 1.0"));
+	}
+
+	@Test
+	public final void programsTraceAndPrintThroughTheirWorldTest(){
+		Worm worm = createWorm("double x;\nx := 2;\nprint x + 1;\n");
+		world.getTrace().setLevel(Trace.Category.STATEMENT, Trace.Level.DEBUG);
+		worm.getProgram().nextExec();
+		assertEquals(1, handler.getMessages().size());
+		assertEquals("3.0", handler.getMessages().get(0));
+		List<String> lines = world.getTrace().dump();
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).endsWith("STATEMENT: assigned x := 2.0"));
+		assertTrue(lines.get(1).endsWith("STATEMENT: printing 3.0"));
+	}
+
+}
@@ -0,0 +1,104 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialGridTest {
+
+	private World testWorld;
+
+	private Random random;
+
+	@Before
+	public void setUp() throws Exception {
+		random = new Random(11);
+		boolean[][] passableMap = new boolean[40][60];
+		for (boolean[] row : passableMap)
+			Arrays.fill(row, true);
+		testWorld = new World(30, 20, passableMap, null);
+		for (int i = 0; i < 60; i++)
+			new Worm(testWorld, randomX(), randomY(), 0, 0.3 + random.nextDouble(), "Worm" + i);
+		for (int i = 0; i < 100; i++)
+			testWorld.createFood(randomX(), randomY());
+	}
+
+	private double randomX() {
+		return 1.5 + random.nextDouble() * (testWorld.getWidth() - 3);
+	}
+
+	private double randomY() {
+		return 1.5 + random.nextDouble() * (testWorld.getHeight() - 3);
+	}
+
+	private void assertSameAsLinearScan() {
+		for (int k = 0; k < 300; k++) {
+			double[] pos = {random.nextDouble() * testWorld.getWidth(), random.nextDouble() * testWorld.getHeight()};
+			double radius = random.nextDouble() * 1.5;
+			assertSame(testWorld.overlapsWith(pos, radius, testWorld.getAllWorldObjects("worm")),
+					testWorld.getOverlappingWorm(pos, radius));
+			assertSame(testWorld.overlapsWith(pos, radius, testWorld.getAllWorldObjects("food")),
+					testWorld.getOverlappingFood(pos, radius));
+		}
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void overlapTest(){
+		assertSameAsLinearScan();
+	}
+
+	@Test
+	public final void moveAndResizeTest(){
+		for (Worm worm : testWorld.getAllWorms()) {
+			worm.setXPosition(randomX());
+			worm.setYPosition(randomY());
+		}
+		testWorld.getAllWorms().getFirst().setRadius(2.5);
+		assertSameAsLinearScan();
+	}
+
+	@Test
+	public final void removeTest(){
+		for (Food food : testWorld.getAllFood())
+			if (random.nextBoolean())
+				food.terminate();
+		testWorld.removeWorm(testWorld.getAllWorms().getLast());
+		assertSameAsLinearScan();
+	}
+
+	@Test
+	public final void searchWormTest(){
+		int nbFound = 0;
+		for (int k = 0; k < 300; k++) {
+			double x = random.nextDouble() * testWorld.getWidth();
+			double y = random.nextDouble() * testWorld.getHeight();
+			double direction = random.nextDouble() * 2 * Math.PI;
+			// the circles along the ray, one every meter, as long as they lie in the world
+			Worm expected = null;
+			for (int i = 1; expected == null; i++) {
+				double[] pos = {x + i*Math.cos(direction), y + i*Math.sin(direction)};
+				if (pos[0] < 0 || pos[0] > testWorld.getWidth() || pos[1] < 0 || pos[1] > testWorld.getHeight())
+					break;
+				expected = testWorld.getOverlappingWorm(pos, 0.2);
+			}
+			assertSame(expected, testWorld.searchWorm(x, y, direction, 1, 0.2));
+			if (expected != null)
+				nbFound++;
+		}
+		assertTrue(nbFound > 0);
+	}
+
+	@Test
+	public final void emptyGridTest(){
+		SpatialGrid<Worm> grid = new SpatialGrid<>(10, 10);
+		assertEquals(0, grid.size());
+		assertNull(grid.getOverlapping(5, 5, 100));
+	}
+
+}
@@ -0,0 +1,86 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SurfaceIndexTest {
+
+	/**
+	 * Returns a random terrain map in which about the given fraction of the pixels is impassable
+	 */
+	private static BitTerrainMap randomMap(Random random, int width, int height, double impassableFraction) {
+		BitTerrainMap map = new BitTerrainMap(width, height);
+		for (int row = 0; row < height; row++)
+			for (int col = 0; col < width; col++)
+				if (random.nextDouble() < impassableFraction)
+					map.setPassable(col, row, false);
+		return map;
+	}
+
+	/**
+	 * Returns the first impassable pixel in the given column at or below the given row, by checking every pixel
+	 */
+	private static int bruteForceFirstSolidRow(TerrainMap map, int column, int row) {
+		for (int r = row; r < map.getHeight(); r++)
+			if (! map.isPassable(column, r))
+				return r;
+		return map.getHeight();
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void firstSolidRowMatchesBruteForceTest(){
+		Random random = new Random(1);
+		for (double fraction : new double[] {0.0, 0.02, 0.3, 1.0}) {
+			BitTerrainMap map = randomMap(random, 40, 60, fraction);
+			SurfaceIndex index = new SurfaceIndex(map);
+			for (int col = 0; col < map.getWidth(); col++)
+				for (int row = 0; row < map.getHeight(); row++)
+					assertEquals(bruteForceFirstSolidRow(map, col, row), index.getFirstSolidRow(col, row));
+		}
+	}
+
+	@Test
+	public final void runsAreCountedPerColumnTest(){
+		// column 0: passable, column 1: one run, column 2: two runs
+		BitTerrainMap map = new BitTerrainMap(3, 6);
+		for (int row = 2; row < 6; row++)
+			map.setPassable(1, row, false);
+		map.setPassable(2, 0, false);
+		map.setPassable(2, 4, false);
+		map.setPassable(2, 5, false);
+		SurfaceIndex index = new SurfaceIndex(map);
+		assertEquals(0, index.getNbRuns(0));
+		assertEquals(1, index.getNbRuns(1));
+		assertEquals(2, index.getNbRuns(2));
+		assertEquals(6, index.getFirstSolidRow(0, 0));
+		assertEquals(2, index.getFirstSolidRow(1, 0));
+		assertEquals(4, index.getFirstSolidRow(2, 1));
+	}
+
+	@Test
+	public final void terrainBelowIsFarFromImpassableTerrainTest(){
+		Random random = new Random(3);
+		World world = new World(8, 6, randomMap(random, 80, 60, 0.003), random);
+		for (int i = 0; i < 300; i++) {
+			double x = random.nextDouble() * world.getWidth();
+			double y = random.nextDouble() * world.getHeight();
+			double distance = random.nextDouble();
+			double terrainBelow = world.getTerrainBelow(x, y, distance);
+			if (terrainBelow == Double.POSITIVE_INFINITY) {
+				assertTrue(world.getClearance(x, y) <= distance + 1e-6);
+				continue;
+			}
+			double lowest = Math.max(terrainBelow, 0);
+			for (double below = y; below >= lowest; below -= world.getPixelheight() / 3)
+				assertTrue(world.getClearance(x, below) > distance);
+			if (terrainBelow != Double.NEGATIVE_INFINITY)
+				assertTrue(world.getClearance(x, terrainBelow - world.getPixelheight() / 2) <= distance + 1e-6);
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package worms.model;
+
+import java.util.Random;
+
+/**
+ * The maps of the worlds used by the tests.
+ * Every map has 300 by 200 pixels, for a world of 15 by 10 meters (20 pixels/meter).
+ */
+public class TestWorlds {
+
+	/**
+	 * Returns a map with a flat ground of 1 meter (the rows from 180 down are impassable)
+	 */
+	public static boolean[][] flatMap() {
+		return flatMap(180);
+	}
+
+	/**
+	 * Returns a map with a flat ground from the given row down
+	 * @param 	groundRow
+	 * 			the first impassable row
+	 */
+	public static boolean[][] flatMap(int groundRow) {
+		boolean[][] map = new boolean[200][300];
+		for (int row = 0; row < 200; row++)
+			for (int col = 0; col < 300; col++)
+				map[row][col] = row < groundRow;
+		return map;
+	}
+
+	/**
+	 * Returns a map with a flat ground of 1 meter and the given number of floating blocks
+	 * @param 	random
+	 * 			the random generator used to place the blocks
+	 * @param 	nbBlocks
+	 * 			the number of blocks
+	 */
+	public static boolean[][] flatMapWithBlocks(Random random, int nbBlocks) {
+		return addBlocks(flatMap(), random, nbBlocks);
+	}
+
+	/**
+	 * Makes the given number of blocks of 2 to 11 by 2 to 21 pixels impassable in the given map, above its ground,
+	 * and returns that map
+	 * @param 	random
+	 * 			the random generator used to place the blocks
+	 * @param 	nbBlocks
+	 * 			the number of blocks
+	 */
+	public static boolean[][] addBlocks(boolean[][] map, Random random, int nbBlocks) {
+		return addBlocks(map, random, nbBlocks, 170);
+	}
+
+	/**
+	 * Makes the given number of blocks of 2 to 11 by 2 to 21 pixels impassable in the given map, with their top
+	 * above the given row, and returns that map
+	 * @param 	random
+	 * 			the random generator used to place the blocks
+	 * @param 	nbBlocks
+	 * 			the number of blocks
+	 * @param 	maxTop
+	 * 			the row above which the top of every block lies
+	 */
+	public static boolean[][] addBlocks(boolean[][] map, Random random, int nbBlocks, int maxTop) {
+		for (int block = 0; block < nbBlocks; block++) {
+			int top = random.nextInt(maxTop), left = random.nextInt(280);
+			int height = 2 + random.nextInt(10), width = 2 + random.nextInt(20);
+			for (int row = top; row < top + height; row++)
+				for (int col = left; col < left + width; col++)
+					map[row][col] = false;
+		}
+		return map;
+	}
+}
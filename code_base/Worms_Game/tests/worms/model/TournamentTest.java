@@ -0,0 +1,79 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TournamentTest {
+
+	private Tournament tournament;
+
+	@Before
+	public void setUp() throws Exception {
+		boolean[][] map = TestWorlds.flatMap();
+		Map<String, String> programs = new LinkedHashMap<String, String>();
+		programs.put("shooter", "while (true) do {\n  fire 100;\n}\n");
+		programs.put("turner", "while (true) do {\n  turn 0.2;\n}\n");
+		tournament = new Tournament(programs, 15, 10, map);
+		tournament.setMaxNbTurns(60);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void resultsDoNotDependOnTheNumberOfThreadsTest(){
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool several = new ForkJoinPool(4);
+		try {
+			Tournament.Result sequential = tournament.play(8, 42, single);
+			Tournament.Result parallel = tournament.play(8, 42, several);
+			assertEquals(8, parallel.getMatches().size());
+			for (int match = 0; match < 8; match++) {
+				Tournament.MatchResult expected = sequential.getMatches().get(match);
+				Tournament.MatchResult actual = parallel.getMatches().get(match);
+				assertEquals(expected.getSeed(), actual.getSeed());
+				assertEquals(expected.getWinner(), actual.getWinner());
+				assertEquals(expected.getNbTurns(), actual.getNbTurns());
+				assertEquals(expected.getNbWormsLeft(), actual.getNbWormsLeft());
+			}
+		}
+		finally {
+			single.shutdown();
+			several.shutdown();
+		}
+	}
+
+	@Test
+	public final void winRatesAndDrawsAddUpTest(){
+		Tournament.Result result = tournament.play(6, 7);
+		double total = result.getNbDraws() / 6.0;
+		for (String name : tournament.getProgramNames())
+			total += result.getWinRate(name);
+		assertEquals(1.0, total, 1e-9);
+		assertEquals(0, result.getNbWins("turner"));
+		assertTrue(result.getMeanNbTurns() > 0);
+		assertTrue(result.getTotalMatchNanos() > 0);
+		assertEquals(tournament.getProgramNames().size() + 4, result.getReport().size());
+	}
+
+	@Test
+	public final void sameSeedGivesSameMatchTest(){
+		Tournament.MatchResult first = tournament.playMatch(3);
+		Tournament.MatchResult second = tournament.playMatch(3);
+		assertEquals(first.getWinner(), second.getWinner());
+		assertEquals(first.getNbTurns(), second.getNbTurns());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void illegalProgramTest(){
+		Map<String, String> programs = new LinkedHashMap<String, String>();
+		programs.put("broken", "while (true) do {\n  fire ;\n}\n");
+		new Tournament(programs, 15, 10, new boolean[10][10]);
+	}
+
+}
@@ -0,0 +1,121 @@
+package worms.model;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Trace.Category;
+import worms.model.Trace.Level;
+
+public class TraceTest {
+
+	private Trace trace;
+
+	@Before
+	public void setUp() throws Exception {
+		trace = new Trace(4);
+	}
+
+	// ----------- start tests --------------
+
+	@Test
+	public final void nothingIsRecordedByDefaultTest(){
+		for (Category category : Category.values()) {
+			assertNull(trace.getLevel(category));
+			assertFalse(trace.isEnabled(category, Level.ERROR));
+		}
+		trace.log(Category.PROGRAM, Level.ERROR, "lost");
+		assertEquals(0, trace.getNbRecorded());
+		assertTrue(trace.dump().isEmpty());
+	}
+
+	@Test
+	public final void levelsAreSwitchedOnByCategoryTest(){
+		trace.setLevel(Category.STATEMENT, Level.INFO);
+		assertTrue(trace.isEnabled(Category.STATEMENT, Level.ERROR));
+		assertTrue(trace.isEnabled(Category.STATEMENT, Level.INFO));
+		assertFalse(trace.isEnabled(Category.STATEMENT, Level.DEBUG));
+		assertFalse(trace.isEnabled(Category.PROGRAM, Level.ERROR));
+		trace.log(Category.STATEMENT, Level.DEBUG, "too detailed");
+		trace.log(Category.PROGRAM, Level.INFO, "other category");
+		trace.log(Category.STATEMENT, Level.INFO, "value", 2.5);
+		trace.log(Category.STATEMENT, Level.WARNING, "argument", "x");
+		List<String> lines = trace.dump();
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).startsWith("0 "));
+		assertTrue(lines.get(0).endsWith(" INFO STATEMENT: value 2.5"));
+		assertTrue(lines.get(1).endsWith(" WARNING STATEMENT: argument x"));
+		trace.setLevel(null);
+		assertFalse(trace.isEnabled(Category.STATEMENT, Level.ERROR));
+	}
+
+	@Test
+	public final void oldestMessagesAreOverwrittenTest(){
+		trace = new Trace(3);
+		assertEquals(4, trace.getCapacity());
+		trace.setLevel(Level.DEBUG);
+		for (int i = 0; i < 6; i++)
+			trace.log(Category.ACTION, Level.DEBUG, "message", i);
+		assertEquals(6, trace.getNbRecorded());
+		List<String> lines = trace.dump();
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(0).startsWith("2 "));
+		assertTrue(lines.get(3).endsWith("message 5.0"));
+		trace.clear();
+		assertTrue(trace.dump().isEmpty());
+	}
+
+	@Test
+	public final void argumentIsKeptAsTextTest(){
+		trace.setLevel(Level.DEBUG);
+		StringBuilder argument = new StringBuilder("before");
+		trace.log(Category.PROGRAM, Level.INFO, "argument", argument);
+		argument.replace(0, argument.length(), "after");
+		trace.log(Category.PROGRAM, Level.INFO, "nothing", (Object) null);
+		List<String> lines = trace.dump();
+		assertTrue(lines.get(0).endsWith(" INFO PROGRAM: argument before"));
+		assertTrue(lines.get(1).endsWith(" INFO PROGRAM: nothing"));
+	}
+
+	@Test
+	public final void concurrentRecordingTest() throws InterruptedException {
+		final Trace shared = new Trace(8);
+		shared.setLevel(Level.DEBUG);
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final String name = "thread" + i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++)
+						shared.log(Category.ACTION, Level.DEBUG, name, j);
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < 200; i++) {
+			long previous = -1;
+			for (String line : shared.dump()) {
+				long sequence = Long.parseLong(line.substring(0, line.indexOf(' ')));
+				assertTrue(sequence > previous);
+				assertTrue(line.matches("\\d+ \\d+ DEBUG ACTION: thread\\d \\d+\\.0"));
+				previous = sequence;
+			}
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(40000, shared.getNbRecorded());
+		List<String> lines = shared.dump();
+		assertEquals(8, lines.size());
+		assertTrue(lines.get(7).startsWith("39999 "));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void illegalCapacityTest(){
+		new Trace(0);
+	}
+
+}
@@ -2,7 +2,9 @@ package worms.model;
 
 import static org.junit.Assert.*;
 
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.After;
@@ -92,7 +94,35 @@ public class WorldTest {
 			"Test");
     	assertTrue(world.isAdjacentPosition(worm.getXPosition(), worm.getYPosition(), worm.getRadius()));
     }
-    
+
+    @Test
+    public final void isAdjacentMatchesSweep(){
+    	// a ground layer with some floating blocks
+    	Random mapRandom = new Random(7);
+    	boolean[][] map = new boolean[60][80];
+    	for (int row = 0; row < 60; row++)
+    		for (int col = 0; col < 80; col++)
+    			map[row][col] = row < 50;
+    	for (int block = 0; block < 12; block++) {
+    		int top = mapRandom.nextInt(45), left = mapRandom.nextInt(70);
+    		for (int row = top; row < top + 1 + mapRandom.nextInt(6); row++)
+    			for (int col = left; col < left + 1 + mapRandom.nextInt(10); col++)
+    				map[row][col] = false;
+    	}
+    	World world = new World(4.0, 3.0, map, random); // 20 pixels/meter
+    	int nbAdjacent = 0;
+    	for (int k = 0; k < 400; k++) {
+    		double radius = 0.1 + mapRandom.nextDouble() * 0.4;
+    		double x = radius + mapRandom.nextDouble() * (world.getWidth() - 2 * radius);
+    		double y = radius + mapRandom.nextDouble() * (world.getHeight() - 2 * radius);
+    		boolean expected = world.sweepAdjacentPosition(x, y, radius);
+    		assertEquals(expected, world.isAdjacentPosition(x, y, radius));
+    		if (expected)
+    			nbAdjacent++;
+    	}
+    	assertTrue(nbAdjacent > 0);
+    }
+
     @Test
     public final void pythagoras(){
     	double[] first = {1,1};
@@ -233,4 +263,48 @@ public class WorldTest {
     	assertTrue(testWorld.overlapsWith(pos, item.getRadius(), dest) == testWorld.getActiveProjectile());
     }
     
+    @Test
+    public final void liveObjectsTest(){
+    	boolean[][] map = TestWorlds.flatMap();
+    	World world = new World(15, 10, map, new Random(7));
+    	List<Worm> worms = world.addNewWorms(3, null);
+    	List<Food> food = world.addNewFood(2);
+    	Iterator<GameObject> objects = world.getLiveObjects(true, true);
+    	assertSame(worms.get(0), objects.next());
+    	// objects that die before they are reached are skipped, new objects are found
+    	worms.get(1).terminate();
+    	Food extra = world.addNewFood(1).get(0);
+    	food.get(0).terminate();
+    	assertSame(worms.get(2), objects.next());
+    	assertSame(food.get(1), objects.next());
+    	assertSame(extra, objects.next());
+    	assertFalse(objects.hasNext());
+    	
+    	Iterator<GameObject> onlyFood = world.getLiveObjects(false, true);
+    	assertSame(food.get(1), onlyFood.next());
+    	assertSame(extra, onlyFood.next());
+    	assertFalse(onlyFood.hasNext());
+    }
+    
+    @Test
+    public final void liveObjectsAfterRemovalsTest(){
+    	World world = new World(15, 10, TestWorlds.flatMap(), new Random(7));
+    	List<Worm> worms = world.addNewWorms(6, null);
+    	Iterator<GameObject> objects = world.getLiveObjects(true, false);
+    	assertSame(worms.get(0), objects.next());
+    	assertSame(worms.get(1), objects.next());
+    	assertSame(worms.get(2), objects.next());
+    	// the object passed last and an object before it are removed
+    	world.removeWorm(worms.get(0));
+    	world.removeWorm(worms.get(2));
+    	assertSame(worms.get(3), objects.next());
+    	// objects before the cursor are removed and objects are added after it
+    	world.removeWorm(worms.get(1));
+    	world.removeWorm(worms.get(3));
+    	Worm extra = world.addNewWorms(1, null).get(0);
+    	assertSame(worms.get(4), objects.next());
+    	assertSame(worms.get(5), objects.next());
+    	assertSame(extra, objects.next());
+    	assertFalse(objects.hasNext());
+    }
 }